@@ -0,0 +1,35 @@
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * A JMH mérések futtatása, az eredmények gépileg olvasható (JSON) fájlba írásával, hogy a futások összehasonlíthatók legyenek.
+ *
+ * A modul (bench.iml) a checkers modulra és a JMH könyvtárra épül, a méréseket a jmh-generator-annprocess
+ * annotáció feldolgozó generálja, ezért a fordításnál az annotáció feldolgozást be kell kapcsolni.
+ * A mérések a beállított forkokban, headless módban futnak.
+ *
+ * Használat:
+ *  java bench.BenchmarkRunner [mérések mintája (regex)] [eredmény fájl]
+ * Például: java bench.BenchmarkRunner Rules rules.json
+ */
+public class BenchmarkRunner {
+
+    public static final String DEFAULT_RESULT_FILE = "bench-results.json"; // Az eredmények alapértelmezett fájlja.
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "bench\\..*Benchmark";
+        String result = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result)
+                .build();
+        new Runner(options).run();
+        System.out.println("Results written to " + result);
+    }
+}
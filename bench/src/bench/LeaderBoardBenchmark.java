@@ -0,0 +1,85 @@
+package bench;
+
+import board.Board;
+import main.LeaderBoard;
+import main.ScoreStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A ranglista frissítésének (LeaderBoard.updateList), egy győzelem rögzítésének (ScoreStore.record) és a tároló megnyitásának
+ * (ScoreStore.open) mérése sok bejegyzéssel, egy ideiglenes könyvtárban.
+ * A pontszámok rögzített kezdőértékű véletlen lépésszámok, így minden futás ugyanazt a listát rendezi.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+@State(Scope.Thread)
+public class LeaderBoardBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int entries;
+
+    private LeaderBoard leaderBoard;
+    private Path directory, snapshot, log;
+    private ScoreStore store;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        leaderBoard = new LeaderBoard(new Board());
+        Map<String, Integer> scores = leaderBoard.getLB();
+        SplittableRandom random = new SplittableRandom(entries);
+        for (int i = 0; i < entries; i++) {
+            scores.put("Player" + i, 10 + random.nextInt(200));
+        }
+
+        directory = Files.createTempDirectory("bench");
+        snapshot = directory.resolve("leaderboard.dat");
+        log = directory.resolve("leaderboard.log");
+        store = ScoreStore.open(snapshot, log);
+        store.getScores().putAll(scores);
+        store.compact();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public int updateList() {
+        leaderBoard.updateList();
+        return leaderBoard.getListModel().size();
+    }
+
+    /**
+     * Egy új játékos győzelmének rögzítése: egy naplórekord, a tömörítések költségével együtt.
+     */
+    @Benchmark
+    public boolean record() throws IOException {
+        return store.record("New" + next++, 50);
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (ScoreStore opened = ScoreStore.open(snapshot, log)) {
+            return opened.getScores().size();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import main.Game;
+import main.SaveFile;
+import org.openjdk.jmh.annotations.*;
+import pieces.PieceColor;
+import players.Player;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A játék mentésének és betöltésének (Game.toSaveFile, SaveFile.write, SaveFile.read, Game.load) mérése egy ideiglenes könyvtárban,
+ * rögzített állásokban. A round trip egy mentés és a fájl visszaolvasása, ahogy a felület menti és betölti a játékot.
+ * A Game.save helyett közvetlenül a SaveFile-t írja, így a mérésbe nem kerül bele a konzolra írt állapotüzenet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PersistenceBenchmark {
+
+    @Param({"initial", "kings"})
+    public String position;
+
+    private Path directory;
+    private Path saveFile;
+    private Game game;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("bench");
+        saveFile = directory.resolve("game.sav");
+        game = new Game(new Player("White", PieceColor.WHITE), new Player("Black", PieceColor.BLACK));
+        game.getBoard().setPieces(Positions.board(position).getPieces());
+        game.toSaveFile().write(saveFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        game.toSaveFile().write(saveFile);
+    }
+
+    @Benchmark
+    public SaveFile load() throws IOException {
+        SaveFile save = SaveFile.read(saveFile);
+        game.load(save);
+        return save;
+    }
+
+    @Benchmark
+    public SaveFile roundTrip() throws IOException {
+        game.toSaveFile().write(saveFile);
+        SaveFile save = SaveFile.read(saveFile);
+        game.load(save);
+        return save;
+    }
+}
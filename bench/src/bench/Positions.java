@@ -0,0 +1,66 @@
+package bench;
+
+import board.Board;
+import logic.BitBoard;
+import pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A mérésekben használt rögzített állások (BitBoard szöveges alakban), és a belőlük felállított táblák.
+ * Egyik állás sem befejezett.
+ */
+final class Positions {
+
+    static final String INITIAL = "bbbbbbbbbbbb........wwwwwwwwwwww w"; // Kezdőállás.
+    static final String MIDGAME = "bbbbbbb.bb.b.b....w.w.www.wwwwww w"; // Néhány lépés után, még királynők nélkül.
+    static final String KINGS = "..b.w.b..W...b....ww..B.w....... b"; // Vegyes állás királynőkkel.
+    static final String ENDGAME = "....B.....b....w...W.....B...W.. w"; // Kevés bábu, többségében királynők.
+
+    private Positions() {}
+
+    /**
+     * @param name Az állás neve (initial, midgame, kings vagy endgame).
+     * @return Az állás szöveges alakja.
+     * @throws IllegalArgumentException Ha nincs ilyen nevű állás.
+     */
+    static String byName(String name) {
+        return switch (name) {
+            case "initial" -> INITIAL;
+            case "midgame" -> MIDGAME;
+            case "kings" -> KINGS;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        };
+    }
+
+    /**
+     * Felállít egy táblát a megadott állással és lépő féllel.
+     *
+     * @param name Az állás neve.
+     * @return A tábla.
+     */
+    static Board board(String name) {
+        BitBoard position = BitBoard.parse(byName(name));
+        Board board = new Board();
+        board.setPieces(position.toPieces());
+        board.setCurrentPlayer(position.getSideToMove());
+        return board;
+    }
+
+    /**
+     * @param board A tábla.
+     * @return A lépő fél bábuinak mezői ({sor, oszlop}) sorfolytonos sorrendben.
+     */
+    static int[][] movers(Board board) {
+        List<int[]> result = new ArrayList<>();
+        Piece[][] pieces = board.getPieces();
+        for (int r = 0; r < pieces.length; r++) {
+            for (int c = 0; c < pieces[r].length; c++) {
+                if (pieces[r][c] != null && pieces[r][c].getColor() == board.getCurrentPlayer()) result.add(new int[]{r, c});
+            }
+        }
+        return result.toArray(new int[0][]);
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import board.Board;
+import board.BoardRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A tábla kirajzolásának mérése egy képernyőn kívüli, a tábla méretű BufferedImage-be, rögzített állásokban.
+ * Ablak nem kell hozzá, headless módban fut.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    @Param({"initial", "kings"})
+    public String position;
+
+    private BoardRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup() {
+        Board board = Positions.board(position);
+        renderer = new BoardRenderer(board);
+        int size = board.getCols() * board.getRowandcolsize();
+        image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        renderer.render(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import board.Board;
+import logic.GameLogic;
+import logic.GameState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pieces.PieceColor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A GameLogic szabály ellenőrzéseinek mérése rögzített állásokban.
+ * Egy hívás a lépő fél összes bábujára lefuttatja a vizsgálatot, ahogy a felület teszi egy lépés kiválasztása közben,
+ * az isValidMove pedig bábunként mind a négy átlós szomszédra és ugrási célra.
+ * A játék végének vizsgálata a tábla minden kör végén futó GameState.result hívása, a tábla állásán, végjáték táblák nélkül.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RulesBenchmark {
+
+    private static final int[][] TARGETS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}, {-2, -2}, {-2, 2}, {2, -2}, {2, 2}};
+
+    @Param({"initial", "midgame", "kings", "endgame"})
+    public String position;
+
+    private Board board;
+    private GameLogic logic;
+    private int[][] movers; // A lépő fél bábuinak mezői.
+
+    @Setup
+    public void setup() {
+        board = Positions.board(position);
+        logic = board.getGameLogic();
+        movers = Positions.movers(board);
+    }
+
+    @Benchmark
+    public void normalMoves(Blackhole bh) {
+        for (int[] p : movers) {
+            bh.consume(logic.updateListOfNormalMoves(board.getPieces(), p[0], p[1], board.getCurrentPlayer()));
+        }
+    }
+
+    @Benchmark
+    public void captures(Blackhole bh) {
+        for (int[] p : movers) {
+            bh.consume(logic.updateListOfCaptures(board.getPieces(), p[0], p[1], board.getCurrentPlayer()));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole bh) {
+        for (int[] p : movers) {
+            for (int[] t : TARGETS) {
+                int r = p[0] + t[0];
+                int c = p[1] + t[1];
+                if (r < 0 || r >= board.getRows() || c < 0 || c >= board.getCols()) continue;
+                bh.consume(logic.isValidMove(board, p[0], p[1], r, c));
+            }
+        }
+    }
+
+    @Benchmark
+    public PieceColor gameOver() {
+        return GameState.result(board.getPosition(), null);
+    }
+}
@@ -1,13 +1,17 @@
 package board;
 
+import logic.BitBoard;
 import logic.Capture;
 import logic.GameLogic;
+import logic.GameState;
+import logic.GameStateListener;
 import logic.Move;
+import logic.MoveType;
+import logic.PackedMove;
 import main.*;
-import pieces.NormalPiece;
 import pieces.Piece;
 import pieces.PieceColor;
-import pieces.QueenPiece;
+import tablebase.TablebaseProbe;
 
 import javax.swing.*;
 import java.awt.*;
@@ -15,8 +19,12 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 /**
- * A játék tábla osztálya, amely a játék teljes logikáját és megjelenítését kezeli.
- * Tárolja a bábukat, a játék állapotát, és a lépések végrehajtását biztosítja.
+ * A játék tábla osztálya, a játszma állapotának (GameState) Swing nézete.
+ * A szabályokat és az állapotot (bábuk, soron következő játékos, ütéskényszer, eredmény) a GameState tárolja,
+ * a tábla ebből tartja karban a kirajzoláshoz és az egérkezeléshez használt bábu tömböt,
+ * és a GameStateListener értesítései alapján frissíti a kimenetet és a játékosok lépésszámát.
+ * A tömb a megosztott (flyweight) bábu példányokat tartalmazza, a bábuk helyét a tömb indexe adja.
+ * A kiválasztott bábu mezőjét és a húzás közbeni pozícióját szintén a tábla tárolja.
  */
 public class Board extends JPanel implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -25,21 +33,23 @@ public class Board extends JPanel implements Serializable {
     private final int cols = 8; // A tábla oszlopainak száma
     private final int rowandcolsize = 75; // Egy cella mérete pixelben
 
-    private Piece[][] pieces; // A bábukat tartalmazó 2D tömb
-    private Piece selectedPiece = null; // Az éppen kiválasztott bábu
+    private Piece[][] pieces; // A bábukat tartalmazó 2D tömb, a state nézete
+    private final GameState state; // A játszma állapota és szabályai
+    private int selectedRow = -1, selectedCol = -1; // Az éppen kiválasztott bábu mezője, vagy -1
+
+    private transient boolean dragging; // Igaz, ha a kiválasztott bábut éppen húzzák
+    private transient int dragX, dragY; // A húzott bábu bal felső sarkának pozíciója pixelben
 
     private final GameLogic gameLogic; // A játék logikáját kezeli
     private List<Move> listOfMoves; // Az összes lehetséges lépés listája a kiválasztott bábuval
     private List<Capture> listOfCaptures; // Az összes lehetséges ütés listája a kiválasztott bábuval
-    private boolean captureLock = false; // Zárolás jelzésére, ha kötelezően elvégzendő ütés van
 
-    private PieceColor currentPlayer; // A jelenlegi játékos színe
     private transient BoardOutput outputArea; // A játék állapotát megjelenítő szövegterület
 
-    private boolean gameWon; // Jelzi, hogy véget ért-e a játék
-
     private transient final BoardRenderer boardRenderer; // A tábla megjelenítéséért felelős
 
+    private transient Runnable turnListener; // Minden játékosváltás után meghívódik (pl. a számítógépes játékos indításához)
+
     /**
      * Alapértelmezett konstruktor, amely inicializálja a tábla paramétereit.
      * Beállítja a méretet, a háttérszínt, és elhelyezi a bábukat.
@@ -48,12 +58,11 @@ public class Board extends JPanel implements Serializable {
         pieces = new Piece[rows][cols];
         listOfMoves = new ArrayList<>();
         listOfCaptures = new ArrayList<>();
-        currentPlayer = PieceColor.WHITE;
+        state = new GameState();
+        state.addListener(new StateView());
         gameLogic = new GameLogic();
         boardRenderer = new BoardRenderer(this);
 
-        gameWon = false;
-
         setPreferredSize(new Dimension(cols * rowandcolsize, rows * rowandcolsize));
         setMinimumSize(new Dimension(cols * rowandcolsize, rows * rowandcolsize));
         setMaximumSize(new Dimension(cols * rowandcolsize, rows * rowandcolsize));
@@ -69,7 +78,7 @@ public class Board extends JPanel implements Serializable {
     }
 
     /**
-     * Kitölti null-al a bábuk tárolásához használt 2D tömböt.
+     * Kitölti null-al a bábuk tárolásához használt 2D tömböt, és új, üres játszmát kezd.
      */
     public void clearBoard() {
         for (int i = 0; i < rows; i++) {
@@ -77,6 +86,8 @@ public class Board extends JPanel implements Serializable {
                 pieces[i][j] = null;
             }
         }
+        state.clear();
+        clearSelection();
     }
 
     /**
@@ -89,32 +100,88 @@ public class Board extends JPanel implements Serializable {
         for (int i = startRow; i < endRow; i++) {
             for (int j = 0; j < cols; j++) {
                 if (colorOfField(i, j) == FieldColor.DARK) {
-                    pieces[i][j] = new NormalPiece(this, i, j, color);
+                    setPiece(Piece.of(color, false), i, j);
                 }
             }
         }
     }
 
     /**
-     * Mivel a bábuk képeit nem lehet szerializálni, így szükséges az összes bábu képének újratöltése.
-     * Ezt teszi ez a függvény, a 2D pieces tömb összes elemére meghívja a loadImage() függvényt.
+     * Előre betölti a bábuk képeit a tábla mezőméretére, hogy az első kirajzolás és az első promótálás ne várjon a képek beolvasására.
+     * A képeket a közös SpriteCache tárolja, így fajtánként és mezőméretenként egyszer történik betöltés.
      */
     public void loadPieceImages() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                if (pieces[r][c] != null) {
-                    pieces[r][c].loadImage();
-                }
-            }
+        for (PieceColor color : PieceColor.values()) {
+            Piece.of(color, false).getImage(rowandcolsize);
+            Piece.of(color, true).getImage(rowandcolsize);
         }
     }
 
+    /**
+     * @return A kiválasztott mezőn álló bábu, vagy null, ha nincs kiválasztás.
+     */
     public Piece getSelectedPiece() {
-        return selectedPiece;
+        return selectedRow < 0 ? null : pieces[selectedRow][selectedCol];
+    }
+
+    public int getSelectedRow() {
+        return selectedRow;
+    }
+
+    public int getSelectedCol() {
+        return selectedCol;
+    }
+
+    /**
+     * Kiválasztja a megadott mezőn álló bábut.
+     * @param row A mező sora.
+     * @param col A mező oszlopa.
+     */
+    public void select(int row, int col) {
+        selectedRow = row;
+        selectedCol = col;
+        dragging = false;
+    }
+
+    /**
+     * Megszünteti a kiválasztást és a húzást.
+     */
+    public void clearSelection() {
+        selectedRow = -1;
+        selectedCol = -1;
+        dragging = false;
     }
 
-    public void setSelectedPiece(Piece piece) {
-        selectedPiece = piece;
+    /**
+     * @return Igaz, ha a kiválasztott bábut éppen húzzák.
+     */
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    public int getDragX() {
+        return dragX;
+    }
+
+    public int getDragY() {
+        return dragY;
+    }
+
+    /**
+     * A kiválasztott bábut a megadott képernyő pozícióba húzza, és csak a régi és az új helyének uniója kerül újrarajzolásra.
+     * @param x A bábu bal felső sarkának x pozíciója.
+     * @param y A bábu bal felső sarkának y pozíciója.
+     */
+    public void setDragPosition(int x, int y) {
+        if (selectedRow < 0) return;
+        Rectangle dirty = dragging
+                ? new Rectangle(dragX, dragY, rowandcolsize, rowandcolsize)
+                : new Rectangle(selectedCol * rowandcolsize, selectedRow * rowandcolsize, rowandcolsize, rowandcolsize);
+        dragging = true;
+        dragX = x;
+        dragY = y;
+        dirty.add(new Rectangle(x, y, rowandcolsize, rowandcolsize));
+        repaint(dirty);
     }
 
     public int getRows() {
@@ -138,11 +205,11 @@ public class Board extends JPanel implements Serializable {
     }
 
     public boolean getCaptureLock() {
-        return captureLock;
+        return state.isCaptureLocked();
     }
 
     public void setCaptureLock(boolean lock) {
-        captureLock = lock;
+        state.setCaptureLock(lock);
     }
 
     public BoardOutput getOutputArea() {
@@ -157,10 +224,10 @@ public class Board extends JPanel implements Serializable {
     public void setOutputArea(BoardOutput oa) {
         outputArea = oa;
         if (outputArea.getPlayers()[0].isCurrentPlayer()) {
-            currentPlayer = PieceColor.WHITE;
+            setCurrentPlayer(PieceColor.WHITE);
         }
         else {
-            currentPlayer = PieceColor.BLACK;
+            setCurrentPlayer(PieceColor.BLACK);
         }
     }
 
@@ -168,123 +235,246 @@ public class Board extends JPanel implements Serializable {
         return pieces;
     }
 
+    /**
+     * Beállítja a bábuk 2D tömbjét, és ez alapján új játszmát kezd a jelenlegi játékossal.
+     * @param p A bábuk 2D tömbje.
+     */
     public void setPieces(Piece[][] p) {
         pieces = p;
+        syncPosition();
     }
 
+    /**
+     * Új játszmát kezd a kapott állásból (pl. egy elmentett játék betöltésekor), a lépő féllel együtt.
+     * Ha ütéssorozat közben mentették, az ütéskényszer is visszaáll, és a tovább ütő bábu lesz kiválasztva.
+     *
+     * @param position Az állás (átmásolja).
+     * @param captureLock Igaz, ha tovább kell ütni.
+     * @param lockedSquare A tovább ütő bábu mezője, vagy -1.
+     */
+    public void setPosition(BitBoard position, boolean captureLock, int lockedSquare) {
+        pieces = position.toPieces();
+        state.setup(position);
+        clearSelection();
+        if (lockedSquare >= 0) {
+            state.setLockedSquare(lockedSquare);
+            select(BitBoard.rowOf(lockedSquare), BitBoard.colOf(lockedSquare));
+        }
+        else {
+            state.setCaptureLock(captureLock);
+        }
+    }
+
+    /**
+     * Egy mezőre helyez egy bábut (vagy null esetén üríti), és az állapotban is frissíti a mezőt.
+     * @param p A bábu, vagy null.
+     * @param row A mező sora.
+     * @param col A mező oszlopa.
+     */
     public void setPiece(Piece p, int row, int col) {
         pieces[row][col] = p;
+        if (p == null) state.remove(row, col);
+        else state.put(row, col, p.getColor(), p.isKing());
+    }
+
+    /**
+     * Az állapotot a pieces tömb teljes bejárásával újraépíti, a visszavonási verem kiürül.
+     * Akkor szükséges, ha a getPieces() által visszaadott tömböt közvetlenül módosították.
+     */
+    public void syncPosition() {
+        state.setup(BitBoard.fromPieces(pieces, getCurrentPlayer()));
+        clearSelection();
+    }
+
+    /**
+     * A játszma állapota. A tábla figyeli az állapotot, így a közvetlenül rajta végrehajtott lépéseket is követi.
+     * @return Az állapot.
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    public BitBoard getPosition() {
+        return state.getPosition();
+    }
+
+    /**
+     * Az állás Zobrist kulcsa. A bábuk típusát és helyét, valamint a jelenlegi játékost tartalmazza.
+     * A lépések és ütések csak az érintett mezők kulcsait frissítik, így lekérdezése konstans idejű.
+     * @return A 64 bites kulcs.
+     */
+    public long getHash() {
+        return state.getPosition().getHash();
     }
 
     public boolean isGameWon() {
-        return gameWon;
+        return state.isGameOver();
     }
 
     public GameLogic getGameLogic() {
         return gameLogic;
     }
 
+    /**
+     * Beállítja a játék végének eldöntéséhez használt végjáték táblákat.
+     * @param tablebase A táblák, vagy null.
+     */
+    public void setTablebase(TablebaseProbe tablebase) {
+        state.setTablebase(tablebase);
+        gameLogic.setTablebase(tablebase);
+    }
+
     public PieceColor getCurrentPlayer() {
-        return currentPlayer;
+        return state.getSideToMove();
     }
 
     public void setCurrentPlayer(PieceColor c) {
-        currentPlayer = c;
+        state.setSideToMove(c);
     }
 
     /**
-     * A kiválasztott bábu helyzetét visszállítja.
+     * A kiválasztott bábu helyzetét visszállítja, vagyis befejezi a húzást.
      */
     public void resetSelectedPiecePos() {
-        selectedPiece.setxPos(selectedPiece.getCol() * rowandcolsize);
-        selectedPiece.setyPos(selectedPiece.getRow() * rowandcolsize);
+        dragging = false;
     }
 
     /**
-     * A kapott ütéseket tartalmazó listában megkeresi azt, amelyikben a célpozíció megegyezik a kapott pozícióval.
-     * Az adott ütésből pedig a leütött bábú pozíciója alapján a pieces 2D tömbben törlésre kerül a bábu.
+     * Megállapítja egy lépés típusát az állapot szabályai szerint (ütéskényszer alatt csak a tovább ütő bábu üthet).
+     *
+     * @param fromRow A kiinduló sor.
+     * @param fromCol A kiinduló oszlop.
      * @param row A célsor.
      * @param col A céloszlop.
-     * @param captureList Az ütések listája.
+     * @return A lépés típusa (MoveType).
      */
-    private void removeCapturedPiece(int row, int col, List<Capture> captureList) {
-        for (Capture m : captureList) {
-            if (m.getRow() == row && m.getCol() == col) {
-                pieces[m.getCapturedPiece().getRow()][m.getCapturedPiece().getCol()] = null;
-            }
+    public MoveType validateMove(int fromRow, int fromCol, int row, int col) {
+        return state.validate(fromRow, fromCol, row, col);
+    }
+
+    /**
+     * Visszavonja az utolsó lépést vagy ütést (többszörös ütésnél az utolsó ugrást).
+     * A lépő és a leütött bábu visszakerül a helyére, a jelenlegi játékos, a lépésszám és a captureLock visszaáll.
+     * Ha a visszavont ugrás egy ütéssorozat része volt, a tovább ütő bábu lesz kiválasztva.
+     * Ha a játék már véget ért, a lépés nem vonható vissza, mivel a győztes már a ranglistára került.
+     *
+     * @return Igaz, ha sikerült visszavonni egy lépést.
+     */
+    public boolean unmakeMove() {
+        if (!state.undo()) {
+            return false;
         }
+        int locked = state.getLockedSquare();
+        if (state.isCaptureLocked() && locked >= 0) select(BitBoard.rowOf(locked), BitBoard.colOf(locked));
+        else clearSelection();
+        return true;
     }
 
     /**
-     * Végrehajt egy lépést a táblán, a kapott bábuval, a célpozícióba. A régi helyen kitörli a táblából. Az új helyen visszarakja.
-     * A bábu paramétereit az új pozíció szerint frissíti.
+     * @return A visszavonható lépések száma.
+     */
+    public int getUndoDepth() {
+        return state.getUndoDepth();
+    }
+
+    /**
+     * Végrehajt egy lépést a táblán, a kiinduló mezőn álló bábuval, a célpozícióba. A régi helyen kitörli a táblából. Az új helyen visszarakja.
      * Ha a bábu normál és eléri a tábla végét, akkor promótálja királynővé.
-     * A lépés végén ellenőrzi, hogy véget ért-e a játék, ha nem, átváltja a jelenlegi játékost.
+     * A lépés végén az állapot ellenőrzi, hogy véget ért-e a játék, ha nem, átváltja a jelenlegi játékost.
+     * A lépés visszavonásához szükséges adatok az állapot visszavonási vermébe kerülnek (lásd unmakeMove).
      *
-     * @param p A lépést végrehajtó bábu.
+     * @param fromRow A kiinduló sor.
+     * @param fromCol A kiinduló oszlop.
      * @param row Az új célpozíció sora.
      * @param col Az új célpozíció oszlopa.
+     * @throws IllegalArgumentException Ha a lépés nem szabályos normál lépés.
      */
-    public void makeMove(Piece p, int row, int col) {
-        pieces[p.getRow()][p.getCol()] = null;
-        if (p instanceof NormalPiece && (p.getColor() == PieceColor.WHITE && row == 0) || (p.getColor() == PieceColor.BLACK && row == 7)) {
-            p = new QueenPiece(this, row, col, p.getColor()); // Promótálás
-            p.loadImage();
-        }
-        p.setRow(row);
-        p.setCol(col);
-        p.setxPos(col * rowandcolsize);
-        p.setyPos(row * rowandcolsize);
-        pieces[row][col] = p;
-        if (!gameLogic.checkGameOver(pieces, outputArea))
-            changePlayer();
-        else {
-            gameWon = true;
+    public void makeMove(int fromRow, int fromCol, int row, int col) {
+        if (state.validate(fromRow, fromCol, row, col) != MoveType.NormalMove) {
+            throw new IllegalArgumentException("Illegal move: " + fromRow + "," + fromCol + " -> " + row + "," + col);
         }
+        state.move(fromRow, fromCol, row, col);
     }
 
     /**
      * Egy bábu ütését kezeli a táblán. Eltávolítja a leütött bábut a tábláról, és az új helyére helyezi az ütő bábut.
-     * Ha a bábu normál és eléri a tábla végét, akkor promótálja királynővé.
+     * Ha a bábu normál és eléri a tábla végét, akkor promótálja királynővé, így a további ütéseket már királynőként teheti meg.
+     * Ha a kiválasztott bábu ütött, a kiválasztás vele együtt a célmezőre kerül.
      * Az ütés után frissíti az ütésel listáját. Ha ez nem üres, akkor a captureLock aktív lesz, és újra ütésre lesz kényszerítve a játékos.
-     * A lépések végén ellenőrzi, hogy véget ért-e a játék, ha nem, átváltja a jelenlegi játékost.
+     * A lépések végén az állapot ellenőrzi, hogy véget ért-e a játék, ha nem, átváltja a jelenlegi játékost.
+     * Az ütés visszavonásához szükséges adatok, a leütött bábuval együtt, az állapot visszavonási vermébe kerülnek.
      *
-     * @param p Az ütést végrehajtó bábu.
+     * @param fromRow A kiinduló sor.
+     * @param fromCol A kiinduló oszlop.
      * @param row Az új célpozíció sora.
      * @param col Az új célpozíció oszlopa.
+     * @throws IllegalArgumentException Ha a lépés nem szabályos ütés.
      */
-    public void makeCapture(Piece p, int row, int col) {
-        pieces[p.getRow()][p.getCol()] = null;
-        listOfCaptures = gameLogic.updateListOfCaptures(pieces, selectedPiece, currentPlayer);
-        removeCapturedPiece(row, col, listOfCaptures);
-        if (p instanceof NormalPiece && (p.getColor() == PieceColor.WHITE && row == 0) || (p.getColor() == PieceColor.BLACK && row == 7)) {
-            p = new QueenPiece(this, row, col, p.getColor());
-            p.loadImage();
+    public void makeCapture(int fromRow, int fromCol, int row, int col) {
+        if (state.validate(fromRow, fromCol, row, col) != MoveType.CaptureMove) {
+            throw new IllegalArgumentException("Illegal capture: " + fromRow + "," + fromCol + " -> " + row + "," + col);
         }
-        p.setRow(row);
-        p.setCol(col);
-        p.setxPos(col * rowandcolsize);
-        p.setyPos(row * rowandcolsize);
-        pieces[row][col] = p;
-        listOfCaptures = gameLogic.updateListOfCaptures(pieces, selectedPiece, currentPlayer);
-        if (listOfCaptures.isEmpty()) {
-            if (!gameLogic.checkGameOver(pieces, outputArea))
-                changePlayer();
-            else {
-                gameWon = true;
-            }
+        state.move(fromRow, fromCol, row, col);
+        if (state.isCaptureLocked()) {
+            listOfCaptures = capturesFrom(row, col);
+            listOfMoves.clear();
         }
         else {
-            listOfMoves.clear();
-            captureLock = true;
+            listOfCaptures = new ArrayList<>();
         }
     }
 
+    /**
+     * A mezőn álló bábu ütései az állapot gyorsítótárából, a leütendő bábukkal.
+     */
+    private List<Capture> capturesFrom(int row, int col) {
+        List<Capture> captures = new ArrayList<>();
+        int from = BitBoard.square(row, col);
+        for (int m = state.captureTargets(from); m != 0; m &= m - 1) {
+            int to = Integer.numberOfTrailingZeros(m);
+            int jumped = BitBoard.jumpedSquare(from, to);
+            captures.add(new Capture(BitBoard.rowOf(to), BitBoard.colOf(to), pieces[BitBoard.rowOf(jumped)][BitBoard.colOf(jumped)]));
+        }
+        return captures;
+    }
+
+    /**
+     * Végrehajt egy MoveGenerator által előállított teljes lépést (pl. a számítógépes játékosét) a GameState.play metódussal.
+     * Ütéssorozatnál a bábu tömb ugrásonként követi az állapotot, így a promótálás, a játék végének vizsgálata
+     * és a visszavonás ugyanúgy működik, mint az egérrel tett lépéseknél.
+     * A sorozat végén a kiválasztott bábu törlődik.
+     *
+     * @param move A becsomagolt lépés (PackedMove).
+     * @param capturedSet A leütött mezők maszkja (normál lépésnél 0).
+     * @throws IllegalArgumentException Ha a lépés nem hajtható végre a jelenlegi állásban.
+     */
+    public void makeSequence(int move, int capturedSet) {
+        int from = PackedMove.from(move);
+        Piece p = pieces[BitBoard.rowOf(from)][BitBoard.colOf(from)];
+        if (p == null || p.getColor() != getCurrentPlayer()) {
+            throw new IllegalArgumentException("Illegal move: " + PackedMove.toString(move));
+        }
+        try {
+            state.play(move, capturedSet);
+        } finally {
+            clearSelection();
+            listOfCaptures = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Beállítja a játékosváltáskor meghívandó függvényt.
+     * @param listener A függvény, vagy null.
+     */
+    public void setTurnListener(Runnable listener) {
+        turnListener = listener;
+    }
+
     /**
      * A kimeneten megjeleníti, hogy az éppen aktuális játékos következik
      */
     public void showPlayer() {
-        if (currentPlayer == PieceColor.WHITE) {
+        if (getCurrentPlayer() == PieceColor.WHITE) {
             outputArea.whitesTurn();
         }
         else {
@@ -294,18 +484,73 @@ public class Board extends JPanel implements Serializable {
 
     /**
      * Megváltoztatja a jelenlegi játékost. Növeli a volt játékos lépésszámát eggyel. Majd ezt kiírja a kimenetre.
+     * Végül értesíti a turnListener-t, ha van ilyen.
      */
     public void changePlayer() {
-        if (currentPlayer == PieceColor.BLACK) {
-            currentPlayer = PieceColor.WHITE;
-            outputArea.getPlayers()[1].incrementMovecount();
-            outputArea.whitesTurn();
+        state.passTurn();
+    }
+
+    /**
+     * Az állapot változásait követi: frissíti a bábu tömb érintett mezőit, a kiválasztást, a kimenetet és a játékosok lépésszámát.
+     */
+    private class StateView implements GameStateListener {
+
+        @Override
+        public void pieceMoved(int from, int to, int captured, boolean promoted) {
+            refresh(from);
+            refresh(to);
+            if (captured >= 0) refresh(captured);
+            if (selectedRow == BitBoard.rowOf(from) && selectedCol == BitBoard.colOf(from)) {
+                select(BitBoard.rowOf(to), BitBoard.colOf(to)); // A sorozatot ugyanaz a (promótálás után királynő) bábu folytatja.
+            }
         }
-        else {
-            currentPlayer = PieceColor.BLACK;
-            outputArea.getPlayers()[0].incrementMovecount();
-            outputArea.blacksTurn();
+
+        @Override
+        public void moveUndone(int from, int to, int captured, boolean promoted) {
+            refresh(from);
+            refresh(to);
+            if (captured >= 0) refresh(captured);
+        }
+
+        @Override
+        public void turnChanged(PieceColor previous, PieceColor next) {
+            if (outputArea != null) {
+                outputArea.getPlayers()[previous == PieceColor.WHITE ? 0 : 1].incrementMovecount();
+                showPlayer();
+            }
+            if (turnListener != null) {
+                turnListener.run();
+            }
+        }
+
+        @Override
+        public void turnUndone(PieceColor player) {
+            if (outputArea != null) {
+                outputArea.getPlayers()[player == PieceColor.WHITE ? 0 : 1].decrementMovecount();
+                showPlayer();
+            }
+        }
+
+        @Override
+        public void gameOver(PieceColor winner) {
+            if (outputArea == null) return;
+            if (winner == PieceColor.WHITE) outputArea.whiteWon();
+            else outputArea.blackWon();
+        }
+    }
+
+    /**
+     * Egy mező bábuját az állapot szerint állítja be a tömbben.
+     * @param sq A mező BitBoard sorszáma.
+     */
+    private void refresh(int sq) {
+        BitBoard position = state.getPosition();
+        int bit = 1 << sq;
+        Piece p = null;
+        if (((position.getWhite() | position.getBlack()) & bit) != 0) {
+            p = Piece.of((position.getWhite() & bit) != 0 ? PieceColor.WHITE : PieceColor.BLACK, (position.getKings() & bit) != 0);
         }
+        pieces[BitBoard.rowOf(sq)][BitBoard.colOf(sq)] = p;
     }
 
     /**
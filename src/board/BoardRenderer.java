@@ -1,18 +1,25 @@
 package board;
 
-import logic.Capture;
-import logic.Move;
+import logic.BitBoard;
+import logic.GameState;
 import pieces.Piece;
 import java.awt.*;
-import java.io.Serializable;
-import java.util.List;
+import java.awt.image.BufferedImage;
 
 /**
  * Osztály a játéktábla kirajzolásához.
+ * A mezők mintázata nem változik, ezért egyszer, egy képbe rajzolódik, és minden kirajzoláskor csak ez a kép kerül a táblára.
+ * A bábuk közül csak a vágási téglalapba (pl. húzáskor a bábu régi és új helye) eső mezők bábui rajzolódnak ki.
  */
 public class BoardRenderer {
 
+    private static final Color LIGHT_COLOR = new Color(179, 179, 179); // A világos mezők színe.
+    private static final Color DARK_COLOR = new Color(73, 72, 66); // A sötét mezők színe.
+    private static final Color MOVE_COLOR = new Color(0, 158, 255); // A lehetséges lépések kiemelése.
+    private static final Color CAPTURE_COLOR = new Color(255, 104, 0); // A lehetséges ütések kiemelése.
+
     private final Board board; // A tábla amelyet kirajzol.
+    private BufferedImage background; // A mezők előre kirajzolt képe, az első kirajzoláskor jön létre.
 
     public BoardRenderer(Board board) {
         this.board = board;
@@ -30,68 +37,103 @@ public class BoardRenderer {
     }
 
     /**
-     * A tábla kirajzolása. A mezők méretét, illetve a sorok és oszlopok számát a board-tól kapja.
-     * A colorOfField segítségével megállapítja az adott mező színét, ez alapján állítja be a színt és rajzolja ki a négyzeteket.
+     * A tábla kirajzolása az előre elkészített háttérképből. A kép az első híváskor, a céllal kompatibilis formátumban készül.
      *
      * @param g2 Graphics2D paraméter, amely szükséges a kirajzoláshoz.
      */
     private void drawBoard(Graphics2D g2) {
-        int tileSize = board.getRowandcolsize();
+        if (background == null) {
+            background = createBackground(g2.getDeviceConfiguration());
+        }
+        g2.drawImage(background, 0, 0, null);
+    }
 
+    /**
+     * Kirajzolja a mezőket egy képbe. A mezők méretét, illetve a sorok és oszlopok számát a board-tól kapja.
+     * A colorOfField segítségével megállapítja az adott mező színét, ez alapján állítja be a színt és rajzolja ki a négyzeteket.
+     *
+     * @param configuration A cél eszköz beállításai, amellyel a kép kompatibilis lesz.
+     * @return A tábla háttérképe.
+     */
+    private BufferedImage createBackground(GraphicsConfiguration configuration) {
+        int tileSize = board.getRowandcolsize();
+        BufferedImage image = configuration.createCompatibleImage(board.getCols() * tileSize, board.getRows() * tileSize);
+        Graphics2D g = image.createGraphics();
         for (int row = 0; row < board.getRows(); row++) {
             for (int col = 0; col < board.getCols(); col++) {
-                Color color = board.colorOfField(row, col) == FieldColor.LIGHT ? new Color(179, 179, 179) : new Color(73, 72, 66);
-                g2.setColor(color);
-                g2.fillRect(col * tileSize, row * tileSize, tileSize, tileSize);
+                g.setColor(board.colorOfField(row, col) == FieldColor.LIGHT ? LIGHT_COLOR : DARK_COLOR);
+                g.fillRect(col * tileSize, row * tileSize, tileSize, tileSize);
             }
         }
+        g.dispose();
+        return image;
     }
 
     /**
-     * A bábukat rajzolja ki a 2D pieces tömbből, ha az adott elem nem null.
+     * A bábukat rajzolja ki a 2D pieces tömbből, ha az adott elem nem null. A bábu helyét a tömb indexe adja.
      * Amennyiben van kiválasztott bábu, akkor azt csak utoljára, a többi bábu kirajzolása után rajzolja, hogy a többi bábu fölött rajzolódjon ki.
+     * Húzás közben a kiválasztott bábu a tábla által tárolt húzási pozícióba kerül.
+     * Csak a vágási téglalapot metsző mezők bábuit rajzolja ki.
      *
      * @param g2 Graphics2D paraméter, amely szükséges a kirajzoláshoz.
      */
     private void drawPieces(Graphics2D g2) {
         Piece[][] pieces = board.getPieces();
-        Piece selectedPiece = board.getSelectedPiece();
+        int tileSize = board.getRowandcolsize();
+        int selectedRow = board.getSelectedRow();
+        int selectedCol = board.getSelectedCol();
+
+        Rectangle clip = g2.getClipBounds();
+        int firstRow = 0, lastRow = pieces.length - 1, firstCol = 0, lastCol = board.getCols() - 1;
+        if (clip != null) {
+            firstRow = Math.max(firstRow, clip.y / tileSize);
+            lastRow = Math.min(lastRow, (clip.y + clip.height - 1) / tileSize);
+            firstCol = Math.max(firstCol, clip.x / tileSize);
+            lastCol = Math.min(lastCol, (clip.x + clip.width - 1) / tileSize);
+        }
 
-        for (int row = 0; row < pieces.length; row++) {
-            for (int col = 0; col < pieces[row].length; col++) {
-                if (pieces[row][col] != null && pieces[row][col] != selectedPiece) pieces[row][col].paint(g2);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (pieces[row][col] != null && (row != selectedRow || col != selectedCol)) {
+                    pieces[row][col].paint(g2, col * tileSize, row * tileSize, tileSize);
+                }
             }
         }
 
+        Piece selectedPiece = board.getSelectedPiece();
         if (selectedPiece != null) {
-            selectedPiece.paint(g2);
+            if (board.isDragging()) selectedPiece.paint(g2, board.getDragX(), board.getDragY(), tileSize);
+            else selectedPiece.paint(g2, selectedCol * tileSize, selectedRow * tileSize, tileSize);
         }
     }
 
     /**
      * Az elérhető lépéseket és ütéseket rajzolja ki, amennyiben van kiválasztott bábu.
-     * A lépéseket és ütéseket az updateListOf... metódusokkal kéri le.
-     * A lehetséges lépések kék, a lehetséges ütések narancs színnel lesznek kiemelve.
+     * A célmezőket a játszma állapotának gyorsítótárából kéri le, így a kirajzolás (húzás közben sem) nem generál lépéseket.
+     * A lehetséges lépések kék, a lehetséges ütések narancs színnel lesznek kiemelve. Ütéskényszer alatt normál lépés nincs.
      *
      * @param g2 Graphics2D paraméter, amely szükséges a kirajzoláshoz.
      */
     private void drawHighlights(Graphics2D g2) {
-        Piece selectedPiece = board.getSelectedPiece();
-        if (selectedPiece != null) {
-            List<Move> listOfMoves = board.getGameLogic().updateListOfNormalMoves(board.getPieces(), selectedPiece, board.getCurrentPlayer());
-            List<Capture> listOfCaptures = board.getGameLogic().updateListOfCaptures(board.getPieces(), selectedPiece, board.getCurrentPlayer());
-            int tileSize = board.getRowandcolsize();
-
-            if (!board.getCaptureLock()) {
-                for (Move move : listOfMoves) {
-                    g2.setColor(new Color(0, 158, 255));
-                    g2.fillRect(move.getCol() * tileSize, move.getRow() * tileSize, tileSize, tileSize);
-                }
-            }
-            for (Move move : listOfCaptures) {
-                g2.setColor(new Color(255, 104, 0));
-                g2.fillRect(move.getCol() * tileSize, move.getRow() * tileSize, tileSize, tileSize);
-            }
+        int row = board.getSelectedRow();
+        int col = board.getSelectedCol();
+        if (board.getSelectedPiece() == null || !BitBoard.isDarkSquare(row, col)) return;
+
+        GameState state = board.getState();
+        int square = BitBoard.square(row, col);
+        fillTargets(g2, state.normalMoveTargets(square), MOVE_COLOR);
+        fillTargets(g2, state.captureTargets(square), CAPTURE_COLOR);
+    }
+
+    /**
+     * Kitölti a maszkban szereplő mezőket a megadott színnel.
+     */
+    private void fillTargets(Graphics2D g2, int targets, Color color) {
+        int tileSize = board.getRowandcolsize();
+        g2.setColor(color);
+        for (int m = targets; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            g2.fillRect(BitBoard.colOf(sq) * tileSize, BitBoard.rowOf(sq) * tileSize, tileSize, tileSize);
         }
     }
 }
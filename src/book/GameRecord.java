@@ -0,0 +1,123 @@
+package book;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+import pieces.PieceColor;
+
+import java.util.Arrays;
+
+/**
+ * Egy lejátszott játszma a kezdőállásból: a lépések sorozata és az eredmény.
+ *
+ * Szöveges alakja egy sor: az eredmény ("1-0" fehér nyert, "0-1" fekete nyert, "1/2" döntetlen, "*" nincs eredmény),
+ * majd szóközzel elválasztva a lépések a PackedMove.toString alakjában, pl. "1-0 (5,0)-(4,1) (2,3)-(3,2) (4,1)x(2,3)".
+ * Egy lépés a kiinduló és a célmezővel azonosítható. Ha több ütéssorozat is ugyanonnan ugyanoda vezet, az elsőt jelenti.
+ */
+public class GameRecord {
+
+    public static final String WHITE_WIN = "1-0";
+    public static final String BLACK_WIN = "0-1";
+    public static final String DRAW = "1/2";
+    public static final String UNFINISHED = "*";
+
+    private final String result; // Az eredmény szöveges alakja.
+    private final int[] moves; // A lépések (PackedMove).
+    private final int[] capturedSets; // A lépésekben leütött mezők maszkjai.
+
+    /**
+     * @param result Az eredmény (WHITE_WIN, BLACK_WIN, DRAW vagy UNFINISHED).
+     * @param moves A lépések (PackedMove) a kezdőállásból.
+     * @param capturedSets A lépésekben leütött mezők maszkjai.
+     */
+    public GameRecord(String result, int[] moves, int[] capturedSets) {
+        this.result = result;
+        this.moves = moves;
+        this.capturedSets = capturedSets;
+    }
+
+    /**
+     * Beolvas egy játszmát a szöveges alakjából, és ellenőrzi, hogy a lépései szabályosak.
+     *
+     * @param line A játszma sora.
+     * @return A játszma.
+     * @throws IllegalArgumentException Ha az eredmény ismeretlen, vagy valamelyik lépés nem szabályos.
+     */
+    public static GameRecord parse(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        String result = tokens[0];
+        if (!result.equals(WHITE_WIN) && !result.equals(BLACK_WIN) && !result.equals(DRAW) && !result.equals(UNFINISHED)) {
+            throw new IllegalArgumentException("Invalid result: " + result);
+        }
+        BitBoard position = BitBoard.initial();
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        int[] legalCaptured = new int[MoveGenerator.MAX_MOVES];
+        int[] moves = new int[tokens.length - 1];
+        int[] capturedSets = new int[tokens.length - 1];
+        for (int i = 1; i < tokens.length; i++) {
+            int count = MoveGenerator.generateLegal(position, legal, legalCaptured);
+            int m = 0;
+            while (m < count && !PackedMove.toString(legal[m]).equals(tokens[i])) m++;
+            if (m == count) {
+                throw new IllegalArgumentException("Illegal move " + i + " " + tokens[i] + " in " + position);
+            }
+            moves[i - 1] = legal[m];
+            capturedSets[i - 1] = legalCaptured[m];
+            position.makeMove(legal[m], legalCaptured[m]);
+        }
+        return new GameRecord(result, moves, capturedSets);
+    }
+
+    /**
+     * @return A győztes színe, vagy null, ha döntetlen vagy nincs eredmény.
+     */
+    public PieceColor getWinner() {
+        return result.equals(WHITE_WIN) ? PieceColor.WHITE : result.equals(BLACK_WIN) ? PieceColor.BLACK : null;
+    }
+
+    /**
+     * @return Igaz, ha a játszma befejeződött (van eredménye).
+     */
+    public boolean isFinished() {
+        return !result.equals(UNFINISHED);
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public int length() {
+        return moves.length;
+    }
+
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    public int getCapturedSet(int ply) {
+        return capturedSets[ply];
+    }
+
+    /**
+     * @return A játszma szöveges alakja, amelyet a parse visszaolvas.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(result);
+        for (int move : moves) {
+            sb.append(' ').append(PackedMove.toString(move));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameRecord other)) return false;
+        return result.equals(other.result) && Arrays.equals(moves, other.moves) && Arrays.equals(capturedSets, other.capturedSets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * result.hashCode() + Arrays.hashCode(moves);
+    }
+}
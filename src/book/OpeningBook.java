@@ -0,0 +1,214 @@
+package book;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Megnyitás könyv: a lejátszott játszmák első lépéseiből készült, állás szerint rendezett bináris fájl (lásd OpeningBookBuilder).
+ *
+ * A fájl egy 16 bájtos fejlécből és ENTRY_SIZE bájtos bejegyzésekből áll. A fejléc: "CKBK" varázsszám, verzió (short),
+ * a könyv mélysége félléptekben (short), a bejegyzések száma (int), az állások száma (int).
+ * Egy bejegyzés egy állás egy lépése: az állás Zobrist kulcsa (long), a lépés (PackedMove, int), a leütött mezők maszkja (int),
+ * a lépés súlya (int), majd a lépést választó fél győzelmeinek, döntetlenjeinek és vereségeinek száma (3 int).
+ * A bejegyzések a kulcs szerint növekvő sorrendben következnek (előjeles összehasonlítással), így egy állás lépései
+ * bináris kereséssel találhatók meg. A fájl memóriába képezve, a heap-en kívül marad.
+ * Bármely szálból használható.
+ */
+public class OpeningBook {
+
+    public static final int MAGIC = 0x434B424B; // "CKBK"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int ENTRY_SIZE = 32;
+    public static final String DEFAULT_FILE = "book.ckbk"; // Az alapértelmezett könyv fájl.
+
+    private final ByteBuffer buffer; // A fájl tartalma, fejléccel együtt.
+    private final int entries; // A bejegyzések száma.
+
+    /**
+     * Egy állás egy könyvbeli lépése a statisztikáival.
+     */
+    public static final class BookMove {
+        private final int move, capturedSet, weight, wins, draws, losses;
+
+        BookMove(int move, int capturedSet, int weight, int wins, int draws, int losses) {
+            this.move = move;
+            this.capturedSet = capturedSet;
+            this.weight = weight;
+            this.wins = wins;
+            this.draws = draws;
+            this.losses = losses;
+        }
+
+        public int getMove() {
+            return move;
+        }
+
+        public int getCapturedSet() {
+            return capturedSet;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        /**
+         * @return A lépéssel lejátszott játszmák száma.
+         */
+        public int getGames() {
+            return wins + draws + losses;
+        }
+
+        @Override
+        public String toString() {
+            return PackedMove.toString(move) + " weight " + weight + " +" + wins + " =" + draws + " -" + losses;
+        }
+    }
+
+    /**
+     * @param buffer A könyv fájl tartalma, fejléccel együtt.
+     * @throws IOException Ha a fejléc hibás, vagy a fájl rövidebb a fejlécben megadottnál.
+     */
+    public OpeningBook(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION
+                || buffer.capacity() < HEADER_SIZE + (long) buffer.getInt(8) * ENTRY_SIZE) {
+            throw new IOException("Invalid opening book header");
+        }
+        this.buffer = buffer;
+        this.entries = buffer.getInt(8);
+    }
+
+    /**
+     * Memóriába képezi a könyv fájlt csak olvasásra.
+     *
+     * @param file A könyv fájl.
+     * @return A könyv, vagy null, ha a fájl nem létezik vagy nem olvasható.
+     */
+    public static OpeningBook open(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            System.err.println("Error opening book " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Megkeresi az állás könyvbeli lépéseit. Csak az állásban szabályos lépéseket adja vissza,
+     * így a kulcsok esetleges ütközése sem vezethet szabálytalan lépéshez.
+     *
+     * @param position Az állás.
+     * @return A lépések a fájlbeli sorrendben, üres lista, ha az állás nincs a könyvben.
+     */
+    public List<BookMove> probe(BitBoard position) {
+        List<BookMove> result = new ArrayList<>();
+        long key = position.getHash();
+        int first = lowerBound(key);
+        if (first == entries || key(first) != key) return result;
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] capturedSets = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves, capturedSets);
+        for (int e = first; e < entries && key(e) == key; e++) {
+            int offset = HEADER_SIZE + e * ENTRY_SIZE;
+            int move = buffer.getInt(offset + 8);
+            int capturedSet = buffer.getInt(offset + 12);
+            for (int m = 0; m < count; m++) {
+                if (moves[m] == move && capturedSets[m] == capturedSet) {
+                    result.add(new BookMove(move, capturedSet, buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                            buffer.getInt(offset + 24), buffer.getInt(offset + 28)));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Kiválaszt egy könyvbeli lépést, a súlyukkal arányos valószínűséggel.
+     *
+     * @param position Az állás.
+     * @param random A véletlenszám forrás.
+     * @return A lépés, vagy null, ha az állás nincs a könyvben.
+     */
+    public BookMove choose(BitBoard position, Random random) {
+        List<BookMove> moves = probe(position);
+        long total = 0;
+        for (BookMove m : moves) {
+            total += m.weight;
+        }
+        if (total <= 0) return null;
+        long r = (long) (random.nextDouble() * total);
+        for (BookMove m : moves) {
+            r -= m.weight;
+            if (r < 0) return m;
+        }
+        return moves.get(moves.size() - 1);
+    }
+
+    /**
+     * Az első olyan bejegyzés sorszáma, amelynek kulcsa nem kisebb a kapottnál (entries, ha nincs ilyen).
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (key(mid) < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private long key(int entry) {
+        return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    /**
+     * @return A könyv mélysége félléptekben.
+     */
+    public int getMaxPly() {
+        return buffer.getShort(6);
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return A könyvben szereplő állások száma.
+     */
+    public int getPositions() {
+        return buffer.getInt(12);
+    }
+
+    @Override
+    public String toString() {
+        return "Opening book " + getPositions() + " positions, " + entries + " moves, " + getMaxPly() + " plies";
+    }
+}
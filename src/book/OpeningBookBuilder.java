@@ -0,0 +1,203 @@
+package book;
+
+import logic.BitBoard;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Megnyitás könyv készítése lejátszott játszmákból (a formátum leírása az OpeningBook osztályban).
+ *
+ * A bemenet egy könyvtár (vagy egyetlen fájl), amelynek fájljaiban soronként egy játszma áll a GameRecord szöveges alakjában.
+ * Az üres és a '#' jellel kezdődő sorok kimaradnak, a hibás sorokról hibaüzenet készül. A befejezetlen játszmák nem számítanak.
+ * Minden játszma első maxPly féllépését visszajátssza, és állásonként, lépésenként összesíti a lépést választó fél eredményeit.
+ * Az azonos állásba más sorrendben jutó játszmák (transzpozíciók) ugyanahhoz a bejegyzéshez adódnak.
+ * A minGames számúnál kevesebb játszmában szereplő lépések kimaradnak. A lépés súlya 2 * győzelmek + döntetlenek + 1,
+ * vagyis a szerzett félpontok száma, így a sikeres és gyakran játszott lépések kerülnek többször sorra.
+ *
+ * Használat:
+ *  java book.OpeningBookBuilder [játszmák könyvtára] [könyv fájl] [maxPly] [minGames]
+ */
+public class OpeningBookBuilder {
+
+    public static final String DEFAULT_GAMES_DIRECTORY = "games"; // A játszmák alapértelmezett könyvtára.
+    public static final int DEFAULT_MAX_PLY = 16; // Alapértelmezett könyv mélység félléptekben.
+    public static final int DEFAULT_MIN_GAMES = 2; // Alapértelmezett legkisebb játszmaszám egy lépéshez.
+
+    private final int maxPly; // Ennyi féllépés kerül a könyvbe játszmánként.
+    private final int minGames; // Ennél kevesebb játszmában szereplő lépés nem kerül a könyvbe.
+    private final Map<Long, Map<Long, Stats>> positions = new HashMap<>(); // Állás kulcs -> lépés -> statisztika.
+    private int games; // A feldolgozott játszmák száma.
+    private int skipped; // A hibás vagy befejezetlen, kihagyott játszmák száma.
+
+    /**
+     * Egy állás egy lépésének összesített eredményei.
+     */
+    private static final class Stats {
+        final long key;
+        final int move, capturedSet;
+        int wins, draws, losses;
+
+        Stats(long key, int move, int capturedSet) {
+            this.key = key;
+            this.move = move;
+            this.capturedSet = capturedSet;
+        }
+
+        int games() {
+            return wins + draws + losses;
+        }
+    }
+
+    /**
+     * @param maxPly Ennyi féllépés kerül a könyvbe játszmánként.
+     * @param minGames Ennél kevesebb játszmában szereplő lépés nem kerül a könyvbe.
+     */
+    public OpeningBookBuilder(int maxPly, int minGames) {
+        this.maxPly = maxPly;
+        this.minGames = minGames;
+    }
+
+    /**
+     * Hozzáadja a könyvtár összes fájljának játszmáit (vagy a fájl játszmáit, ha nem könyvtár).
+     *
+     * @param path A játszmák könyvtára vagy fájlja.
+     * @throws IOException Ha a könyvtár vagy egy fájl nem olvasható.
+     */
+    public void addGames(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            addFile(path);
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) files.add(file);
+            }
+        }
+        files.sort(null);
+        for (Path file : files) {
+            addFile(file);
+        }
+    }
+
+    private void addFile(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                addGame(GameRecord.parse(line));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping " + file + ":" + (i + 1) + ": " + e.getMessage());
+                skipped++;
+            }
+        }
+    }
+
+    /**
+     * Hozzáad egy játszmát az összesítéshez. A befejezetlen játszma kimarad.
+     *
+     * @param game A játszma.
+     */
+    public void addGame(GameRecord game) {
+        if (!game.isFinished()) {
+            skipped++;
+            return;
+        }
+        games++;
+        PieceColor winner = game.getWinner();
+        BitBoard position = BitBoard.initial();
+        for (int ply = 0; ply < Math.min(maxPly, game.length()); ply++) {
+            int move = game.getMove(ply);
+            int capturedSet = game.getCapturedSet(ply);
+            long key = position.getHash();
+            Stats stats = positions.computeIfAbsent(key, k -> new HashMap<>())
+                    .computeIfAbsent((long) move << 32 | (capturedSet & 0xFFFFFFFFL), k -> new Stats(key, move, capturedSet));
+            if (winner == null) stats.draws++;
+            else if (winner == position.getSideToMove()) stats.wins++;
+            else stats.losses++;
+            position.makeMove(move, capturedSet);
+        }
+    }
+
+    /**
+     * Kiírja a könyvet egy memóriába leképezett fájlba.
+     *
+     * @param file A könyv fájl.
+     * @return A kiírt bejegyzések száma.
+     * @throws IOException Ha a fájl nem írható.
+     */
+    public int write(Path file) throws IOException {
+        List<Stats> entries = new ArrayList<>();
+        int bookPositions = 0;
+        for (Map<Long, Stats> moves : positions.values()) {
+            boolean any = false;
+            for (Stats s : moves.values()) {
+                if (s.games() >= minGames) {
+                    entries.add(s);
+                    any = true;
+                }
+            }
+            if (any) bookPositions++;
+        }
+        entries.sort(Comparator.<Stats>comparingLong(s -> s.key).thenComparingInt(s -> s.move).thenComparingInt(s -> s.capturedSet));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    OpeningBook.HEADER_SIZE + (long) entries.size() * OpeningBook.ENTRY_SIZE);
+            buffer.putInt(0, OpeningBook.MAGIC);
+            buffer.putShort(4, OpeningBook.VERSION);
+            buffer.putShort(6, (short) maxPly);
+            buffer.putInt(8, entries.size());
+            buffer.putInt(12, bookPositions);
+            int offset = OpeningBook.HEADER_SIZE;
+            for (Stats s : entries) {
+                buffer.putLong(offset, s.key);
+                buffer.putInt(offset + 8, s.move);
+                buffer.putInt(offset + 12, s.capturedSet);
+                buffer.putInt(offset + 16, 2 * s.wins + s.draws + 1);
+                buffer.putInt(offset + 20, s.wins);
+                buffer.putInt(offset + 24, s.draws);
+                buffer.putInt(offset + 28, s.losses);
+                offset += OpeningBook.ENTRY_SIZE;
+            }
+            buffer.force();
+        }
+        return entries.size();
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path games = Paths.get(args.length > 0 ? args[0] : DEFAULT_GAMES_DIRECTORY);
+        Path file = Paths.get(args.length > 1 ? args[1] : OpeningBook.DEFAULT_FILE);
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+        int minGames = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MIN_GAMES;
+        long start = System.currentTimeMillis();
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPly, minGames);
+        builder.addGames(games);
+        int entries = builder.write(file);
+        System.out.println("Opening book " + file + ": " + entries + " moves from " + builder.getGames() + " games ("
+                + builder.getSkipped() + " skipped) in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,248 @@
+package engine;
+
+import logic.BitBoard;
+import logic.Zobrist;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Statikus értékelés a keresés leveleihez, fájlból betölthető súlyokkal.
+ *
+ * Az értékelés tagjai:
+ *  - anyag: normál bábu (NormalPiece) és királynő (QueenPiece) értéke,
+ *  - bábu-mező táblázatok: mezőnkénti pótlék normál bábukra és királynőkre, fehér szemszögéből megadva, a fekete tükrözve kapja,
+ *  - hátsó sor védelem: pótlék a saját alapsoron maradt normál bábukért, amelyek elzárják az ellenfél promótálását,
+ *  - elszabadult bábuk: pótlék azokért a normál bábukért, amelyek előtt a promótálási sorig terjedő kúpban nincs ellenséges bábu,
+ *    a hátralevő soronként csökkenő értékkel.
+ * Az első három tag mezőnként összevonható, ezért egyetlen táblázatba kerül (pieceSquareTable), amelyet a BitBoard
+ * a lépések végrehajtásakor és visszavonásakor növekményesen összegez, így a levélben csak ki kell olvasni.
+ * Az elszabadult bábukat a levélben, előre kiszámolt maszkokkal vizsgálja, mert az ellenfél összes bábujától függnek.
+ *
+ * A súlyok Properties fájlból tölthetők be (lásd load és save), a hiányzó kulcsok az alapértelmezett értéket kapják:
+ *  man, king, backRank, runaway, runawayStep egész számok, pstMan és pstKing 32 vesszővel elválasztott egész szám
+ *  a mezők sorrendjében (sor * 4 + oszlop / 2).
+ * A példány nem módosítható, bármely szálból használható.
+ */
+public final class Evaluation {
+
+    public static final String DEFAULT_FILE = "evaluation.properties"; // Az alapértelmezett súly fájl.
+
+    private static final int[][] FRONT = new int[2][BitBoard.SQUARES]; // Színenként és mezőnként a normál bábu előtti kúp maszkja.
+
+    static {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int row = BitBoard.rowOf(sq);
+            int col = BitBoard.colOf(sq);
+            for (int other = 0; other < BitBoard.SQUARES; other++) {
+                int r = BitBoard.rowOf(other);
+                int spread = Math.abs(BitBoard.colOf(other) - col);
+                if (r < row && spread <= row - r) FRONT[0][sq] |= 1 << other;
+                if (r > row && spread <= r - row) FRONT[1][sq] |= 1 << other;
+            }
+        }
+    }
+
+    public static final Evaluation DEFAULT = new Evaluation(100, 150, 8, 50, 5, new int[]{
+            0, 0, 0, 0,
+            10, 10, 10, 10,
+            8, 9, 9, 8,
+            5, 7, 7, 5,
+            4, 6, 6, 4,
+            2, 4, 4, 2,
+            0, 2, 2, 0,
+            0, 0, 0, 0,
+    }, new int[]{
+            0, 0, 0, 0,
+            0, 2, 2, 2,
+            2, 4, 4, 2,
+            2, 6, 6, 2,
+            2, 6, 6, 2,
+            2, 4, 4, 2,
+            2, 2, 2, 0,
+            0, 0, 0, 0,
+    });
+
+    private final int man, king, backRank, runaway, runawayStep;
+    private final int[] pstMan, pstKing; // Fehér szemszögéből, mezőnként.
+    private final int[][] pieceSquare = new int[4][BitBoard.SQUARES]; // Az összevont táblázat, bábu típusonként (Zobrist).
+
+    /**
+     * @param man A normál bábu értéke.
+     * @param king A királynő értéke.
+     * @param backRank Pótlék a saját alapsoron álló normál bábukért.
+     * @param runaway Az elszabadult normál bábu pótléka, ha egy sorra van a promótálástól.
+     * @param runawayStep Az elszabadult bábu pótlékának csökkenése további soronként.
+     * @param pstMan A normál bábuk mezőnkénti pótléka fehér szemszögéből (32 érték).
+     * @param pstKing A királynők mezőnkénti pótléka fehér szemszögéből (32 érték).
+     * @throws IllegalArgumentException Ha a táblázatok mérete nem 32.
+     */
+    public Evaluation(int man, int king, int backRank, int runaway, int runawayStep, int[] pstMan, int[] pstKing) {
+        if (pstMan.length != BitBoard.SQUARES || pstKing.length != BitBoard.SQUARES) {
+            throw new IllegalArgumentException("Piece-square tables must have " + BitBoard.SQUARES + " entries");
+        }
+        this.man = man;
+        this.king = king;
+        this.backRank = backRank;
+        this.runaway = runaway;
+        this.runawayStep = runawayStep;
+        this.pstMan = pstMan.clone();
+        this.pstKing = pstKing.clone();
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int mirrored = BitBoard.SQUARES - 1 - sq;
+            pieceSquare[Zobrist.WHITE_MAN][sq] = man + pstMan[sq] + ((BitBoard.BLACK_PROMOTION_ROW >>> sq & 1) != 0 ? backRank : 0);
+            pieceSquare[Zobrist.WHITE_KING][sq] = king + pstKing[sq];
+            pieceSquare[Zobrist.BLACK_MAN][sq] = -(man + pstMan[mirrored] + ((BitBoard.WHITE_PROMOTION_ROW >>> sq & 1) != 0 ? backRank : 0));
+            pieceSquare[Zobrist.BLACK_KING][sq] = -(king + pstKing[mirrored]);
+        }
+    }
+
+    /**
+     * Betölti a súlyokat egy Properties fájlból. A hiányzó kulcsok az alapértelmezett értéket kapják.
+     *
+     * @param file A fájl.
+     * @return Az értékelés.
+     * @throws IOException Ha a fájl nem olvasható.
+     * @throws IllegalArgumentException Ha egy érték nem egész szám, vagy egy táblázat mérete nem 32.
+     */
+    public static Evaluation load(Path file) throws IOException {
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            p.load(in);
+        }
+        Evaluation d = DEFAULT;
+        return new Evaluation(intValue(p, "man", d.man), intValue(p, "king", d.king), intValue(p, "backRank", d.backRank),
+                intValue(p, "runaway", d.runaway), intValue(p, "runawayStep", d.runawayStep),
+                table(p, "pstMan", d.pstMan), table(p, "pstKing", d.pstKing));
+    }
+
+    /**
+     * Betölti a súlyokat, ha a fájl létezik.
+     *
+     * @param file A fájl.
+     * @return Az értékelés, vagy null, ha a fájl nem létezik vagy hibás.
+     */
+    public static Evaluation open(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            return load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading evaluation weights " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Elmenti a súlyokat a load által olvasható formában.
+     *
+     * @param file A fájl.
+     * @throws IOException Ha a fájl nem írható.
+     */
+    public void save(Path file) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("man", Integer.toString(man));
+        p.setProperty("king", Integer.toString(king));
+        p.setProperty("backRank", Integer.toString(backRank));
+        p.setProperty("runaway", Integer.toString(runaway));
+        p.setProperty("runawayStep", Integer.toString(runawayStep));
+        p.setProperty("pstMan", join(pstMan));
+        p.setProperty("pstKing", join(pstKing));
+        try (Writer out = Files.newBufferedWriter(file)) {
+            p.store(out, "Checkers evaluation weights");
+        }
+    }
+
+    private static int intValue(Properties p, String key, int defaultValue) {
+        String value = p.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static int[] table(Properties p, String key, int[] defaultValue) {
+        String value = p.getProperty(key);
+        if (value == null) return defaultValue;
+        return Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static String join(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Az anyag, a bábu-mező pótlékok és a hátsó sor védelem mezőnként összevont táblázata a BitBoard.setPieceSquareTable számára.
+     * Nem szabad módosítani.
+     *
+     * @return Bábu típusonként (Zobrist.pieceType) 32 érték fehér szemszögéből.
+     */
+    public int[][] pieceSquareTable() {
+        return pieceSquare;
+    }
+
+    /**
+     * Kiértékeli az állást. Az állásnak ennek az értékelésnek a táblázatával kell rendelkeznie (BitBoard.setPieceSquareTable),
+     * ekkor a táblázat szerinti rész már készen áll, csak az elszabadult bábukat kell megvizsgálni.
+     *
+     * @param position Az állás.
+     * @return Az érték a lépő fél szemszögéből.
+     */
+    public int evaluate(BitBoard position) {
+        int score = position.getPieceSquareScore() + runaways(position);
+        return position.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Kiértékeli az állást a táblázat növekményes összege nélkül, teljes újraszámolással (ellenőrzéshez).
+     *
+     * @param position Az állás.
+     * @return Az érték a lépő fél szemszögéből.
+     */
+    public int evaluateFull(BitBoard position) {
+        int score = runaways(position);
+        int white = position.getWhite();
+        int kings = position.getKings();
+        for (int m = white | position.getBlack(); m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            score += pieceSquare[Zobrist.pieceType((white >>> sq & 1) != 0 ? PieceColor.WHITE : PieceColor.BLACK,
+                    (kings >>> sq & 1) != 0)][sq];
+        }
+        return position.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Az elszabadult normál bábuk pótléka fehér szemszögéből. A fehér normál bábu a 0. sor felé halad, a fekete a 7. felé.
+     */
+    private int runaways(BitBoard position) {
+        int white = position.getWhite();
+        int black = position.getBlack();
+        int kings = position.getKings();
+        int score = 0;
+        for (int m = white & ~kings; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            if ((FRONT[0][sq] & black) == 0) score += runaway - runawayStep * (BitBoard.rowOf(sq) - 1);
+        }
+        for (int m = black & ~kings; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            if ((FRONT[1][sq] & white) == 0) score -= runaway - runawayStep * (6 - BitBoard.rowOf(sq));
+        }
+        return score;
+    }
+
+    public int getManValue() {
+        return man;
+    }
+
+    public int getKingValue() {
+        return king;
+    }
+}
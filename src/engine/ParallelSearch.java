@@ -0,0 +1,290 @@
+package engine;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import tablebase.TablebaseProbe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Több szálas keresés a Lazy SMP módszerrel. Minden szál egy saját Search példánnyal ugyanazt az állást keresi,
+ * a szálak csak a közös transzpozíciós táblán keresztül segítik egymást: amit az egyik már kiszámolt,
+ * azt a többi a táblából olvassa ki. A szálak között nincs zárolás és nincs üzenetküldés, így a gyorsulás
+ * közel lineáris marad, amíg a tábla elég nagy.
+ *
+ * A fő szál (0. sorszám) a hívó szálon fut, a segédszálak egy ForkJoinPool-on. Amikor a fő szál befejezi
+ * a keresést (elérte a mélységet vagy lejárt az idő), a segédszálakat leállítja és megvárja.
+ * Az eredmény a legnagyobb befejezett mélységet elért szál eredménye (egyenlőség esetén a fő száléé),
+ * a csúcsszám az összes szál csúcsainak összege.
+ * Egy szál esetén nincs pool, a keresés determinisztikus, így a játszmák megismételhetők.
+ *
+ * Várakozó keresés (ponder): az ellenfél gondolkodási ideje alatt a várható válaszlépése utáni állást keresi időkorlát nélkül.
+ * A kérést egy sorszám (ticket) azonosítja, amelyet a newPonderTicket ad a keresés elindítása előtt. Ha az ellenfél a várt
+ * lépést tette (ponderHit), a keresés innentől időkorlátot kap, és a már felépült transzpozíciós táblát felhasználva folytatódik.
+ * Ha mást lépett, a cancelPonder leállítja. Mindkét jelzés hatásos akkor is, ha a keresés még el sem indult,
+ * a már befejezett keresésre viszont nincs hatásuk.
+ */
+public class ParallelSearch {
+
+    private final TranspositionTable tt; // A szálak közös táblája.
+    private final Search[] searches; // Szálanként egy keresés, a 0. a fő szálé.
+    private final ForkJoinPool pool; // A segédszálak, egy szál esetén null.
+    private final long[] threadNodes; // Az utolsó keresésben szálanként bejárt csúcsok.
+    private final int[] threadDepths; // Az utolsó keresésben szálanként elért mélység.
+
+    private static final int PONDER_QUEUED = 0, PONDER_RUNNING = 1, PONDER_DONE = 2; // A várakozó keresés állapotai.
+    private long ponderTicket; // Az utolsó várakozó keresés kérés sorszáma.
+    private int ponderState = PONDER_DONE; // Az utolsó várakozó keresés állapota.
+    private long ponderHitMillis = -1; // Az elindulás előtt érkezett találat időkorlátja, vagy -1.
+    private boolean ponderCancelled; // Igaz, ha a kérést az elindulás előtt visszavonták.
+
+    /**
+     * @param tt A közös transzpozíciós tábla.
+     * @param threads A szálak száma (legalább 1).
+     */
+    public ParallelSearch(TranspositionTable tt, int threads) {
+        this.tt = tt;
+        int n = Math.max(1, threads);
+        searches = new Search[n];
+        for (int i = 0; i < n; i++) {
+            searches[i] = new Search(tt);
+        }
+        pool = n > 1 ? new ForkJoinPool(n - 1) : null;
+        threadNodes = new long[n];
+        threadDepths = new int[n];
+    }
+
+    /**
+     * Megkeresi a legjobb lépést az összes szállal. A hívó szálon fut a fő keresés, ezért a hívás
+     * a keresés végéig blokkol.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @param maxDepth A maximális mélység félléptekben.
+     * @param timeMillis Az időkorlát ezredmásodpercben (0 vagy negatív esetén nincs korlát).
+     * @return A keresés eredménye, az összes szál csúcsszámával.
+     */
+    public SearchResult search(BitBoard root, int maxDepth, long timeMillis) {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            prepare(start, timeMillis);
+        }
+        return run(root, maxDepth, start);
+    }
+
+    /**
+     * Új várakozó keresés kérés sorszámát adja. A ponder hívás előtt kell kérni, így a jelzések (ponderHit, cancelPonder)
+     * a keresés elindulása előtt is célba érnek.
+     *
+     * @return A kérés sorszáma.
+     */
+    public synchronized long newPonderTicket() {
+        ponderTicket++;
+        ponderState = PONDER_QUEUED;
+        ponderHitMillis = -1;
+        ponderCancelled = false;
+        return ponderTicket;
+    }
+
+    /**
+     * Várakozó keresés: időkorlát nélkül keres, amíg a ponderHit időkorlátot nem ad, a cancelPonder le nem állítja,
+     * vagy el nem éri a maximális mélységet. A hívás a keresés végéig blokkol.
+     *
+     * @param root A várható válaszlépés utáni állás (nem módosul).
+     * @param maxDepth A maximális mélység félléptekben.
+     * @param ticket A newPonderTicket által adott sorszám.
+     * @return A keresés eredménye, vagy null, ha a kérést időközben visszavonták vagy újabb kérés érkezett.
+     */
+    public SearchResult ponder(BitBoard root, int maxDepth, long ticket) {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            if (ticket != ponderTicket || ponderCancelled) return null;
+            ponderState = PONDER_RUNNING;
+            prepare(start, ponderHitMillis >= 0 ? ponderHitMillis : 0);
+        }
+        try {
+            return run(root, maxDepth, start);
+        } finally {
+            synchronized (this) {
+                if (ticket == ponderTicket) ponderState = PONDER_DONE;
+            }
+        }
+    }
+
+    /**
+     * Az ellenfél a várt lépést tette: a várakozó keresés innentől a kapott időkorláttal fut tovább.
+     *
+     * @param ticket A kérés sorszáma.
+     * @param timeMillis Az időkorlát ezredmásodpercben, a hívás pillanatától.
+     * @return Hamis, ha a keresés már befejeződött, vagy a sorszám elavult (ekkor a keresés eredménye már kész vagy érvénytelen).
+     */
+    public synchronized boolean ponderHit(long ticket, long timeMillis) {
+        if (ticket != ponderTicket || ponderState == PONDER_DONE) return false;
+        if (ponderState == PONDER_QUEUED) {
+            ponderHitMillis = timeMillis;
+        } else {
+            long now = System.currentTimeMillis();
+            for (Search s : searches) {
+                s.setTimeLimit(now, timeMillis);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Az ellenfél nem a várt lépést tette: leállítja a várakozó keresést, vagy megakadályozza az elindulását.
+     *
+     * @param ticket A kérés sorszáma.
+     */
+    public synchronized void cancelPonder(long ticket) {
+        if (ticket != ponderTicket) return;
+        if (ponderState == PONDER_QUEUED) ponderCancelled = true;
+        else if (ponderState == PONDER_RUNNING) stop();
+    }
+
+    /**
+     * Előkészíti a szálakat egy keresésre: törli a leállítási jelzéseket, és beállítja az időkorlátot.
+     */
+    private void prepare(long start, long timeMillis) {
+        for (Search s : searches) {
+            s.reset();
+            s.setTimeLimit(start, timeMillis);
+        }
+    }
+
+    /**
+     * A keresés az előkészített szálakkal.
+     */
+    private SearchResult run(BitBoard root, int maxDepth, long start) {
+        SearchResult exact = searches[0].probeRoot(root);
+        if (exact != null) return exact;
+        tt.newSearch();
+
+        List<ForkJoinTask<SearchResult>> helpers = new ArrayList<>(searches.length);
+        helpers.add(null); // A 0. szál a hívó szálon fut.
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int index = i;
+            helpers.add(pool.submit(() -> helper.run(root, maxDepth, index)));
+        }
+
+        SearchResult best = searches[0].run(root, maxDepth, 0);
+        long nodes = best.getNodes();
+        threadNodes[0] = best.getNodes();
+        threadDepths[0] = best.getDepth();
+
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (int i = 1; i < searches.length; i++) {
+            SearchResult result;
+            try {
+                result = helpers.get(i).join();
+            } catch (CancellationException e) {
+                continue; // A pool leállítása (shutdown) miatt el sem indult.
+            }
+            nodes += result.getNodes();
+            threadNodes[i] = result.getNodes();
+            threadDepths[i] = result.getDepth();
+            if (result.getDepth() > best.getDepth() && result.hasMove()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.getMove(), best.getCapturedSet(), best.getScore(), best.getDepth(), nodes,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Beállítja az összes szál által használt végjáték táblákat. A táblában szereplő gyökérállásban nem indul keresés.
+     * @param tablebase A táblák, vagy null.
+     */
+    public void setTablebase(TablebaseProbe tablebase) {
+        for (Search s : searches) {
+            s.setTablebase(tablebase);
+        }
+    }
+
+    /**
+     * Beállítja az összes szál által használt statikus értékelést. Keresés közben nem szabad hívni.
+     * @param evaluation Az értékelés.
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        for (Search s : searches) {
+            s.setEvaluation(evaluation);
+        }
+    }
+
+    /**
+     * A várakozó kereséshez megjósolja az ellenfél válaszát: a transzpozíciós táblában az állásra tárolt lépést, ha szabályos.
+     *
+     * @param position Az állás, amelyben az ellenfél következik (nem módosul).
+     * @return A válaszlépés utáni új állás, vagy null, ha a tábla nem tartalmaz szabályos lépést az állásra.
+     */
+    public BitBoard predictReply(BitBoard position) {
+        long entry = tt.probe(position.getHash());
+        if (entry == 0) return null;
+        int move = TranspositionTable.move(entry);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] capturedSets = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves, capturedSets);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                BitBoard next = new BitBoard(position.getWhite(), position.getBlack(), position.getKings(), position.getSideToMove());
+                next.makeMove(moves[i], capturedSets[i]);
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Leállítja az összes szál keresését. Bármely szálból hívható.
+     */
+    public void stop() {
+        for (Search s : searches) {
+            s.stop();
+        }
+    }
+
+    /**
+     * Leállítja a segédszálakat. Ezután a példány nem használható.
+     */
+    public void shutdown() {
+        stop();
+        if (pool != null) pool.shutdownNow();
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    /**
+     * @return A fő szál lépéssorrend statisztikája az utolsó keresésből (lásd Search.orderingStatistics).
+     */
+    public String orderingStatistics() {
+        return searches[0].orderingStatistics();
+    }
+
+    /**
+     * @param thread A szál sorszáma.
+     * @return A szál által az utolsó keresésben bejárt csúcsok száma.
+     */
+    public long getThreadNodes(int thread) {
+        return threadNodes[thread];
+    }
+
+    /**
+     * @param thread A szál sorszáma.
+     * @return A szál által az utolsó keresésben befejezett legnagyobb mélység.
+     */
+    public int getThreadDepth(int thread) {
+        return threadDepths[thread];
+    }
+}
@@ -0,0 +1,509 @@
+package engine;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+import pieces.PieceColor;
+import tablebase.Tablebase;
+import tablebase.TablebaseProbe;
+
+import java.util.Arrays;
+
+/**
+ * Iteratívan mélyülő alfa-béta (negamax) keresés a BitBoard állásokon.
+ * A lépéseket a MoveGenerator.generateLegal állítja elő (teljes ütéssorozatok és normál lépések),
+ * a játék vége a BitBoard.winner szerint, vagyis a GameLogic.checkGameOver szabályával dől el.
+ * A levelekben csak ütéseket vizsgáló nyugalmi keresés fut. A már bejárt állásokat a transzpozíciós tábla tárolja.
+ * Az állások értékét az Evaluation adja, amelynek táblázat szerinti részét a keresés állása lépésenként növekményesen frissíti.
+ * A lépés- és útvonal tömbök előre lefoglaltak, keresés közben nincs memóriafoglalás.
+ * A lépések sorrendje: a transzpozíciós tábla lépése, az ütéssorozatok a leütött bábuk száma szerint, a mélységenkénti
+ * két gyilkos lépés (killer), végül a többi normál lépés az előzmény táblázat (history) szerint. A lépéseket nem rendezi előre,
+ * hanem minden lépés előtt a hátralevők közül a legjobb pontszámút cseréli előre, így vágás esetén a többit nem kell rendezni.
+ * Időkorlát esetén a fő szál nem kezd új iterációt, ha a korlát felét (a lágy korlátot) már elhasználta, vagy ha az előző
+ * iterációk idejének növekedése alapján a következő iteráció már nem fejeződne be. Ha a legjobb lépés egy iterációban megváltozik,
+ * a lágy korlát a teljes korlát negyedével nő, így bizonytalan állásban több idő jut a döntésre. A teljes korlátot soha nem lépi túl.
+ * Mélységenként számolja a vágásokat, és hogy közülük hány történt már az első lépésnél (a sorrend minőségének mérőszáma).
+ * Egy példányt egyszerre csak egy szál használhat, a stop() viszont bármely szálból hívható.
+ * Több szálas kereséshez a ParallelSearch több példányt futtat egy közös transzpozíciós táblával.
+ * Ha van végjáték tábla, a benne szereplő állásokat nem keresi tovább, hanem a tábla pontos értékét használja,
+ * a táblában szereplő gyökérállásban pedig keresés nélkül a tábla szerinti legjobb lépést választja.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 128; // A keresés maximális mélysége félléptekben.
+    public static final int INFINITY = 30000;
+    public static final int WIN = 29000; // A nyert állás értéke, ebből vonódik le a győzelemig hátralevő féllépések száma.
+
+    private static final int NO_SCORE = Integer.MIN_VALUE; // A végjáték tábla nem tartalmazza az állást.
+
+    private static final int HASH_MOVE_SCORE = 1 << 30; // A transzpozíciós tábla lépésének sorrendi pontszáma.
+    private static final int CAPTURE_SCORE = 1 << 29; // Az ütések alap pontszáma, ehhez adódik a leütött bábuk száma.
+    private static final int KILLER_SCORE = 1 << 28; // Az első gyilkos lépés pontszáma, a második eggyel kevesebb.
+    private static final int HISTORY_LIMIT = 1 << 20; // Ennél nagyobb előzmény értéknél az egész táblázat feleződik.
+    private static final int SOFT_LIMIT_PERCENT = 50; // A lágy időkorlát az időkorlát százalékában.
+    private static final int INSTABILITY_PERCENT = 25; // A lágy korlát növekedése, ha a legjobb lépés megváltozik.
+
+    private final TranspositionTable tt;
+    private final BitBoard position = new BitBoard();
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] capturedSets = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES]; // A lépések sorrendi pontszámai.
+    private final long[] pathHashes = new long[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY][2]; // Félléptenként a két utolsó vágást okozó normál lépés.
+    private final int[][] history = new int[2][BitBoard.SQUARES * BitBoard.SQUARES]; // Színenként, honnan-hová szerint.
+    private final long[] cutoffs = new long[MAX_PLY]; // Hátralevő mélységenként a vágások száma.
+    private final long[] firstMoveCutoffs = new long[MAX_PLY]; // Ezek közül az első lépésnél történt vágások.
+
+    private TablebaseProbe tablebase; // A végjáték táblák, vagy null.
+    private Evaluation evaluation = Evaluation.DEFAULT; // A statikus értékelés.
+    private volatile boolean stopped;
+    private boolean firstIteration; // Igaz, amíg a fő szál első iterációja fut, ekkor az időkorlát nem szakítja meg a keresést.
+    private volatile long startTime; // Az időkorlát kezdete.
+    private volatile long budget; // Az időkorlát ezredmásodpercben, 0 esetén nincs korlát.
+    private volatile long deadline; // Az időkorlát vége, ekkor a keresés félbeszakad.
+    private int softPercent; // A lágy korlát az időkorlát százalékában, a legjobb lépés változásakor nő.
+    private long nodes;
+
+    /**
+     * @param tt A keresés által használt transzpozíciós tábla. Több keresés is használhatja ugyanazt a táblát.
+     */
+    public Search(TranspositionTable tt) {
+        this.tt = tt;
+        position.setPieceSquareTable(evaluation.pieceSquareTable());
+    }
+
+    /**
+     * Megkeresi a legjobb lépést. A mélységet egyesével növeli, amíg el nem éri a maxDepth értéket,
+     * vagy le nem jár az idő. Az idő lejártakor a félbeszakadt iteráció eredményét eldobja,
+     * és az utolsó befejezett iteráció legjobb lépését adja vissza. Az időkorlát az első iterációt nem szakítja meg,
+     * így mindig van befejezett iteráció; a stop() hívás igen, ekkor az eredmény mélysége 0.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @param maxDepth A maximális mélység félléptekben.
+     * @param timeMillis Az időkorlát ezredmásodpercben (0 vagy negatív esetén nincs korlát).
+     * @return A keresés eredménye.
+     */
+    public SearchResult search(BitBoard root, int maxDepth, long timeMillis) {
+        long start = System.currentTimeMillis();
+        reset();
+        SearchResult exact = probeRoot(root);
+        if (exact != null) return exact;
+        tt.newSearch();
+        setTimeLimit(start, timeMillis);
+        return run(root, maxDepth, 0);
+    }
+
+    /**
+     * Beállítja az időkorlátot. Keresés közben is hívható bármely szálból: a várakozó keresés (ParallelSearch.ponder)
+     * így kap időkorlátot, amikor az ellenfél a várt lépést tette.
+     *
+     * @param start Az időkorlát kezdete (System.currentTimeMillis).
+     * @param timeMillis Az időkorlát ezredmásodpercben (0 vagy negatív esetén nincs korlát).
+     */
+    void setTimeLimit(long start, long timeMillis) {
+        startTime = start;
+        budget = Math.max(0, timeMillis);
+        deadline = timeMillis > 0 ? start + timeMillis : Long.MAX_VALUE;
+    }
+
+    /**
+     * Előkészíti a példányt egy új keresésre: törli a leállítási jelzést, a számlálókat és a gyilkos lépéseket,
+     * az előzmény táblázatot pedig felezi, így az előző keresés tapasztalata megmarad, de gyorsan elavul.
+     * A ParallelSearch a szálak indítása előtt hívja, így az induláskor már leállított segédszál nem indul újra.
+     */
+    void reset() {
+        stopped = false;
+        nodes = 0;
+        for (int[] k : killers) {
+            k[0] = PackedMove.NONE;
+            k[1] = PackedMove.NONE;
+        }
+        ageHistory();
+        Arrays.fill(cutoffs, 0);
+        Arrays.fill(firstMoveCutoffs, 0);
+    }
+
+    /**
+     * Az iteratívan mélyülő keresés magja. A 0. szál az első mélységtől indul, és a gyökérlépéseket a generálás sorrendjében vizsgálja.
+     * A segédszálak (Lazy SMP) páratlan sorszám esetén eggyel nagyobb mélységről indulnak, és a sorszámuk szerinti
+     * gyökérlépéssel kezdenek, így a közös táblát a fő szálétól eltérő részfákkal töltik fel.
+     *
+     * Az időkorlátot előtte a setTimeLimit állítja be. Új iterációt csak a fő szál mérlegel, a segédszálakat a fő szál állítja le.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @param maxDepth A maximális mélység félléptekben.
+     * @param threadIndex A szál sorszáma (0 a fő szál).
+     * @return A keresés eredménye.
+     */
+    SearchResult run(BitBoard root, int maxDepth, int threadIndex) {
+        long start = System.currentTimeMillis();
+        position.copyFrom(root);
+        softPercent = SOFT_LIMIT_PERCENT;
+
+        int count = MoveGenerator.generateLegal(position, moves[0], capturedSets[0]);
+        if (count == 0 || position.winner() != null) {
+            return new SearchResult(PackedMove.NONE, 0, 0, 0, 0, System.currentTimeMillis() - start);
+        }
+        swap(moves[0], capturedSets[0], 0, threadIndex % count);
+
+        int bestMove = moves[0][0];
+        int bestCaptured = capturedSets[0][0];
+        int bestScore = 0;
+        int depthReached = 0;
+        int firstDepth = Math.min(1 + (threadIndex & 1), maxDepth);
+        long previousIterationTime = 0;
+        firstIteration = threadIndex == 0;
+        for (int depth = firstDepth; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            long iterationStart = System.currentTimeMillis();
+            int score = searchRoot(depth, count);
+            firstIteration = false;
+            if (stopped) break;
+            boolean changed = depthReached > 0 && (moves[0][0] != bestMove || capturedSets[0][0] != bestCaptured);
+            bestMove = moves[0][0];
+            bestCaptured = capturedSets[0][0];
+            bestScore = score;
+            depthReached = depth;
+            if (Math.abs(score) >= WIN - MAX_PLY) break;
+            long iterationTime = System.currentTimeMillis() - iterationStart;
+            if (threadIndex == 0 && !timeForNextIteration(changed, iterationTime, previousIterationTime)) break;
+            previousIterationTime = iterationTime;
+        }
+        return new SearchResult(bestMove, bestCaptured, bestScore, depthReached, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Eldönti, hogy belefér-e még egy iteráció az időkorlátba. A következő iteráció idejét az utolsó iteráció idejéből
+     * becsli, az utolsó két iteráció arányával (2 és 8 közé szorítva) szorozva.
+     *
+     * @param bestMoveChanged Igaz, ha az utolsó iteráció más lépést talált legjobbnak, ekkor nő a lágy korlát.
+     * @param iterationTime Az utolsó iteráció ideje.
+     * @param previousIterationTime Az azt megelőző iteráció ideje (0, ha nem volt).
+     */
+    private boolean timeForNextIteration(boolean bestMoveChanged, long iterationTime, long previousIterationTime) {
+        long limit = budget;
+        if (limit <= 0) return true;
+        if (bestMoveChanged) softPercent = Math.min(100, softPercent + INSTABILITY_PERCENT);
+        long now = System.currentTimeMillis();
+        long growth = previousIterationTime > 0 ? Math.max(2, Math.min(8, iterationTime / previousIterationTime)) : 4;
+        return now - startTime < limit * softPercent / 100 && now + iterationTime * growth <= deadline;
+    }
+
+    /**
+     * Ha a gyökérállás szerepel a végjáték táblákban, keresés nélkül kiválasztja a tábla szerinti legjobb lépést:
+     * nyert állásban a leggyorsabb győzelmet, vesztesben a leghosszabb ellenállást.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @return Az eredmény (0 mélységgel), vagy null, ha nincs tábla, az állás nem szerepel benne, vagy nincs lépés.
+     */
+    SearchResult probeRoot(BitBoard root) {
+        if (tablebase == null || !tablebase.covers(root) || root.winner() != null) return null;
+        long start = System.currentTimeMillis();
+        position.copyFrom(root);
+        int count = MoveGenerator.generateLegal(position, moves[0], capturedSets[0]);
+        int best = -1;
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[0][i], capturedSets[0][i]);
+            int score = tablebaseScore(1);
+            position.unmakeMove();
+            if (score == NO_SCORE) return null;
+            if (-score > bestScore) {
+                bestScore = -score;
+                best = i;
+            }
+        }
+        if (best < 0) return null;
+        return new SearchResult(moves[0][best], capturedSets[0][best], bestScore, 0, count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Az aktuális állás értéke a végjáték táblák alapján, a lépő fél szemszögéből, a győzelmi értékek a gyökértől mért távolsággal.
+     *
+     * @return Az érték, vagy NO_SCORE, ha az állás nincs a táblákban.
+     */
+    private int tablebaseScore(int ply) {
+        int value = tablebase.probe(position);
+        if (value == Tablebase.INVALID) return NO_SCORE;
+        if (value == Tablebase.DRAW) return 0;
+        int distance = Tablebase.distance(value);
+        return Tablebase.isWin(value) ? WIN - ply - distance : -(WIN - ply - distance);
+    }
+
+    /**
+     * Beállítja a keresés által használt végjáték táblákat.
+     * @param tablebase A táblák, vagy null.
+     */
+    public void setTablebase(TablebaseProbe tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Beállítja a levelekben használt statikus értékelést. Keresés közben nem szabad hívni.
+     * @param evaluation Az értékelés.
+     */
+    public void setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+        position.setPieceSquareTable(evaluation.pieceSquareTable());
+    }
+
+    /**
+     * Jelzi a keresésnek, hogy a lehető leghamarabb álljon le. Bármely szálból hívható.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * A gyökér lépéseinek vizsgálata. A legjobb lépést a lista elejére cseréli, így a következő iteráció azzal kezd.
+     * Leállításkor félbehagyja a vizsgálatot, és a gyökér bejegyzést nem írja a táblába.
+     */
+    private int searchRoot(int depth, int count) {
+        int[] rootMoves = moves[0];
+        int[] rootCaptured = capturedSets[0];
+        int alpha = -INFINITY;
+        pathHashes[0] = position.getHash();
+        for (int i = 0; i < count; i++) {
+            position.makeMove(rootMoves[i], rootCaptured[i]);
+            int score = -negamax(depth - 1, 1, -INFINITY, -alpha);
+            position.unmakeMove();
+            if (stopped) return alpha;
+            if (score > alpha) {
+                alpha = score;
+                swap(rootMoves, rootCaptured, 0, i);
+            }
+        }
+        tt.store(position.getHash(), rootMoves[0], alpha, depth, TranspositionTable.EXACT);
+        return alpha;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        if ((nodes & 1023) == 0 && !firstIteration && System.currentTimeMillis() > deadline) stopped = true;
+        if (stopped) return 0;
+
+        long hash = position.getHash();
+        pathHashes[ply] = hash;
+        PieceColor winner = position.winner();
+        if (winner != null) {
+            return winner == position.getSideToMove() ? WIN - ply : -(WIN - ply);
+        }
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (pathHashes[i] == hash) return 0; // Ismétlődés az úton: döntetlen.
+        }
+        if (tablebase != null && tablebase.covers(position)) {
+            int score = tablebaseScore(ply);
+            if (score != NO_SCORE) return score;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) return quiescence(ply, alpha, beta);
+
+        int ttMove = PackedMove.NONE;
+        long entry = tt.probe(hash);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTT(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int[] plyCaptured = capturedSets[ply];
+        int count = MoveGenerator.generateLegal(position, plyMoves, plyCaptured);
+        scoreMoves(ply, count, ttMove);
+
+        int originalAlpha = alpha;
+        int bestMove = PackedMove.NONE;
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            pickNext(ply, i, count);
+            position.makeMove(plyMoves[i], plyCaptured[i]);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            position.unmakeMove();
+            if (stopped) return 0;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = plyMoves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        recordCutoff(ply, depth, plyMoves[i], i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        tt.store(hash, bestMove, toTT(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Nyugalmi keresés: csak az ütéssorozatokat vizsgálja, amíg az állás nyugodt nem lesz.
+     * Mivel az ütés nem kötelező, a lépő fél a statikus értéket is választhatja.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        int standPat = evaluation.evaluate(position);
+        if (standPat >= beta || ply >= MAX_PLY - 1) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        int[] plyMoves = moves[ply];
+        int[] plyCaptured = capturedSets[ply];
+        int count = MoveGenerator.generateCaptureSequences(position, ~0, plyMoves, plyCaptured, 0);
+        int[] scores = moveScores[ply];
+        for (int i = 0; i < count; i++) {
+            scores[i] = Integer.bitCount(plyCaptured[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            pickNext(ply, i, count);
+            position.makeMove(plyMoves[i], plyCaptured[i]);
+            nodes++;
+            PieceColor winner = position.winner();
+            int tbScore = winner == null && tablebase != null && tablebase.covers(position) ? tablebaseScore(ply + 1) : NO_SCORE;
+            int score = winner != null
+                    ? (winner == position.getSideToMove() ? -(WIN - ply - 1) : WIN - ply - 1)
+                    : tbScore != NO_SCORE ? -tbScore : -quiescence(ply + 1, -beta, -alpha);
+            position.unmakeMove();
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Kiszámolja a félléptés lépéseinek sorrendi pontszámát: transzpozíciós tábla lépése, ütések a leütött bábuk száma szerint,
+     * gyilkos lépések, végül az előzmény táblázat értéke.
+     */
+    private void scoreMoves(int ply, int count, int ttMove) {
+        int[] plyMoves = moves[ply];
+        int[] plyCaptured = capturedSets[ply];
+        int[] scores = moveScores[ply];
+        int[] plyKillers = killers[ply];
+        int[] sideHistory = history[position.getSideToMove() == PieceColor.WHITE ? 0 : 1];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            if (move == ttMove) scores[i] = HASH_MOVE_SCORE;
+            else if (plyCaptured[i] != 0) scores[i] = CAPTURE_SCORE + Integer.bitCount(plyCaptured[i]);
+            else if (move == plyKillers[0]) scores[i] = KILLER_SCORE;
+            else if (move == plyKillers[1]) scores[i] = KILLER_SCORE - 1;
+            else scores[i] = sideHistory[PackedMove.from(move) * BitBoard.SQUARES + PackedMove.to(move)];
+        }
+    }
+
+    /**
+     * A hátralevő (i-től kezdődő) lépések közül a legnagyobb pontszámút az i. helyre cseréli.
+     */
+    private void pickNext(int ply, int i, int count) {
+        int[] scores = moveScores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            swap(moves[ply], capturedSets[ply], i, best);
+            int t = scores[i];
+            scores[i] = scores[best];
+            scores[best] = t;
+        }
+    }
+
+    /**
+     * Feljegyzi a vágást a statisztikába, és normál lépés esetén a gyilkos lépések és az előzmény táblázat közé.
+     *
+     * @param index A vágást okozó lépés sorszáma a vizsgálat sorrendjében.
+     */
+    private void recordCutoff(int ply, int depth, int move, int index) {
+        cutoffs[depth]++;
+        if (index == 0) firstMoveCutoffs[depth]++;
+        if (PackedMove.isCapture(move)) return;
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] sideHistory = history[position.getSideToMove() == PieceColor.WHITE ? 0 : 1];
+        int i = PackedMove.from(move) * BitBoard.SQUARES + PackedMove.to(move);
+        sideHistory[i] += depth * depth;
+        if (sideHistory[i] > HISTORY_LIMIT) ageHistory();
+    }
+
+    /**
+     * Felezi az előzmény táblázat értékeit.
+     */
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * @param depth A hátralevő mélység.
+     * @return Az utolsó keresésben ezen a mélységen történt vágások száma.
+     */
+    public long getCutoffs(int depth) {
+        return cutoffs[depth];
+    }
+
+    /**
+     * @param depth A hátralevő mélység.
+     * @return Az utolsó keresésben ezen a mélységen az első vizsgált lépésnél történt vágások száma.
+     */
+    public long getFirstMoveCutoffs(int depth) {
+        return firstMoveCutoffs[depth];
+    }
+
+    /**
+     * A lépéssorrend statisztikája mélységenként: a vágások száma és az első lépésnél történtek aránya.
+     *
+     * @return A statisztika táblázatos szöveges alakja, a vágás nélküli mélységek nélkül.
+     */
+    public String orderingStatistics() {
+        StringBuilder sb = new StringBuilder(String.format("%6s %12s %8s%n", "depth", "cutoffs", "first %"));
+        long total = 0, first = 0;
+        for (int d = 1; d < MAX_PLY; d++) {
+            if (cutoffs[d] == 0) continue;
+            sb.append(String.format("%6d %12d %8.1f%n", d, cutoffs[d], 100.0 * firstMoveCutoffs[d] / cutoffs[d]));
+            total += cutoffs[d];
+            first += firstMoveCutoffs[d];
+        }
+        return sb.append(String.format("%6s %12d %8.1f%n", "all", total, total == 0 ? 0 : 100.0 * first / total)).toString();
+    }
+
+    /**
+     * A győzelmi értékek a gyökértől mért távolságot tartalmazzák, ezért tároláskor az aktuális csúcstól mért távolságra alakítja.
+     */
+    private static int toTT(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score + ply;
+        if (score <= -(WIN - MAX_PLY)) return score - ply;
+        return score;
+    }
+
+    private static int fromTT(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score - ply;
+        if (score <= -(WIN - MAX_PLY)) return score + ply;
+        return score;
+    }
+
+    private static void swap(int[] moves, int[] captured, int i, int j) {
+        int m = moves[i];
+        moves[i] = moves[j];
+        moves[j] = m;
+        int c = captured[i];
+        captured[i] = captured[j];
+        captured[j] = c;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
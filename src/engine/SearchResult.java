@@ -0,0 +1,69 @@
+package engine;
+
+import logic.PackedMove;
+
+/**
+ * Egy keresés eredménye: a legjobb lépés a leütött mezők maszkjával, az értéke, az elért mélység és a statisztikák.
+ */
+public class SearchResult {
+
+    private final int move; // A legjobb lépés (PackedMove), vagy PackedMove.NONE, ha nincs lépés.
+    private final int capturedSet; // A lépésben leütött mezők maszkja.
+    private final int score; // Az érték a lépő fél szemszögéből.
+    private final int depth; // A teljesen befejezett legnagyobb mélység.
+    private final long nodes; // A bejárt csúcsok száma.
+    private final long timeMillis; // A keresés ideje ezredmásodpercben.
+
+    public SearchResult(int move, int capturedSet, int score, int depth, long nodes, long timeMillis) {
+        this.move = move;
+        this.capturedSet = capturedSet;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public int getCapturedSet() {
+        return capturedSet;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return Igaz, ha a keresés talált lépést.
+     */
+    public boolean hasMove() {
+        return move != PackedMove.NONE;
+    }
+
+    /**
+     * @return A másodpercenként bejárt csúcsok száma.
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return (hasMove() ? PackedMove.toString(move) : "none") + " score " + score + " depth " + depth
+                + " nodes " + nodes + " time " + timeMillis + " ms (" + getNodesPerSecond() + " nps)";
+    }
+}
@@ -0,0 +1,89 @@
+package engine;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A több szálas keresés skálázódásának mérése. Néhány rögzített állásban adott mélységig keres
+ * 1, 2, 4, ... szállal (a processzorok számáig), és szálszámonként kiírja az elért mélységet,
+ * a keresési időt, a csúcsszámot, a másodpercenkénti csúcsszámot (nps), valamint az egy szálhoz mért gyorsulást.
+ * Elemzéshez az állásonkénti késleltetés számít, ezért a gyorsulás a mélység eléréséig eltelt idők aránya.
+ * A transzpozíciós tábla minden mérés előtt törlődik. Végül kiírja az egy szálas keresés lépéssorrend statisztikáját
+ * az utolsó állásból (vágások mélységenként, és közülük hány történt az első lépésnél).
+ *
+ * Használat: java engine.SmpBenchmark [mélység] [max szálszám] [tábla MB]
+ */
+public class SmpBenchmark {
+
+    private static final int POSITIONS = 4; // A mért állások száma.
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int ttMb = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        List<BitBoard> positions = positions();
+        TranspositionTable tt = new TranspositionTable(ttMb);
+        System.out.println("depth " + depth + ", " + positions.size() + " positions, " + tt);
+        System.out.printf("%8s %6s %10s %14s %12s %8s%n", "threads", "depth", "time ms", "nodes", "nps", "speedup");
+
+        long baseTime = 0;
+        String ordering = "";
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            ParallelSearch search = new ParallelSearch(tt, threads);
+            long time = 0;
+            long nodes = 0;
+            int minDepth = Integer.MAX_VALUE;
+            for (BitBoard position : positions) {
+                tt.clear();
+                SearchResult result = search.search(position, depth, 0);
+                time += result.getTimeMillis();
+                nodes += result.getNodes();
+                minDepth = Math.min(minDepth, result.getDepth());
+            }
+            if (threads == 1) ordering = search.orderingStatistics();
+            search.shutdown();
+            if (threads == 1) baseTime = time;
+            System.out.printf("%8d %6d %10d %14d %12d %8.2f%n", threads, minDepth, time, nodes,
+                    nodes * 1000 / Math.max(1, time), (double) baseTime / Math.max(1, time));
+        }
+        System.out.print(ordering);
+    }
+
+    /**
+     * A következő mért szálszám: kettő hatványok, végül a maximális szálszám.
+     */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) return maxThreads + 1;
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    /**
+     * A kezdőállás, illetve rögzített kezdőértékű véletlen lépésekkel elért középjátéki állások.
+     */
+    private static List<BitBoard> positions() {
+        List<BitBoard> positions = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(POSITIONS);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        positions.add(BitBoard.initial());
+        while (positions.size() < POSITIONS) {
+            BitBoard position = BitBoard.initial();
+            int plies = 6 + 4 * positions.size();
+            for (int i = 0; i < plies && position.winner() == null; i++) {
+                int count = MoveGenerator.generateLegal(position, moves, captured);
+                if (count == 0) break;
+                int index = random.nextInt(count);
+                position.makeMove(moves[index], captured[index]);
+            }
+            if (position.winner() == null) {
+                positions.add(new BitBoard(position.getWhite(), position.getBlack(), position.getKings(), position.getSideToMove()));
+            }
+        }
+        return positions;
+    }
+}
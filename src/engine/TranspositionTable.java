@@ -0,0 +1,220 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rögzített méretű, zárolás nélküli transzpozíciós tábla a keresés számára.
+ * A bejegyzések egy előre lefoglalt long tömbben vannak, bejegyzésenként két long:
+ * az állás kulcsa XOR az adat, valamint maga az adat. Olvasáskor a kulcsot az adattal visszafejtve ellenőrzi,
+ * így ha két szál egyszerre írta ugyanazt a bejegyzést, az összekeveredett bejegyzés egyszerűen nem egyezik,
+ * és hiányként kezelődik. Ezért sem synchronized, sem ConcurrentHashMap nem szükséges, és nincs dobozolás.
+ * A tábla kétbejegyzéses vödrökből áll. Csere esetén a mélyebb keresésből származó bejegyzés marad meg,
+ * kivéve, ha egy korábbi keresésből származik.
+ *
+ * Az adat bitjei:
+ *  - 0-16. bit: a legjobb lépés (PackedMove),
+ *  - 17-32. bit: az érték (előjeles, 16 bit),
+ *  - 33-40. bit: a keresési mélység,
+ *  - 41-42. bit: a korlát típusa (EXACT, LOWER, UPPER),
+ *  - 43-50. bit: a keresés generációja.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1; // Pontos érték.
+    public static final int LOWER = 2; // Alsó korlát (béta vágás).
+    public static final int UPPER = 3; // Felső korlát (egyik lépés sem érte el az alfát).
+
+    private static final int ENTRY_LONGS = 2; // Egy bejegyzés mérete long-ban.
+    private static final int BUCKET_ENTRIES = 2; // Egy vödör bejegyzéseinek száma.
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Létrehozza a táblát a megadott méretben. A vödrök száma kettő hatvány, így a tényleges méret legfeljebb a megadott.
+     *
+     * @param sizeMb A tábla mérete megabájtban (legalább 1).
+     */
+    public TranspositionTable(int sizeMb) {
+        long bytes = Math.max(1, sizeMb) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (8L * ENTRY_LONGS * BUCKET_ENTRIES));
+        buckets = Math.min(buckets, 1L << 26);
+        table = new long[(int) buckets * ENTRY_LONGS * BUCKET_ENTRIES];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Megkeresi az állás bejegyzését.
+     *
+     * @param key Az állás Zobrist kulcsa.
+     * @return A bejegyzés adata, vagy 0, ha nincs ilyen bejegyzés.
+     */
+    public long probe(long key) {
+        probes.increment();
+        int base = bucketIndex(key);
+        boolean occupied = false;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + i * ENTRY_LONGS;
+            long check = table[slot];
+            long data = table[slot + 1];
+            if (data == 0) continue;
+            if ((check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+        if (occupied) collisions.increment();
+        return 0;
+    }
+
+    /**
+     * Elment egy bejegyzést. Ha az állás már szerepel a vödörben, azt frissíti (kivéve, ha a meglévő
+     * ugyanebből a keresésből, nagyobb mélységből származik és nem pontos az új érték).
+     * Egyébként a vödör kevésbé értékes bejegyzését írja felül: előbb a régebbi keresésből származót,
+     * majd a kisebb mélységűt.
+     *
+     * @param key Az állás Zobrist kulcsa.
+     * @param move A legjobb lépés, vagy 0.
+     * @param score Az érték (-32768..32767 közé szorítva).
+     * @param depth A keresési mélység (0-255).
+     * @param bound A korlát típusa (EXACT, LOWER, UPPER).
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        stores.increment();
+        int gen = generation;
+        int base = bucketIndex(key);
+        int replace = base;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + i * ENTRY_LONGS;
+            long data = table[slot + 1];
+            if (data == 0) {
+                if (replaceValue > Integer.MIN_VALUE) {
+                    replace = slot;
+                    replaceValue = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((table[slot] ^ data) == key) {
+                if (depth < depth(data) && bound != EXACT && generation(data) == gen) return;
+                if (move == 0) move = move(data);
+                replace = slot;
+                break;
+            }
+            int value = generation(data) == gen ? depth(data) : depth(data) - 256;
+            if (value < replaceValue) {
+                replace = slot;
+                replaceValue = value;
+            }
+        }
+        long data = pack(move, score, depth, bound, gen);
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) key & bucketMask) * ENTRY_LONGS * BUCKET_ENTRIES;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int gen) {
+        int clamped = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score));
+        return (move & 0x1FFFFL)
+                | ((clamped & 0xFFFFL) << 17)
+                | ((long) Math.min(depth, 255) << 33)
+                | ((long) bound << 41)
+                | ((long) (gen & 0xFF) << 43);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x1FFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 17);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 33) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 41) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 43) & 0xFF;
+    }
+
+    /**
+     * Új keresés kezdetét jelzi. A korábbi keresések bejegyzései ezután előbb cserélődnek.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Törli az összes bejegyzést és a számlálókat.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return probes.sum() - hits.sum();
+    }
+
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return A tábla bejegyzéseinek száma.
+     */
+    public int capacity() {
+        return table.length / ENTRY_LONGS;
+    }
+
+    /**
+     * Az első legfeljebb ezer bejegyzés alapján becsli a tábla telítettségét.
+     *
+     * @return A foglalt bejegyzések ezreléke.
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (table[i * ENTRY_LONGS + 1] != 0) used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    @Override
+    public String toString() {
+        return "TT " + (table.length * 8L / (1024 * 1024)) + " MB, probes " + getProbes() + ", hits " + getHits()
+                + ", misses " + getMisses() + ", collisions " + getCollisions() + ", hashfull " + hashfull() + "‰";
+    }
+}
@@ -0,0 +1,684 @@
+package logic;
+
+import pieces.Piece;
+import pieces.PieceColor;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Tömör állás reprezentáció a szabályok gyors kiértékeléséhez.
+ * A tábla 32 sötét mezőjét egy-egy bit jelöli, így egy állás három 32 bites maszkból
+ * (fehér bábuk, fekete bábuk, királynők) és a soron következő játékos színéből áll.
+ * A mezők sorszámozása: index = sor * 4 + oszlop / 2, vagyis a 0. sor sötét mezői a 0-3. bitek.
+ * A lépésgenerálás eltolásokkal és maszkokkal történik, a szabályok megegyeznek a GameLogic
+ * updateListOfNormalMoves és updateListOfCaptures metódusaiéval.
+ * Az állás Zobrist kulcsát (lásd Zobrist) minden módosítás növekményesen frissíti.
+ * Ha be van állítva bábu-mező érték táblázat (lásd engine.Evaluation), az állás értékét is a kulccsal együtt, növekményesen követi.
+ */
+public final class BitBoard implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int SQUARES = 32; // A sötét mezők száma.
+
+    static final int EVEN_ROWS = 0x0F0F0F0F; // A páros sorok (0, 2, 4, 6) mezői.
+    static final int ODD_ROWS = 0xF0F0F0F0; // A páratlan sorok (1, 3, 5, 7) mezői.
+    static final int LEFT_EDGE = 0x10101010; // A 0. oszlop mezői.
+    static final int RIGHT_EDGE = 0x08080808; // A 7. oszlop mezői.
+    public static final int WHITE_PROMOTION_ROW = 0x0000000F; // A 0. sor, itt promótálódik a fehér.
+    public static final int BLACK_PROMOTION_ROW = 0xF0000000; // A 7. sor, itt promótálódik a fekete.
+
+    public static final int UP_LEFT = 0, UP_RIGHT = 1, DOWN_LEFT = 2, DOWN_RIGHT = 3; // Az átlós irányok sorszámai.
+
+    /**
+     * Mezőnként és irányonként a szomszédos sötét mező sorszáma, vagy -1, ha az irányban véget ér a tábla.
+     */
+    static final int[][] NEIGHBOR = new int[4][SQUARES];
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int bit = 1 << sq;
+            NEIGHBOR[UP_LEFT][sq] = toSquare(upLeft(bit));
+            NEIGHBOR[UP_RIGHT][sq] = toSquare(upRight(bit));
+            NEIGHBOR[DOWN_LEFT][sq] = toSquare(downLeft(bit));
+            NEIGHBOR[DOWN_RIGHT][sq] = toSquare(downRight(bit));
+        }
+    }
+
+    int white; // A fehér bábuk maszkja.
+    int black; // A fekete bábuk maszkja.
+    int kings; // A királynők maszkja (színtől függetlenül).
+    PieceColor sideToMove; // A soron következő játékos színe.
+    long hash; // Az állás Zobrist kulcsa, minden módosításkor növekményesen frissül.
+    private transient int[][] pieceSquare; // Bábu típusonként (Zobrist) és mezőnként az érték fehér szemszögéből, vagy null.
+    private int pieceSquareScore; // A bábuk pieceSquare szerinti értékeinek összege, növekményesen frissül.
+
+    /**
+     * A visszavonható lépések vermének kezdeti mérete. Ha betelik, a verem kétszeresére nő.
+     */
+    public static final int UNDO_CAPACITY = 1024;
+
+    private int[] undoMoves; // A végrehajtott lépések (becsomagolt alakban).
+    private int[] undoCaptured; // Lépésenként a leütött bábuk maszkja.
+    private int[] undoCapturedKings; // Lépésenként a leütött királynők maszkja.
+    private long[] undoHashes; // Lépésenként a lépés előtti Zobrist kulcs.
+    private int[] undoScores; // Lépésenként a lépés előtti pieceSquareScore.
+    private int undoTop; // A verem tetejének indexe.
+
+    /**
+     * Üres állást hoz létre, amelyben a fehér következik.
+     */
+    public BitBoard() {
+        sideToMove = PieceColor.WHITE;
+    }
+
+    /**
+     * Állást hoz létre a kapott maszkokból.
+     *
+     * @param white A fehér bábuk maszkja.
+     * @param black A fekete bábuk maszkja.
+     * @param kings A királynők maszkja.
+     * @param sideToMove A soron következő játékos színe.
+     */
+    public BitBoard(int white, int black, int kings, PieceColor sideToMove) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings;
+        this.sideToMove = sideToMove;
+        rehash();
+    }
+
+    /**
+     * Átmásolja egy másik állás tartalmát ebbe az állásba, új objektum létrehozása nélkül.
+     *
+     * @param other A másolandó állás.
+     */
+    public void copyFrom(BitBoard other) {
+        white = other.white;
+        black = other.black;
+        kings = other.kings;
+        sideToMove = other.sideToMove;
+        hash = other.hash;
+        if (pieceSquare == other.pieceSquare) pieceSquareScore = other.pieceSquareScore;
+        else rescore();
+        undoTop = 0;
+    }
+
+    /**
+     * Beállítja az állást a kapott maszkokra, új objektum létrehozása nélkül. A visszavonási verem kiürül.
+     *
+     * @param white A fehér bábuk maszkja.
+     * @param black A fekete bábuk maszkja.
+     * @param kings A királynők maszkja.
+     * @param sideToMove A soron következő játékos színe.
+     */
+    public void set(int white, int black, int kings, PieceColor sideToMove) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings;
+        this.sideToMove = sideToMove;
+        undoTop = 0;
+        rehash();
+    }
+
+    /**
+     * A bábuk 2D tömbjéből állítja elő a tömör állást.
+     *
+     * @param pieces A tábla bábujainak 2D tömbje.
+     * @param sideToMove A soron következő játékos színe.
+     * @return Az új állás.
+     */
+    public static BitBoard fromPieces(Piece[][] pieces, PieceColor sideToMove) {
+        BitBoard position = new BitBoard();
+        position.sideToMove = sideToMove;
+        for (int r = 0; r < pieces.length; r++) {
+            for (int c = 0; c < pieces[r].length; c++) {
+                Piece p = pieces[r][c];
+                if (p == null || !isDarkSquare(r, c)) continue;
+                int bit = 1 << square(r, c);
+                if (p.getColor() == PieceColor.WHITE) position.white |= bit;
+                else position.black |= bit;
+                if (p.isKing()) position.kings |= bit;
+            }
+        }
+        position.rehash();
+        return position;
+    }
+
+    /**
+     * Visszaalakítja az állást a tábla által használt 2D bábu tömbbé, a megosztott bábu példányokkal.
+     *
+     * @return A bábuk 2D tömbje.
+     */
+    public Piece[][] toPieces() {
+        Piece[][] pieces = new Piece[8][8];
+        int occupied = white | black;
+        while (occupied != 0) {
+            int sq = Integer.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            PieceColor color = (white & (1 << sq)) != 0 ? PieceColor.WHITE : PieceColor.BLACK;
+            pieces[rowOf(sq)][colOf(sq)] = Piece.of(color, (kings & (1 << sq)) != 0);
+        }
+        return pieces;
+    }
+
+    /**
+     * @param row A tábla sora.
+     * @param col A tábla oszlopa.
+     * @return Igaz, ha a mező sötét, vagyis állhat rajta bábu.
+     */
+    public static boolean isDarkSquare(int row, int col) {
+        return (row + col) % 2 == 1;
+    }
+
+    /**
+     * @param row A tábla sora.
+     * @param col A tábla oszlopa (sötét mező).
+     * @return A mező sorszáma (0-31).
+     */
+    public static int square(int row, int col) {
+        return row * 4 + col / 2;
+    }
+
+    public static int rowOf(int square) {
+        return square >>> 2;
+    }
+
+    public static int colOf(int square) {
+        return (square & 3) * 2 + ((square >>> 2) & 1 ^ 1);
+    }
+
+    // Egy maszk összes bitjének eltolása a négy átlós irányba. A táblán kívülre eső bitek elvesznek.
+
+    static int upLeft(int b) {
+        return ((b & EVEN_ROWS) >>> 4) | ((b & ODD_ROWS & ~LEFT_EDGE) >>> 5);
+    }
+
+    static int upRight(int b) {
+        return ((b & EVEN_ROWS & ~RIGHT_EDGE) >>> 3) | ((b & ODD_ROWS) >>> 4);
+    }
+
+    static int downLeft(int b) {
+        return ((b & EVEN_ROWS) << 4) | ((b & ODD_ROWS & ~LEFT_EDGE) << 3);
+    }
+
+    static int downRight(int b) {
+        return ((b & EVEN_ROWS & ~RIGHT_EDGE) << 5) | ((b & ODD_ROWS) << 4);
+    }
+
+    /**
+     * Egy adott irányba eltolja a maszkot.
+     *
+     * @param b A maszk.
+     * @param direction Az irány (UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT).
+     * @return Az eltolt maszk.
+     */
+    static int shift(int b, int direction) {
+        return switch (direction) {
+            case UP_LEFT -> upLeft(b);
+            case UP_RIGHT -> upRight(b);
+            case DOWN_LEFT -> downLeft(b);
+            default -> downRight(b);
+        };
+    }
+
+    private static int toSquare(int bit) {
+        return bit == 0 ? -1 : Integer.numberOfTrailingZeros(bit);
+    }
+
+    /**
+     * @param square A kiinduló mező.
+     * @param direction Az irány.
+     * @return A szomszédos mező sorszáma az adott irányban, vagy -1, ha nincs ilyen.
+     */
+    public static int neighbor(int square, int direction) {
+        return NEIGHBOR[direction][square];
+    }
+
+    // Az előző négy függvény inverze: a célmezőkből visszaadja a kiinduló mezőket.
+
+    static int fromUpLeft(int b) {
+        return downRight(b);
+    }
+
+    static int fromUpRight(int b) {
+        return downLeft(b);
+    }
+
+    static int fromDownLeft(int b) {
+        return upRight(b);
+    }
+
+    static int fromDownRight(int b) {
+        return upLeft(b);
+    }
+
+    public int getWhite() {
+        return white;
+    }
+
+    public int getBlack() {
+        return black;
+    }
+
+    public int getKings() {
+        return kings;
+    }
+
+    /**
+     * @return Az állás 64 bites Zobrist kulcsa.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * A Zobrist kulcs teljes újraszámolása, a maszkok közvetlen beállítása után.
+     */
+    void rehash() {
+        hash = Zobrist.hash(white, black, kings, sideToMove);
+        rescore();
+    }
+
+    /**
+     * Beállítja a bábu-mező érték táblázatot, és újraszámolja vele az állás értékét.
+     * Ezután minden módosítás (makeMove, unmakeMove, put, remove) növekményesen frissíti az értéket.
+     *
+     * @param pieceSquare Bábu típusonként (Zobrist.pieceType) 32 érték fehér szemszögéből, vagy null.
+     */
+    public void setPieceSquareTable(int[][] pieceSquare) {
+        this.pieceSquare = pieceSquare;
+        rescore();
+    }
+
+    /**
+     * @return A bábuk bábu-mező táblázat szerinti értékeinek összege fehér szemszögéből (0, ha nincs táblázat).
+     */
+    public int getPieceSquareScore() {
+        return pieceSquareScore;
+    }
+
+    /**
+     * Az érték teljes újraszámolása a táblázatból.
+     */
+    private void rescore() {
+        pieceSquareScore = 0;
+        if (pieceSquare == null) return;
+        for (int m = white | black; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            pieceSquareScore += pieceSquare[Zobrist.pieceType((white >>> sq & 1) != 0 ? PieceColor.WHITE : PieceColor.BLACK,
+                    (kings >>> sq & 1) != 0)][sq];
+        }
+    }
+
+    public int getEmpty() {
+        return ~(white | black);
+    }
+
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(PieceColor sideToMove) {
+        hash ^= Zobrist.sideKey(this.sideToMove) ^ Zobrist.sideKey(sideToMove);
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * Bábut helyez egy mezőre. Ha a mezőn már állt bábu, azt felülírja.
+     *
+     * @param square A mező sorszáma.
+     * @param color A bábu színe.
+     * @param king Igaz, ha a bábu királynő.
+     */
+    public void put(int square, PieceColor color, boolean king) {
+        remove(square);
+        int bit = 1 << square;
+        if (color == PieceColor.WHITE) white |= bit;
+        else black |= bit;
+        if (king) kings |= bit;
+        hash ^= Zobrist.pieceKey(Zobrist.pieceType(color, king), square);
+        if (pieceSquare != null) pieceSquareScore += pieceSquare[Zobrist.pieceType(color, king)][square];
+    }
+
+    /**
+     * Eltávolítja a bábut egy mezőről (ha volt rajta).
+     *
+     * @param square A mező sorszáma.
+     */
+    public void remove(int square) {
+        int bit = 1 << square;
+        if (((white | black) & bit) != 0) {
+            int type = Zobrist.pieceType((white & bit) != 0 ? PieceColor.WHITE : PieceColor.BLACK, (kings & bit) != 0);
+            hash ^= Zobrist.pieceKey(type, square);
+            if (pieceSquare != null) pieceSquareScore -= pieceSquare[type][square];
+        }
+        int mask = ~bit;
+        white &= mask;
+        black &= mask;
+        kings &= mask;
+    }
+
+    /**
+     * Eltávolítja az összes bábut.
+     */
+    public void clear() {
+        white = 0;
+        black = 0;
+        kings = 0;
+        hash = Zobrist.sideKey(sideToMove);
+        pieceSquareScore = 0;
+    }
+
+    /**
+     * @param color A játékos színe.
+     * @return Az adott színű bábuk száma.
+     */
+    public int count(PieceColor color) {
+        return Integer.bitCount(piecesOf(color));
+    }
+
+    /**
+     * @param color A játékos színe.
+     * @return Az adott színű bábuk maszkja.
+     */
+    public int piecesOf(PieceColor color) {
+        return color == PieceColor.WHITE ? white : black;
+    }
+
+    /**
+     * Az adott színű bábuk közül azok maszkja, amelyek tudnak normál lépést tenni.
+     * A fehér normál bábuk felfelé, a feketék lefelé, a királynők mindkét irányba léphetnek.
+     *
+     * @param color A játékos színe.
+     * @return A lépni tudó bábuk maszkja.
+     */
+    public int movers(PieceColor color) {
+        int empty = getEmpty();
+        int own = piecesOf(color);
+        int up = color == PieceColor.WHITE ? own : own & kings;
+        int down = color == PieceColor.BLACK ? own : own & kings;
+        return (up & (fromUpLeft(empty) | fromUpRight(empty)))
+                | (down & (fromDownLeft(empty) | fromDownRight(empty)));
+    }
+
+    /**
+     * Az adott színű bábuk közül azok maszkja, amelyek tudnak ütni.
+     * Az ütéshez a szomszédos átlós mezőn ellenfél bábu, mögötte pedig üres mező szükséges.
+     *
+     * @param color A játékos színe.
+     * @return Az ütni tudó bábuk maszkja.
+     */
+    public int jumpers(PieceColor color) {
+        int empty = getEmpty();
+        int own = piecesOf(color);
+        int opponent = color == PieceColor.WHITE ? black : white;
+        int up = color == PieceColor.WHITE ? own : own & kings;
+        int down = color == PieceColor.BLACK ? own : own & kings;
+        return (up & (fromUpLeft(fromUpLeft(empty) & opponent) | fromUpRight(fromUpRight(empty) & opponent)))
+                | (down & (fromDownLeft(fromDownLeft(empty) & opponent) | fromDownRight(fromDownRight(empty) & opponent)));
+    }
+
+    /**
+     * @param color A játékos színe.
+     * @return Igaz, ha az adott színnek van legalább egy normál lépése vagy ütése.
+     */
+    public boolean hasMoves(PieceColor color) {
+        return (movers(color) | jumpers(color)) != 0;
+    }
+
+    /**
+     * Megállapítja, hogy véget ért-e a játék, a GameLogic.checkGameOver szabálya szerint:
+     * ha a feketének nincs lépése, a fehér nyert, egyébként ha a fehérnek nincs lépése, a fekete nyert.
+     * A vizsgálat a soron következő játékostól független.
+     *
+     * @return A győztes színe, vagy null, ha a játék még nem ért véget.
+     */
+    public PieceColor winner() {
+        if (!hasMoves(PieceColor.BLACK)) return PieceColor.WHITE;
+        if (!hasMoves(PieceColor.WHITE)) return PieceColor.BLACK;
+        return null;
+    }
+
+    /**
+     * Egy mezőn álló bábu normál lépéseinek célmezői, a GameLogic.updateListOfNormalMoves szabályai szerint.
+     * Ha a mező üres, vagy nem a soron következő játékos bábuja áll rajta, üres maszkot ad vissza.
+     *
+     * @param square A bábu mezője.
+     * @return A célmezők maszkja.
+     */
+    public int normalMoveTargets(int square) {
+        int bit = 1 << square;
+        if ((piecesOf(sideToMove) & bit) == 0) return 0;
+        int targets = 0;
+        if (sideToMove == PieceColor.WHITE || (kings & bit) != 0) targets |= upLeft(bit) | upRight(bit);
+        if (sideToMove == PieceColor.BLACK || (kings & bit) != 0) targets |= downLeft(bit) | downRight(bit);
+        return targets & getEmpty();
+    }
+
+    /**
+     * Egy mezőn álló bábu ütéseinek célmezői, a GameLogic.updateListOfCaptures szabályai szerint.
+     * Ha a mező üres, vagy nem a soron következő játékos bábuja áll rajta, üres maszkot ad vissza.
+     *
+     * @param square A bábu mezője.
+     * @return A célmezők maszkja.
+     */
+    public int captureTargets(int square) {
+        int bit = 1 << square;
+        if ((piecesOf(sideToMove) & bit) == 0) return 0;
+        int opponent = sideToMove == PieceColor.WHITE ? black : white;
+        int empty = getEmpty();
+        int targets = 0;
+        if (sideToMove == PieceColor.WHITE || (kings & bit) != 0) {
+            targets |= upLeft(upLeft(bit) & opponent) | upRight(upRight(bit) & opponent);
+        }
+        if (sideToMove == PieceColor.BLACK || (kings & bit) != 0) {
+            targets |= downLeft(downLeft(bit) & opponent) | downRight(downRight(bit) & opponent);
+        }
+        return targets & empty;
+    }
+
+    /**
+     * Egy ütés során átugrott mező sorszáma.
+     *
+     * @param from Az ütő bábu mezője.
+     * @param to Az ütés célmezője.
+     * @return A leütött bábu mezője.
+     */
+    public static int jumpedSquare(int from, int to) {
+        return square((rowOf(from) + rowOf(to)) / 2, (colOf(from) + colOf(to)) / 2);
+    }
+
+    /**
+     * Végrehajt egy MoveGenerator által előállított lépést, és elmenti a visszavonásához szükséges adatokat.
+     * Ütés esetén a leütött bábu a lépésben tárolt mezőről kerül le. Promótálás esetén a királynő maszk
+     * egy bitje változik, új objektum nem jön létre. A lépés után a másik játékos következik.
+     *
+     * @param move A becsomagolt lépés.
+     */
+    public void makeMove(int move) {
+        makeMove(move, PackedMove.isCapture(move) ? 1 << PackedMove.captured(move) : 0);
+    }
+
+    /**
+     * Végrehajt egy lépést, amelyben a leütött bábuk mezőit külön maszk adja meg.
+     * A visszavonáshoz szükséges adatok az előre lefoglalt verembe kerülnek, így a végrehajtás csak a verem betelésekor foglal memóriát.
+     *
+     * @param move A becsomagolt lépés (kiinduló mező, célmező, promótálás jelző).
+     * @param capturedSet A leütött bábuk mezőinek maszkja.
+     */
+    public void makeMove(int move, int capturedSet) {
+        if (undoMoves == null || undoTop == undoMoves.length) growUndo();
+        undoMoves[undoTop] = move;
+        undoCaptured[undoTop] = capturedSet;
+        undoCapturedKings[undoTop] = capturedSet & kings;
+        undoHashes[undoTop] = hash;
+        undoScores[undoTop] = pieceSquareScore;
+        undoTop++;
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        int moveMask = fromBit ^ toBit; // Körbe ütő királynőnél a kiinduló és célmező azonos lehet.
+
+        PieceColor opponent = sideToMove == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        boolean king = (kings & fromBit) != 0;
+        hash ^= Zobrist.pieceKey(Zobrist.pieceType(sideToMove, king), from)
+                ^ Zobrist.pieceKey(Zobrist.pieceType(sideToMove, king || PackedMove.isPromotion(move)), to)
+                ^ Zobrist.maskKey(Zobrist.pieceType(opponent, false), capturedSet & ~kings)
+                ^ Zobrist.maskKey(Zobrist.pieceType(opponent, true), capturedSet & kings)
+                ^ Zobrist.sideKey(PieceColor.BLACK);
+        if (pieceSquare != null) {
+            int type = Zobrist.pieceType(sideToMove, king);
+            int opponentMan = Zobrist.pieceType(opponent, false);
+            pieceSquareScore += pieceSquare[PackedMove.isPromotion(move) && !king ? type + 1 : type][to] - pieceSquare[type][from];
+            for (int m = capturedSet; m != 0; m &= m - 1) {
+                int sq = Integer.numberOfTrailingZeros(m);
+                pieceSquareScore -= pieceSquare[opponentMan + (kings >>> sq & 1)][sq];
+            }
+        }
+
+        if (sideToMove == PieceColor.WHITE) {
+            white ^= moveMask;
+            black &= ~capturedSet;
+        } else {
+            black ^= moveMask;
+            white &= ~capturedSet;
+        }
+        kings &= ~capturedSet;
+        if (king) kings ^= moveMask;
+        else if (PackedMove.isPromotion(move)) kings |= toBit;
+        sideToMove = opponent;
+    }
+
+    /**
+     * Létrehozza, vagy kétszeresére növeli a visszavonási vermet.
+     */
+    private void growUndo() {
+        int capacity = undoMoves == null ? UNDO_CAPACITY : undoMoves.length * 2;
+        if (undoMoves == null) {
+            undoMoves = new int[capacity];
+            undoCaptured = new int[capacity];
+            undoCapturedKings = new int[capacity];
+            undoHashes = new long[capacity];
+            undoScores = new int[capacity];
+        } else {
+            undoMoves = Arrays.copyOf(undoMoves, capacity);
+            undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+            undoCapturedKings = Arrays.copyOf(undoCapturedKings, capacity);
+            undoHashes = Arrays.copyOf(undoHashes, capacity);
+            undoScores = Arrays.copyOf(undoScores, capacity);
+        }
+    }
+
+    /**
+     * Visszavonja az utolsó makeMove hívást. Konstans idejű, memóriát nem foglal.
+     *
+     * @throws IllegalStateException Ha nincs visszavonható lépés.
+     */
+    public void unmakeMove() {
+        if (undoTop == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        undoTop--;
+        int move = undoMoves[undoTop];
+        int capturedSet = undoCaptured[undoTop];
+        int fromBit = 1 << PackedMove.from(move);
+        int toBit = 1 << PackedMove.to(move);
+        int moveMask = fromBit ^ toBit; // Körbe ütő királynőnél a kiinduló és célmező azonos lehet.
+        sideToMove = sideToMove == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+
+        if (PackedMove.isPromotion(move)) kings &= ~toBit;
+        else if ((kings & toBit) != 0) kings ^= moveMask;
+        if (sideToMove == PieceColor.WHITE) {
+            white ^= moveMask;
+            black |= capturedSet;
+        } else {
+            black ^= moveMask;
+            white |= capturedSet;
+        }
+        kings |= undoCapturedKings[undoTop];
+        hash = undoHashes[undoTop];
+        pieceSquareScore = undoScores[undoTop];
+    }
+
+    /**
+     * @return A visszavonható lépések száma.
+     */
+    public int getUndoDepth() {
+        return undoTop;
+    }
+
+    /**
+     * Az állás szöveges alakja: a 32 mező sorban ('w', 'b' normál, 'W', 'B' királynő, '.' üres),
+     * majd egy szóköz után a soron következő játékos ('w' vagy 'b').
+     *
+     * @return Az állás szöveges alakja.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(SQUARES + 2);
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int bit = 1 << sq;
+            char c = (white & bit) != 0 ? 'w' : (black & bit) != 0 ? 'b' : '.';
+            if ((kings & bit) != 0) c = Character.toUpperCase(c);
+            sb.append(c);
+        }
+        return sb.append(' ').append(sideToMove == PieceColor.WHITE ? 'w' : 'b').toString();
+    }
+
+    /**
+     * A toString által előállított szöveges alakból hoz létre állást.
+     *
+     * @param text Az állás szöveges alakja.
+     * @return Az új állás.
+     * @throws IllegalArgumentException Ha a szöveg formátuma hibás.
+     */
+    public static BitBoard parse(String text) {
+        String s = text.trim();
+        if (s.length() != SQUARES + 2 || s.charAt(SQUARES) != ' ') {
+            throw new IllegalArgumentException("Invalid position: " + text);
+        }
+        BitBoard position = new BitBoard();
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int bit = 1 << sq;
+            switch (s.charAt(sq)) {
+                case 'w' -> position.white |= bit;
+                case 'b' -> position.black |= bit;
+                case 'W' -> { position.white |= bit; position.kings |= bit; }
+                case 'B' -> { position.black |= bit; position.kings |= bit; }
+                case '.' -> {}
+                default -> throw new IllegalArgumentException("Invalid position: " + text);
+            }
+        }
+        switch (s.charAt(SQUARES + 1)) {
+            case 'w' -> position.sideToMove = PieceColor.WHITE;
+            case 'b' -> position.sideToMove = PieceColor.BLACK;
+            default -> throw new IllegalArgumentException("Invalid position: " + text);
+        }
+        position.rehash();
+        return position;
+    }
+
+    /**
+     * A kezdőállás: az első 3 sorban feketék, az utolsó 3 sorban fehérek, a fehér kezd.
+     * Megegyezik a Board.initBoard által felállított állással.
+     *
+     * @return A kezdőállás.
+     */
+    public static BitBoard initial() {
+        return new BitBoard(0xFFF00000, 0x00000FFF, 0, PieceColor.WHITE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BitBoard other)) return false;
+        return white == other.white && black == other.black && kings == other.kings && sideToMove == other.sideToMove;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+}
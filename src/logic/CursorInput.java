@@ -2,29 +2,32 @@ package logic;
 
 import board.Board;
 import pieces.Piece;
+import players.ComputerPlayer;
 
+import javax.swing.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 
 /**
- * A egérrel való bemenetet kezeli. A bemenet alapján hívja meg a board és gameLogic objektumjainak megfelelő metódusait.
+ * A egérrel való bemenetet kezeli. A bemenet alapján hívja meg a board megfelelő metódusait.
  */
 public class CursorInput implements MouseListener, MouseMotionListener {
 
     private Board board; // A tábla.
-    private GameLogic gameLogic; // A játékhoz használt logika.
 
-    public CursorInput(Board b, GameLogic g) {
+    private boolean dragPending; // Igaz, ha van még át nem adott húzás pozíció
+    private int pendingX, pendingY; // A legutolsó, még át nem adott húzás pozíció
+
+    public CursorInput(Board b) {
         board = b;
-        gameLogic = g;
     }
 
     /**
      * A kapott event alapján, a kurzor pozíciója alapján megállapítja azt a bábut amelyre rányomott a felhasználó.
      * Ha van már kiválasztott bábu, akkor nem csinál semmit. Ez azért szükséges, hogy ütéskényszer esetén csak az ütő bábuval lehessen lépni.
-     * Ha a játék már végetért, szintén nem csinál semmit.
-     * Ha nincs még kiválasztott bábu, akkor beállítja az éppen választott bábut annak.
+     * Ha a játék már végetért, vagy a számítógépes játékos következik, szintén nem csinál semmit.
+     * Ha nincs még kiválasztott bábu, akkor beállítja az éppen választott bábut annak, és újrarajzolja a táblát a lehetséges lépésekkel.
      *
      * @param e Az event.
      */
@@ -34,28 +37,43 @@ public class CursorInput implements MouseListener, MouseMotionListener {
         int row = e.getY() / board.getRowandcolsize();
         Piece pressedPiece = board.getPieces()[row][col];
 
-        if (board.getSelectedPiece() != null || board.isGameWon()) {
+        if (board.getSelectedPiece() != null || board.isGameWon() || isComputerTurn()) {
             return;
         }
 
         if (pressedPiece != null) {
-            board.setSelectedPiece(pressedPiece);
+            board.select(row, col);
+            board.repaint(); // A lehetséges lépések kiemelése.
         }
     }
 
     /**
-     * A kurzor lenyomott mozgatása esetén ha van kiválasztott bábu, akkor mindig a kurzorhoz mozgatja.
-     * Az x és y pozíciókból azért vonja ki a mező méretének a felét, hogy a kurzor pont a bábu közepére mutasson.
-     * Minden mozgatás esetén újrarajzolja a táblát.
+     * A kurzor lenyomott mozgatása esetén ha van kiválasztott bábu, akkor a húzási pozícióját a kurzorhoz igazítja.
+     * A bábu maga nem tárol pozíciót, a húzás helyét a tábla tartja nyilván. Az x és y pozíciókból azért vonja ki a mező méretének a felét, hogy a kurzor pont a bábu közepére mutasson.
+     * Az egymás után érkező húzás eseményeket összevonja: csak a legutolsó pozíciót jegyzi meg, és egyetlen, az eseménysor végére
+     * ütemezett frissítés viszi át a táblára, amely csak a bábu régi és új helyét rajzolja újra.
      *
      * @param e Az event.
      */
     @Override
     public void mouseDragged(MouseEvent e) {
+        if (board.getSelectedPiece() == null) return;
+        pendingX = e.getX() - board.getRowandcolsize() / 2;
+        pendingY = e.getY() - board.getRowandcolsize() / 2;
+        if (!dragPending) {
+            dragPending = true;
+            SwingUtilities.invokeLater(this::applyDrag);
+        }
+    }
+
+    /**
+     * A legutolsó húzás pozíciót átadja a táblának. Ha közben a bábut elengedték, a pozíció elavult, nem csinál semmit.
+     */
+    private void applyDrag() {
+        if (!dragPending) return;
+        dragPending = false;
         if (board.getSelectedPiece() != null) {
-            board.getSelectedPiece().setxPos(e.getX() - board.getRowandcolsize() / 2);
-            board.getSelectedPiece().setyPos(e.getY() - board.getRowandcolsize() / 2);
-            board.repaint();
+            board.setDragPosition(pendingX, pendingY);
         }
     }
 
@@ -63,7 +81,7 @@ public class CursorInput implements MouseListener, MouseMotionListener {
      * A kurzor felengedése esetén több lehetséges kimenetel van.
      * Először a kurzor pozíciójából megszerzi az aktuális sort és oszlopot.
      * Ha a kiválasztott elem nem null, ellenőrzi, hogy a kiválasztott elemhez képest milyen lépés az aktuális sor és oszlopba.
-     * Ezzel tér vissza az isValidMove.
+     * Ezzel tér vissza a validateMove, a játszma állapotának (GameState) szabályai szerint.
      * Ha normál lépés, akkor azt elvégzi, és a kiválasztott elemet null-ra állítja.
      * Ha ütés, akkor elvégzi az ütést, viszont csak akkor állítja vissza a kiválasztott elemet, ha nincs több ütés.
      * Ha nem szabályos lépés, akkor visszaállítja a kiválasztott elem pozícióját. Null-ra viszont csak akkor állítja, ha már nincs több ütés.
@@ -75,25 +93,28 @@ public class CursorInput implements MouseListener, MouseMotionListener {
     public void mouseReleased(MouseEvent e) {
         int col = e.getX() / board.getRowandcolsize();
         int row = e.getY() / board.getRowandcolsize();
+        dragPending = false; // Az elengedés előtti, még át nem adott húzás már nem számít.
 
         if (board.getSelectedPiece() != null) {
-            switch (gameLogic.isValidMove(board, board.getSelectedPiece(), row, col)) {
+            int fromRow = board.getSelectedRow();
+            int fromCol = board.getSelectedCol();
+            switch (board.validateMove(fromRow, fromCol, row, col)) {
                 case NormalMove -> {
-                    board.makeMove(board.getSelectedPiece(), row, col);
-                    board.setSelectedPiece(null);
+                    board.makeMove(fromRow, fromCol, row, col);
+                    board.clearSelection();
                 }
                 case CaptureMove -> {
-                    board.makeCapture(board.getSelectedPiece(), row, col);
+                    board.makeCapture(fromRow, fromCol, row, col);
 
                     if (board.getCaptures().isEmpty()) {
-                        board.setSelectedPiece(null);
+                        board.clearSelection();
                         board.setCaptureLock(false);
                     }
                 }
                 case IllegalMove -> {
                     board.resetSelectedPiecePos();
                     if (!board.getCaptureLock()) {
-                        board.setSelectedPiece(null);
+                        board.clearSelection();
                     }
                 }
             }
@@ -118,4 +139,11 @@ public class CursorInput implements MouseListener, MouseMotionListener {
 
     @Override
     public void mouseMoved(MouseEvent e) {}
+
+    /**
+     * @return Igaz, ha a soron következő játékos számítógépes játékos.
+     */
+    private boolean isComputerTurn() {
+        return board.getOutputArea() != null && board.getOutputArea().getCurrentPlayer() instanceof ComputerPlayer;
+    }
 }
@@ -4,7 +4,7 @@ import board.Board;
 import main.BoardOutput;
 import pieces.Piece;
 import pieces.PieceColor;
-import pieces.QueenPiece;
+import tablebase.TablebaseProbe;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -16,23 +16,36 @@ import java.util.List;
  */
 public class GameLogic implements Serializable {
 
+    private transient TablebaseProbe tablebase; // A végjáték táblák, vagy null.
+
     public GameLogic() {}
 
+    /**
+     * Beállítja a játék végének ellenőrzéséhez használt végjáték táblákat.
+     * @param tablebase A táblák, vagy null.
+     */
+    public void setTablebase(TablebaseProbe tablebase) {
+        this.tablebase = tablebase;
+    }
+
     /**
      * Ellenőrzi, hogy egy adott bábuval végrehajtott lépés érvényes-e.
      * Ehhez az updateListOf... metódusok által visszaadott listákat használja..
      * A lépés típusát enumként adja vissza: normál lépés, ütés vagy szabálytalan lépés.
      * Ha a játék már véget ért, minden lépés érvénytelen.
+     * A lépéseket minden híváskor a bábu tömbből generálja; a felület a GameState.validate metódusát használja,
+     * amely a lépő fél célmezőit állásonként egyszer számolja ki.
      *
      * @param board A játék táblája.
-     * @param p A kiválasztott bábu.
+     * @param fromRow A kiválasztott bábu sora.
+     * @param fromCol A kiválasztott bábu oszlopa.
      * @param r A célsor.
      * @param c A céloszlop.
      * @return A lépés típusa (MoveType).
      */
-    public MoveType isValidMove(Board board, Piece p, int r, int c) {
-        List<Move> listOfMoves = updateListOfNormalMoves(board.getPieces(), p, board.getCurrentPlayer());
-        List<Capture> listOfCaptures = updateListOfCaptures(board.getPieces(), p, board.getCurrentPlayer());
+    public MoveType isValidMove(Board board, int fromRow, int fromCol, int r, int c) {
+        List<Move> listOfMoves = updateListOfNormalMoves(board.getPieces(), fromRow, fromCol, board.getCurrentPlayer());
+        List<Capture> listOfCaptures = updateListOfCaptures(board.getPieces(), fromRow, fromCol, board.getCurrentPlayer());
         for (Move m : listOfMoves) {
             if (m.getRow() == r && m.getCol() == c) return MoveType.NormalMove;
         }
@@ -43,28 +56,27 @@ public class GameLogic implements Serializable {
     }
 
     /**
-     * Frissíti a kiválasztott bábuhoz tartozó lehetséges normál lépések listáját.
-     * Ha a kiválasztott bábu null vagy a színe nem egyezik meg a jelenlegi játékossal, akkor üres listát ad vissza.
+     * Frissíti a kiválasztott mezőn álló bábuhoz tartozó lehetséges normál lépések listáját.
+     * Ha a mező üres vagy a színe nem egyezik meg a jelenlegi játékossal, akkor üres listát ad vissza.
      * Ha a jelenlegi játékos fehér bábuval van, akkor felfelé, ha feketével, akkor lefelé átlós lépések engedélyezettek.
      * Ha királynő az adott bábu, akkor fel és lefele átlós lépések is.
      * Továbbá az is szükséges, hogy a célmezőben ne szerepeljen bábu.
      *
      * @param pieces A tábla bábujainak 2D tömbje.
-     * @param selectedPiece A jelenleg kiválasztott bábu.
+     * @param row A kiválasztott bábu sora.
+     * @param col A kiválasztott bábu oszlopa.
      * @param currentPlayer Az aktuális játékos színe.
      * @return A lehetséges normál lépések listája.
      */
-    public List<Move> updateListOfNormalMoves(Piece[][] pieces, Piece selectedPiece, PieceColor currentPlayer) {
+    public List<Move> updateListOfNormalMoves(Piece[][] pieces, int row, int col, PieceColor currentPlayer) {
         List<Move> listOfMoves = new ArrayList<Move>();
 
+        Piece selectedPiece = pieces[row][col];
         if (selectedPiece == null || selectedPiece.getColor() != currentPlayer) {
             return listOfMoves;
         }
 
-        int row = selectedPiece.getRow();
-        int col = selectedPiece.getCol();
-
-        if (selectedPiece.getColor() == PieceColor.WHITE || selectedPiece instanceof QueenPiece) {
+        if (selectedPiece.getColor() == PieceColor.WHITE || selectedPiece.isKing()) {
             // Bal felső átlós lépés
             if (row - 1 >= 0 && col - 1 >= 0 && pieces[row - 1][col - 1] == null) {
                 listOfMoves.add(new Move(row - 1, col - 1));
@@ -75,7 +87,7 @@ public class GameLogic implements Serializable {
             }
         }
 
-        if (selectedPiece.getColor() == PieceColor.BLACK || selectedPiece instanceof QueenPiece) {
+        if (selectedPiece.getColor() == PieceColor.BLACK || selectedPiece.isKing()) {
             // Bal alsó átlós lépés
             if (row + 1 < 8 && col - 1 >= 0 && pieces[row + 1][col - 1] == null) {
                 listOfMoves.add(new Move(row + 1, col - 1));
@@ -89,28 +101,27 @@ public class GameLogic implements Serializable {
     }
 
     /**
-     * Frissíti a kiválasztott bábuhoz tartozó lehetséges ütési lépések listáját.
-     * Ha a kiválasztott bábu null vagy a színe nem egyezik meg a jelenlegi játékossal, akkor üres listát ad vissza.
+     * Frissíti a kiválasztott mezőn álló bábuhoz tartozó lehetséges ütési lépések listáját.
+     * Ha a mező üres vagy a színe nem egyezik meg a jelenlegi játékossal, akkor üres listát ad vissza.
      * Ha a jelenlegi játékos fehér bábuval van, akkor felfelé, ha feketével, akkor lefelé átlós ütések engedélyezettek.
      * Ha királynő az adott bábu, akkor fel és lefele átlós ütések is.
      * Az ütéshez szükséges, hogy a célmező üres legyen, és az útban lévő bábu ellenkező színű legyen.
      *
      * @param pieces A tábla bábujainak 2D tömbje.
-     * @param selectedPiece A jelenleg kiválasztott bábu.
+     * @param row A kiválasztott bábu sora.
+     * @param col A kiválasztott bábu oszlopa.
      * @param currentPlayer Az aktuális játékos színe.
      * @return A lehetséges ütési lépések listája.
      */
-    public List<Capture> updateListOfCaptures(Piece[][] pieces, Piece selectedPiece, PieceColor currentPlayer) {
+    public List<Capture> updateListOfCaptures(Piece[][] pieces, int row, int col, PieceColor currentPlayer) {
         List<Capture> listOfCaptures = new ArrayList<>();
 
+        Piece selectedPiece = pieces[row][col];
         if (selectedPiece == null || selectedPiece.getColor() != currentPlayer) {
             return listOfCaptures;
         }
 
-        int row = selectedPiece.getRow();
-        int col = selectedPiece.getCol();
-
-        if (selectedPiece.getColor() == PieceColor.WHITE || selectedPiece instanceof QueenPiece) {
+        if (selectedPiece.getColor() == PieceColor.WHITE || selectedPiece.isKing()) {
             // Bal felső átlós ütés
             if (row - 2 >= 0 && col - 2 >= 0 && pieces[row - 1][col - 1] != null
                     && pieces[row - 1][col - 1].getColor() != currentPlayer
@@ -125,7 +136,7 @@ public class GameLogic implements Serializable {
             }
         }
 
-        if (selectedPiece.getColor() == PieceColor.BLACK || selectedPiece instanceof QueenPiece) {
+        if (selectedPiece.getColor() == PieceColor.BLACK || selectedPiece.isKing()) {
             // Balra alsó átlós ütés
             if (row + 2 < 8 && col - 2 >= 0 && pieces[row + 1][col - 1] != null
                     && pieces[row + 1][col - 1].getColor() != currentPlayer
@@ -145,48 +156,39 @@ public class GameLogic implements Serializable {
 
     /**
      * Ellenőrzi, hogy a játék véget ért-e.
-     * Ehhez végig megy az összes bábun, amelyet kiválasztottnak állít be, és ez alapján frissíti a normál lépések és ütések listáját.
-     * A fehér és fekete bábukat külön kezeli. Ha valamelyik színhez nem tartozik egy lépés sem, akkor az ellenkező játékos nyert.
+     * A bábuk 2D tömbjéből tömör állást készít, és a checkGameOver(BitBoard, BoardOutput) metódussal dönt.
+     * Ha valamelyik színhez nem tartozik egy lépés sem, akkor az ellenkező játékos nyert.
      *
      * @param pieces A tábla bábujainak 2D tömbje.
+     * @param sideToMove Az éppen lépett, még nem váltott játékos színe; a végjáték táblában az ellenfele lépésével keres.
      * @param outputArea Az eredmény megjelenítéséhez használt objektum.
      * @return Igaz, ha a játék véget ért; hamis, ha nem.
      */
-    public boolean checkGameOver(Piece[][] pieces, BoardOutput outputArea) {
-        boolean whiteHasMoves = false;
-        boolean blackHasMoves = false;
-
-        Piece selectedPiece;
-        PieceColor currentPlayer;
-
-        outerLoop:
-        for (int r = 0; r < pieces.length; r++) {
-            for (int c = 0; c < pieces[r].length; c++) {
-                if (pieces[r][c] != null) {
-                    selectedPiece = pieces[r][c];
-                    currentPlayer = selectedPiece.getColor();
-                    List<Move> listOfMoves = updateListOfNormalMoves(pieces, selectedPiece, currentPlayer);
-                    List<Capture> listOfCaptures = updateListOfCaptures(pieces, selectedPiece, currentPlayer);
-
-                    if (selectedPiece.getColor() == PieceColor.WHITE &&
-                            (!listOfMoves.isEmpty() || !listOfCaptures.isEmpty())) {
-                        whiteHasMoves = true;
-                    }
-                    if (selectedPiece.getColor() == PieceColor.BLACK &&
-                            (!listOfMoves.isEmpty() || !listOfCaptures.isEmpty())) {
-                        blackHasMoves = true;
-                    }
-                    if (whiteHasMoves && blackHasMoves) {
-                        break outerLoop;
-                    }
-                }
-            }
-        }
-        if (!blackHasMoves) {
+    public boolean checkGameOver(Piece[][] pieces, PieceColor sideToMove, BoardOutput outputArea) {
+        return checkGameOver(BitBoard.fromPieces(pieces, sideToMove), outputArea);
+    }
+
+    /**
+     * Ellenőrzi, hogy a játék véget ért-e, egy tömör állás alapján.
+     * Az egyes színek lépési lehetőségét a BitBoard.hasMoves maszk műveletekkel, a tábla bejárása nélkül adja meg,
+     * így a vizsgálat ideje nem függ a bábuk számától.
+     * Ha valamelyik színhez nem tartozik egy lépés sem, akkor az ellenkező játékos nyert.
+     * Ha vannak végjáték táblák és az állás szerepel bennük, a tábla szerint eldőlt (kikényszeríthető győzelmű)
+     * állásban a játék szintén véget ér, a győztes a tábla szerinti nyerő fél. A hívás a lépés után, de a játékosváltás előtt
+     * történik, ezért a táblában az ellenfél lépésével keres. A döntést a GameState.result hozza, így a felület nélküli
+     * állapot ugyanazt a szabályt követi.
+     *
+     * @param position A tábla állása.
+     * @param outputArea Az eredmény megjelenítéséhez használt objektum.
+     * @return Igaz, ha a játék véget ért; hamis, ha nem.
+     */
+    public boolean checkGameOver(BitBoard position, BoardOutput outputArea) {
+        PieceColor winner = GameState.result(position, tablebase);
+        if (winner == PieceColor.WHITE) {
             outputArea.whiteWon();
             return true;
         }
-        if (!whiteHasMoves) {
+        if (winner == PieceColor.BLACK) {
             outputArea.blackWon();
             return true;
         }
@@ -0,0 +1,514 @@
+package logic;
+
+import pieces.PieceColor;
+import tablebase.Tablebase;
+import tablebase.TablebaseProbe;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Egy játszma teljes állapota és szabályai, felület nélkül: a bábuk (BitBoard), a soron következő játékos,
+ * az ütéskényszer (captureLock), a játékosok befejezett köreinek száma és az eredmény.
+ * Nem használ AWT/Swing osztályokat és képeket, így szerver folyamatban és tömeges szimulációban is futtatható;
+ * a Swing tábla (board.Board) ennek a nézete, a változásokról a GameStateListener felületen értesül.
+ *
+ * A szabályok megegyeznek a GameLogic szabályaival: a normál bábu előre, a királynő mindkét irányba léphet és üthet
+ * átlósan, ütés után ugyanazzal a bábuval tovább kell ütni, amíg lehetséges (ekkor más bábu nem léphet, és normál lépés
+ * sem tehető), és az utolsó sort elérő normál bábu királynővé válik, ütéssorozat közben is. A kör végén, a játékosváltás
+ * előtt dől el, hogy véget ért-e a játék (lásd result).
+ * A lépések egyenként (ugrásonként) is végrehajthatók (move), ahogy az egérrel, vagy MoveGenerator által előállított
+ * teljes lépésként (play). Minden ugrás visszavonható (undo), amíg a játék véget nem ért.
+ * A lépő fél szabályos lépéseinek célmezőit kiinduló mezőnként egy gyorsítótár tárolja, amely az állás minden változásakor
+ * érvénytelenné válik, és az első lekérdezéskor egyszerre, az összes bábura töltődik újra. Így a kiemelések kirajzolása,
+ * a bemenet és a lépések ellenőrzése ugyanabban az állásban konstans idejű.
+ * Nem szálbiztos, egy szálból kell használni.
+ */
+public final class GameState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int UNDO_CAPACITY = 256; // A visszavonási verem kezdeti mérete.
+    private static final int UNDO_BLACK_TO_MOVE = 1; // A lépés előtt a fekete következett.
+    private static final int UNDO_CAPTURE_LOCK = 2; // A lépés előtt aktív volt az ütéskényszer.
+    private static final int UNDO_TURN_ENDED = 4; // A lépés lezárta a kört.
+
+    private final BitBoard position; // A bábuk és a soron következő játékos.
+    private boolean captureLock; // Igaz, ha ütéssorozat közben tovább kell ütni.
+    private int lockedSquare = -1; // Ütéskényszer esetén a tovább ütő bábu mezője, különben -1.
+    private final int[] turns = new int[2]; // A fehér és a fekete befejezett köreinek száma.
+    private PieceColor winner; // A győztes, vagy null, ha a játék még tart.
+    private transient TablebaseProbe tablebase; // A végjáték táblák a játék végének eldöntéséhez, vagy null.
+    private transient List<GameStateListener> listeners; // Az értesítendő nézetek.
+
+    // A visszavonási verem előre lefoglalt tömbjei. Ugrásonként a lépés előtti maszkok, a jelzők
+    // (a zárolt mező + 1 a 8. bittől), és a lépés mezői (kiinduló, cél, leütött + 1, promótálás).
+    private transient int[] undoWhite, undoBlack, undoKings, undoFlags, undoMoves;
+    private transient int undoTop;
+    private transient int[] path; // Az ütéssorozatok ugrásainak célmezői, a play használja.
+    private transient int[] normalTargets, captureTargets; // A lépő fél lépéseinek és ütéseinek célmezői kiinduló mezőnként.
+    private transient boolean targetsValid; // Igaz, ha a célmezők gyorsítótára a jelenlegi állapothoz tartozik.
+
+    /**
+     * Üres táblát hoz létre, amelyen a fehér következik.
+     */
+    public GameState() {
+        position = new BitBoard();
+    }
+
+    /**
+     * @param position A kiinduló állás (átmásolja, nem módosul).
+     */
+    public GameState(BitBoard position) {
+        this();
+        setup(position);
+    }
+
+    /**
+     * @return A kezdőállású játszma.
+     */
+    public static GameState initial() {
+        return new GameState(BitBoard.initial());
+    }
+
+    /**
+     * Új játszmát kezd a kapott állásból: az ütéskényszer, az eredmény, a körök száma és a visszavonási verem törlődik.
+     *
+     * @param start Az állás (átmásolja, nem módosul).
+     */
+    public void setup(BitBoard start) {
+        position.copyFrom(start);
+        reset();
+    }
+
+    /**
+     * Eltávolítja az összes bábut, a soron következő játékos nem változik.
+     */
+    public void clear() {
+        position.clear();
+        reset();
+    }
+
+    private void reset() {
+        targetsValid = false;
+        captureLock = false;
+        lockedSquare = -1;
+        winner = null;
+        Arrays.fill(turns, 0);
+        undoTop = 0;
+    }
+
+    /**
+     * Bábut helyez egy mezőre (szerkesztéshez). A világos mezők figyelmen kívül maradnak.
+     *
+     * @param row A sor.
+     * @param col Az oszlop.
+     * @param color A bábu színe.
+     * @param king Igaz, ha a bábu királynő.
+     */
+    public void put(int row, int col, PieceColor color, boolean king) {
+        if (BitBoard.isDarkSquare(row, col)) position.put(BitBoard.square(row, col), color, king);
+        targetsValid = false;
+    }
+
+    /**
+     * Üresre állít egy mezőt (szerkesztéshez). A világos mezők figyelmen kívül maradnak.
+     *
+     * @param row A sor.
+     * @param col Az oszlop.
+     */
+    public void remove(int row, int col) {
+        if (BitBoard.isDarkSquare(row, col)) position.remove(BitBoard.square(row, col));
+        targetsValid = false;
+    }
+
+    /**
+     * Beállítja a végjáték táblákat, amelyek szerint eldőlt állásban a játék véget ér.
+     * @param tablebase A táblák, vagy null.
+     */
+    public void setTablebase(TablebaseProbe tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public void addListener(GameStateListener listener) {
+        if (listeners == null) listeners = new ArrayList<>();
+        listeners.add(listener);
+    }
+
+    public void removeListener(GameStateListener listener) {
+        if (listeners != null) listeners.remove(listener);
+    }
+
+    /**
+     * Megállapítja, hogy egy kör végén véget ért-e a játék: ha valamelyik színnek nincs lépése, az ellenkező nyert
+     * (BitBoard.winner). Ha vannak végjáték táblák és az állás szerepel bennük, a tábla szerint eldőlt (kikényszeríthető
+     * győzelmű) állásban is véget ér, a győztes a tábla szerinti nyerő fél. A hívás a lépés után, de a játékosváltás
+     * előtt történik, ezért a táblában az ellenfél lépésével keres.
+     *
+     * @param position Az állás a lépés után, a lépő féllel.
+     * @param tablebase A végjáték táblák, vagy null.
+     * @return A győztes, vagy null, ha a játék folytatódik.
+     */
+    public static PieceColor result(BitBoard position, TablebaseProbe tablebase) {
+        PieceColor winner = position.winner();
+        if (winner != null) return winner;
+        if (tablebase != null && tablebase.covers(position)) {
+            PieceColor next = opponent(position.getSideToMove());
+            int value = tablebase.probe(position, next);
+            if (Tablebase.isWin(value)) return next;
+            if (Tablebase.isLoss(value)) return opponent(next);
+        }
+        return null;
+    }
+
+    /**
+     * Egy mezőn álló bábu normál lépéseinek célmezői. Ütéskényszer alatt és a játék vége után üres.
+     * A gyorsítótárból olvas, lépésgenerálás csak az állapot változása utáni első lekérdezéskor történik.
+     *
+     * @param square A bábu mezője.
+     * @return A célmezők maszkja.
+     */
+    public int normalMoveTargets(int square) {
+        if (!targetsValid) computeTargets();
+        return normalTargets[square];
+    }
+
+    /**
+     * Egy mezőn álló bábu ütéseinek célmezői. Ütéskényszer alatt csak a tovább ütő bábué, a játék vége után üres.
+     * A gyorsítótárból olvas, lépésgenerálás csak az állapot változása utáni első lekérdezéskor történik.
+     *
+     * @param square A bábu mezője.
+     * @return A célmezők maszkja.
+     */
+    public int captureTargets(int square) {
+        if (!targetsValid) computeTargets();
+        return captureTargets[square];
+    }
+
+    /**
+     * Újratölti a célmezők gyorsítótárát a lépő fél összes bábujára, az ütéskényszert és a játék végét is figyelembe véve.
+     */
+    private void computeTargets() {
+        if (normalTargets == null) {
+            normalTargets = new int[BitBoard.SQUARES];
+            captureTargets = new int[BitBoard.SQUARES];
+        } else {
+            Arrays.fill(normalTargets, 0);
+            Arrays.fill(captureTargets, 0);
+        }
+        if (winner == null) {
+            for (int m = position.piecesOf(position.getSideToMove()); m != 0; m &= m - 1) {
+                int sq = Integer.numberOfTrailingZeros(m);
+                if (!captureLock) normalTargets[sq] = position.normalMoveTargets(sq);
+                if (!captureLock || lockedSquare < 0 || sq == lockedSquare) captureTargets[sq] = position.captureTargets(sq);
+            }
+        }
+        targetsValid = true;
+    }
+
+    /**
+     * @param row A bábu sora.
+     * @param col A bábu oszlopa.
+     * @return A bábu normál lépéseinek célmezői.
+     */
+    public List<Move> normalMoves(int row, int col) {
+        return BitBoard.isDarkSquare(row, col) ? toMoves(normalMoveTargets(BitBoard.square(row, col))) : new ArrayList<>();
+    }
+
+    /**
+     * @param row A bábu sora.
+     * @param col A bábu oszlopa.
+     * @return A bábu ütéseinek célmezői.
+     */
+    public List<Move> captures(int row, int col) {
+        return BitBoard.isDarkSquare(row, col) ? toMoves(captureTargets(BitBoard.square(row, col))) : new ArrayList<>();
+    }
+
+    private static List<Move> toMoves(int targets) {
+        List<Move> moves = new ArrayList<>(Integer.bitCount(targets));
+        for (int m = targets; m != 0; m &= m - 1) {
+            int sq = Integer.numberOfTrailingZeros(m);
+            moves.add(new Move(BitBoard.rowOf(sq), BitBoard.colOf(sq)));
+        }
+        return moves;
+    }
+
+    /**
+     * Megállapítja egy lépés típusát a jelenlegi állapotban.
+     *
+     * @param fromRow A bábu sora.
+     * @param fromCol A bábu oszlopa.
+     * @param toRow A célsor.
+     * @param toCol A céloszlop.
+     * @return Normál lépés, ütés, vagy szabálytalan lépés.
+     */
+    public MoveType validate(int fromRow, int fromCol, int toRow, int toCol) {
+        if (!onBoard(fromRow, fromCol) || !onBoard(toRow, toCol)
+                || !BitBoard.isDarkSquare(fromRow, fromCol) || !BitBoard.isDarkSquare(toRow, toCol)) {
+            return MoveType.IllegalMove;
+        }
+        int from = BitBoard.square(fromRow, fromCol);
+        int toBit = 1 << BitBoard.square(toRow, toCol);
+        if ((normalMoveTargets(from) & toBit) != 0) return MoveType.NormalMove;
+        if ((captureTargets(from) & toBit) != 0) return MoveType.CaptureMove;
+        return MoveType.IllegalMove;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    /**
+     * Végrehajt egy normál lépést vagy egy ütést (egyetlen ugrást), ha szabályos.
+     * Ütés után, ha ugyanaz a bábu tovább üthet, ütéskényszer lép életbe, és ugyanaz a játékos következik.
+     * Különben a kör véget ér: ha a játék véget ért, a győztes rögzül, ha nem, a másik játékos következik.
+     *
+     * @param fromRow A bábu sora.
+     * @param fromCol A bábu oszlopa.
+     * @param toRow A célsor.
+     * @param toCol A céloszlop.
+     * @return A lépés típusa; szabálytalan lépésnél az állapot nem változik.
+     */
+    public MoveType move(int fromRow, int fromCol, int toRow, int toCol) {
+        MoveType type = validate(fromRow, fromCol, toRow, toCol);
+        if (type == MoveType.IllegalMove) return type;
+
+        PieceColor side = position.getSideToMove();
+        int from = BitBoard.square(fromRow, fromCol);
+        int to = BitBoard.square(toRow, toCol);
+        int captured = type == MoveType.CaptureMove ? BitBoard.jumpedSquare(from, to) : -1;
+        boolean king = (position.getKings() >>> from & 1) != 0;
+        int promotionRow = side == PieceColor.WHITE ? BitBoard.WHITE_PROMOTION_ROW : BitBoard.BLACK_PROMOTION_ROW;
+        boolean promoted = !king && (promotionRow >>> to & 1) != 0;
+
+        int undo = pushUndo(from, to, captured, promoted);
+        position.remove(from);
+        if (captured >= 0) position.remove(captured);
+        position.put(to, side, king || promoted);
+        targetsValid = false;
+        if (listeners != null) {
+            for (GameStateListener l : listeners) l.pieceMoved(from, to, captured, promoted);
+        }
+
+        if (captured >= 0 && position.captureTargets(to) != 0) {
+            captureLock = true;
+            lockedSquare = to;
+            targetsValid = false;
+        } else {
+            finishTurn(undo);
+        }
+        return type;
+    }
+
+    /**
+     * Végrehajt egy MoveGenerator.generateLegal által előállított teljes lépést: normál lépést, vagy ugrásonként
+     * egy teljes ütéssorozatot (lásd MoveGenerator.capturePath).
+     *
+     * @param move A becsomagolt lépés (PackedMove).
+     * @param capturedSet A leütött mezők maszkja (normál lépésnél 0).
+     * @throws IllegalArgumentException Ha a lépés nem hajtható végre, vagy az ütéssorozat nem teljes; ekkor az állapot nem változik.
+     */
+    public void play(int move, int capturedSet) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (winner != null || captureLock || (position.piecesOf(position.getSideToMove()) >>> from & 1) == 0) {
+            throw new IllegalArgumentException("Illegal move: " + PackedMove.toString(move));
+        }
+        if (capturedSet == 0) {
+            if (move(BitBoard.rowOf(from), BitBoard.colOf(from), BitBoard.rowOf(to), BitBoard.colOf(to)) != MoveType.NormalMove) {
+                throw new IllegalArgumentException("Illegal move: " + PackedMove.toString(move));
+            }
+            return;
+        }
+        if (path == null) path = new int[BitBoard.SQUARES];
+        int hops = MoveGenerator.capturePath(position, move, capturedSet, path);
+        if (hops < 0) {
+            throw new IllegalArgumentException("Illegal move: " + PackedMove.toString(move));
+        }
+        int square = from;
+        for (int i = 0; i < hops; i++) {
+            move(BitBoard.rowOf(square), BitBoard.colOf(square), BitBoard.rowOf(path[i]), BitBoard.colOf(path[i]));
+            square = path[i];
+        }
+        if (captureLock) {
+            for (int i = 0; i < hops; i++) undo();
+            throw new IllegalArgumentException("Incomplete capture sequence: " + PackedMove.toString(move));
+        }
+    }
+
+    /**
+     * Lezárja a lépő fél körét a játék végének vizsgálata nélkül, és a másik játékos következik.
+     * A körváltás nem vonható vissza.
+     */
+    public void passTurn() {
+        captureLock = false;
+        lockedSquare = -1;
+        changeSide();
+    }
+
+    private void finishTurn(int undo) {
+        captureLock = false;
+        lockedSquare = -1;
+        targetsValid = false;
+        PieceColor w = result(position, tablebase);
+        if (w != null) {
+            winner = w;
+            if (listeners != null) {
+                for (GameStateListener l : listeners) l.gameOver(w);
+            }
+            return;
+        }
+        undoFlags[undo] |= UNDO_TURN_ENDED;
+        changeSide();
+    }
+
+    private void changeSide() {
+        PieceColor previous = position.getSideToMove();
+        PieceColor next = opponent(previous);
+        turns[index(previous)]++;
+        position.setSideToMove(next);
+        targetsValid = false;
+        if (listeners != null) {
+            for (GameStateListener l : listeners) l.turnChanged(previous, next);
+        }
+    }
+
+    private int pushUndo(int from, int to, int captured, boolean promoted) {
+        if (undoWhite == null) {
+            undoWhite = new int[UNDO_CAPACITY];
+            undoBlack = new int[UNDO_CAPACITY];
+            undoKings = new int[UNDO_CAPACITY];
+            undoFlags = new int[UNDO_CAPACITY];
+            undoMoves = new int[UNDO_CAPACITY];
+        } else if (undoTop == undoWhite.length) {
+            undoWhite = Arrays.copyOf(undoWhite, undoTop * 2);
+            undoBlack = Arrays.copyOf(undoBlack, undoTop * 2);
+            undoKings = Arrays.copyOf(undoKings, undoTop * 2);
+            undoFlags = Arrays.copyOf(undoFlags, undoTop * 2);
+            undoMoves = Arrays.copyOf(undoMoves, undoTop * 2);
+        }
+        undoWhite[undoTop] = position.getWhite();
+        undoBlack[undoTop] = position.getBlack();
+        undoKings[undoTop] = position.getKings();
+        undoFlags[undoTop] = (position.getSideToMove() == PieceColor.BLACK ? UNDO_BLACK_TO_MOVE : 0)
+                | (captureLock ? UNDO_CAPTURE_LOCK : 0) | (lockedSquare + 1) << 8;
+        undoMoves[undoTop] = from | to << 5 | (captured + 1) << 10 | (promoted ? 1 << 16 : 0);
+        return undoTop++;
+    }
+
+    /**
+     * Visszavonja az utolsó lépést vagy ugrást. Ha az a kört is lezárta, a körök száma is visszaáll.
+     * Ha a játék már véget ért, a lépés nem vonható vissza.
+     *
+     * @return Igaz, ha sikerült visszavonni egy lépést.
+     */
+    public boolean undo() {
+        if (undoTop == 0 || winner != null) return false;
+        undoTop--;
+        int flags = undoFlags[undoTop];
+        int move = undoMoves[undoTop];
+        PieceColor side = (flags & UNDO_BLACK_TO_MOVE) != 0 ? PieceColor.BLACK : PieceColor.WHITE;
+        position.set(undoWhite[undoTop], undoBlack[undoTop], undoKings[undoTop], side);
+        captureLock = (flags & UNDO_CAPTURE_LOCK) != 0;
+        lockedSquare = (flags >>> 8) - 1;
+        targetsValid = false;
+        boolean turnEnded = (flags & UNDO_TURN_ENDED) != 0;
+        if (turnEnded) turns[index(side)]--;
+        if (listeners != null) {
+            for (GameStateListener l : listeners) {
+                l.moveUndone(move & 31, move >>> 5 & 31, (move >>> 10 & 63) - 1, (move >>> 16 & 1) != 0);
+                if (turnEnded) l.turnUndone(side);
+            }
+        }
+        return true;
+    }
+
+    private static PieceColor opponent(PieceColor color) {
+        return color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+    }
+
+    private static int index(PieceColor color) {
+        return color == PieceColor.WHITE ? 0 : 1;
+    }
+
+    /**
+     * Az állás, a soron következő játékossal. Közvetlenül nem szabad módosítani, csak másolatként (copyFrom) használható.
+     * @return Az állás.
+     */
+    public BitBoard getPosition() {
+        return position;
+    }
+
+    public PieceColor getSideToMove() {
+        return position.getSideToMove();
+    }
+
+    public void setSideToMove(PieceColor color) {
+        position.setSideToMove(color);
+        targetsValid = false;
+    }
+
+    public boolean isCaptureLocked() {
+        return captureLock;
+    }
+
+    /**
+     * Beállítja az ütéskényszert. Kikapcsoláskor a zárolt mező is törlődik, bekapcsoláskor bármely bábu tovább üthet,
+     * amíg egy ütés ki nem jelöli a tovább ütő bábut.
+     * @param lock Az új érték.
+     */
+    public void setCaptureLock(boolean lock) {
+        captureLock = lock;
+        if (!lock) lockedSquare = -1;
+        targetsValid = false;
+    }
+
+    /**
+     * Ütéskényszert állít be a megadott mezőn álló bábura (pl. egy ütéssorozat közben mentett játék betöltésekor).
+     * @param square A tovább ütő bábu mezője, vagy -1 az ütéskényszer kikapcsolásához.
+     */
+    public void setLockedSquare(int square) {
+        captureLock = square >= 0;
+        lockedSquare = square;
+        targetsValid = false;
+    }
+
+    /**
+     * @return Ütéskényszer esetén a tovább ütő bábu mezője, különben -1.
+     */
+    public int getLockedSquare() {
+        return lockedSquare;
+    }
+
+    /**
+     * @param color A játékos színe.
+     * @return A játékos befejezett köreinek száma.
+     */
+    public int getTurns(PieceColor color) {
+        return turns[index(color)];
+    }
+
+    /**
+     * @return A győztes, vagy null, ha a játék még tart.
+     */
+    public PieceColor getWinner() {
+        return winner;
+    }
+
+    public boolean isGameOver() {
+        return winner != null;
+    }
+
+    /**
+     * @return A visszavonható lépések (ugrások) száma.
+     */
+    public int getUndoDepth() {
+        return undoTop;
+    }
+
+    @Override
+    public String toString() {
+        return position + (captureLock ? " lock " + lockedSquare : "") + (winner != null ? " winner " + winner : "");
+    }
+}
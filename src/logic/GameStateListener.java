@@ -0,0 +1,53 @@
+package logic;
+
+import pieces.PieceColor;
+
+/**
+ * A GameState változásairól értesülő felület (pl. a Swing tábla, vagy egy szerver folyamat naplója).
+ * A mezők a BitBoard sorszámai (sor * 4 + oszlop / 2). Az értesítések az állapot frissítése után, a változtató szálon érkeznek.
+ * Minden metódusnak van üres alapértelmezése, így elég a szükségeseket megvalósítani.
+ */
+public interface GameStateListener {
+
+    /**
+     * Egy normál lépés vagy egy ütés (egyetlen ugrás) végrehajtása után.
+     *
+     * @param from A kiinduló mező.
+     * @param to A célmező.
+     * @param captured A leütött bábu mezője, vagy -1 normál lépésnél.
+     * @param promoted Igaz, ha a bábu ezzel a lépéssel lett királynő.
+     */
+    default void pieceMoved(int from, int to, int captured, boolean promoted) {}
+
+    /**
+     * Egy lépés vagy ugrás visszavonása után. A paraméterek a visszavont lépéséi.
+     *
+     * @param from A kiinduló mező, ide került vissza a bábu.
+     * @param to A célmező.
+     * @param captured A leütött és visszatett bábu mezője, vagy -1.
+     * @param promoted Igaz, ha a visszavont lépés promótált.
+     */
+    default void moveUndone(int from, int to, int captured, boolean promoted) {}
+
+    /**
+     * A lépő fél befejezte a körét, a másik játékos következik.
+     *
+     * @param previous Az előző játékos.
+     * @param next A következő játékos.
+     */
+    default void turnChanged(PieceColor previous, PieceColor next) {}
+
+    /**
+     * Egy kör végét lezáró lépés visszavonása után, ismét a kapott játékos következik.
+     *
+     * @param player A játékos, aki újra következik.
+     */
+    default void turnUndone(PieceColor player) {}
+
+    /**
+     * A játék véget ért.
+     *
+     * @param winner A győztes színe.
+     */
+    default void gameOver(PieceColor winner) {}
+}
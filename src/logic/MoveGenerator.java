@@ -0,0 +1,240 @@
+package logic;
+
+import pieces.PieceColor;
+
+/**
+ * A soron következő játékos összes lépését előállító generátor.
+ * A lépéseket a PackedMove szerint becsomagolt int-ként, a hívó által adott, újrafelhasználható tömbbe írja,
+ * így a generálás nem hoz létre objektumokat. A szabályok megegyeznek a GameLogic
+ * updateListOfNormalMoves és updateListOfCaptures metódusaiéval, csak nem egy bábura, hanem az egész oldalra.
+ * Az ütések a normál lépések előtt kerülnek a tömbbe.
+ */
+public final class MoveGenerator {
+
+    /**
+     * A lépéseket fogadó tömb ajánlott mérete. Egy állásban ennél több lépés nem lehetséges.
+     */
+    public static final int MAX_MOVES = 128;
+
+    private MoveGenerator() {}
+
+    /**
+     * A soron következő játékos összes ütését és normál lépését előállítja.
+     *
+     * @param position Az állás.
+     * @param moves A lépéseket fogadó tömb (legalább MAX_MOVES méretű).
+     * @return A tömbbe írt lépések száma.
+     */
+    public static int generate(BitBoard position, int[] moves) {
+        int count = generateCaptures(position, ~0, moves, 0);
+        return generateNormalMoves(position, moves, count);
+    }
+
+    /**
+     * A soron következő játékos ütéseit állítja elő, a megadott mezőkön álló bábukra szűkítve.
+     * Ütéssorozat közben (captureLock) a maszk csak az ütő bábu mezőjét tartalmazza.
+     *
+     * @param position Az állás.
+     * @param fromMask A figyelembe vett kiinduló mezők maszkja.
+     * @param moves A lépéseket fogadó tömb.
+     * @param offset Az első szabad index a tömbben.
+     * @return Az első szabad index az írás után.
+     */
+    public static int generateCaptures(BitBoard position, int fromMask, int[] moves, int offset) {
+        PieceColor side = position.sideToMove;
+        int own = position.piecesOf(side) & fromMask;
+        int opponent = side == PieceColor.WHITE ? position.black : position.white;
+        int empty = position.getEmpty();
+        int promotionRow = side == PieceColor.WHITE ? BitBoard.WHITE_PROMOTION_ROW : BitBoard.BLACK_PROMOTION_ROW;
+        int firstDir = side == PieceColor.WHITE ? BitBoard.UP_LEFT : BitBoard.DOWN_LEFT;
+
+        for (int dir = 0; dir < 4; dir++) {
+            boolean forward = dir == firstDir || dir == firstDir + 1;
+            int movers = forward ? own : own & position.kings;
+            if (movers == 0) continue;
+            int targets = BitBoard.shift(BitBoard.shift(movers, dir) & opponent, dir) & empty;
+            int back = 3 - dir;
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int captured = BitBoard.NEIGHBOR[back][to];
+                int from = BitBoard.NEIGHBOR[back][captured];
+                boolean promotion = (promotionRow & (1 << to)) != 0 && (position.kings & (1 << from)) == 0;
+                moves[offset++] = PackedMove.capture(from, to, captured, promotion);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * A soron következő játékos normál (nem ütő) lépéseit állítja elő.
+     *
+     * @param position Az állás.
+     * @param moves A lépéseket fogadó tömb.
+     * @param offset Az első szabad index a tömbben.
+     * @return Az első szabad index az írás után.
+     */
+    public static int generateNormalMoves(BitBoard position, int[] moves, int offset) {
+        PieceColor side = position.sideToMove;
+        int own = position.piecesOf(side);
+        int empty = position.getEmpty();
+        int promotionRow = side == PieceColor.WHITE ? BitBoard.WHITE_PROMOTION_ROW : BitBoard.BLACK_PROMOTION_ROW;
+        int firstDir = side == PieceColor.WHITE ? BitBoard.UP_LEFT : BitBoard.DOWN_LEFT;
+
+        for (int dir = 0; dir < 4; dir++) {
+            boolean forward = dir == firstDir || dir == firstDir + 1;
+            int movers = forward ? own : own & position.kings;
+            if (movers == 0) continue;
+            int targets = BitBoard.shift(movers, dir) & empty;
+            int back = 3 - dir;
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                int from = BitBoard.NEIGHBOR[back][to];
+                boolean promotion = (promotionRow & (1 << to)) != 0 && (position.kings & (1 << from)) == 0;
+                moves[offset++] = PackedMove.normal(from, to, promotion);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * A soron következő játékos összes teljes ütéssorozatát és normál lépését állítja elő.
+     * Egy ütéssorozat egyetlen lépésként kerül a tömbbe: a kiinduló mezővel, a végső célmezővel,
+     * a promótálás jelzővel, a leütött mezők maszkja pedig a capturedSets tömb azonos indexére kerül.
+     * Normál lépésnél a capturedSets értéke 0. Az így kapott lépések a BitBoard.makeMove(int, int) metódussal hajthatók végre.
+     *
+     * @param position Az állás.
+     * @param moves A lépéseket fogadó tömb (legalább MAX_MOVES méretű).
+     * @param capturedSets A leütött mezők maszkjait fogadó tömb (legalább MAX_MOVES méretű).
+     * @return A tömbbe írt lépések száma.
+     */
+    public static int generateLegal(BitBoard position, int[] moves, int[] capturedSets) {
+        int count = generateCaptureSequences(position, ~0, moves, capturedSets, 0);
+        int end = generateNormalMoves(position, moves, count);
+        for (int i = count; i < end; i++) capturedSets[i] = 0;
+        return end;
+    }
+
+    /**
+     * A megadott mezőkön álló bábuk teljes ütéssorozatait állítja elő, mélységi bejárással.
+     * A játék szabályai szerint ütés után ugyanazzal a bábuval tovább kell ütni, amíg lehetséges (captureLock),
+     * ezért csak azok a sorozatok kerülnek a tömbbe, amelyek végén nincs további ütés.
+     * A leütött bábuk azonnal lekerülnek a tábláról. Ha egy normál bábu a sorozat közben eléri a tábla végét,
+     * promótálódik, és a sorozatot királynőként folytatja.
+     * A bejárás a maszkok másolatain (rekurziós paramétereken) dolgozik, listát és objektumot nem hoz létre.
+     * Az azonos kiinduló mezőből, azonos célmezőbe, azonos bábuk leütésével járó sorozatok csak egyszer szerepelnek.
+     *
+     * @param position Az állás.
+     * @param fromMask A figyelembe vett kiinduló mezők maszkja.
+     * @param moves A lépéseket fogadó tömb.
+     * @param capturedSets A leütött mezők maszkjait fogadó tömb.
+     * @param offset Az első szabad index a tömbökben.
+     * @return Az első szabad index az írás után.
+     */
+    public static int generateCaptureSequences(BitBoard position, int fromMask, int[] moves, int[] capturedSets, int offset) {
+        PieceColor side = position.sideToMove;
+        int jumpers = position.jumpers(side) & fromMask;
+        int opponent = side == PieceColor.WHITE ? position.black : position.white;
+        int promotionRow = side == PieceColor.WHITE ? BitBoard.WHITE_PROMOTION_ROW : BitBoard.BLACK_PROMOTION_ROW;
+        int firstDir = side == PieceColor.WHITE ? BitBoard.UP_LEFT : BitBoard.DOWN_LEFT;
+
+        while (jumpers != 0) {
+            int from = Integer.numberOfTrailingZeros(jumpers);
+            jumpers &= jumpers - 1;
+            boolean king = (position.kings & (1 << from)) != 0;
+            int empty = position.getEmpty() | (1 << from);
+            offset = extendSequence(from, from, king, king, firstDir, promotionRow, opponent, empty, 0, -1,
+                    moves, capturedSets, offset, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Az ütéssorozatok mélységi bejárásának egy lépése. A square mezőről minden lehetséges ugrást kipróbál,
+     * és ha nincs több ugrás, a sorozatot lépésként rögzíti.
+     *
+     * @param from A sorozat kiinduló mezője.
+     * @param square Az ütő bábu jelenlegi mezője.
+     * @param king Igaz, ha az ütő bábu jelenleg királynő.
+     * @param startedAsKing Igaz, ha a bábu már a sorozat elején királynő volt.
+     * @param firstDir Az előre irányú ugrások közül az első irány.
+     * @param promotionRow A promótálás sorának maszkja.
+     * @param opponent A még táblán lévő ellenfél bábuk maszkja.
+     * @param empty Az üres mezők maszkja.
+     * @param captured Az eddig leütött mezők maszkja.
+     * @param firstCaptured Az első leütött mező, vagy -1.
+     * @param moves A lépéseket fogadó tömb.
+     * @param capturedSets A leütött mezők maszkjait fogadó tömb.
+     * @param start A kiinduló mezőhöz tartozó első bejegyzés indexe (az ismétlődések szűréséhez).
+     * @param offset Az első szabad index.
+     * @return Az első szabad index az írás után.
+     */
+    private static int extendSequence(int from, int square, boolean king, boolean startedAsKing, int firstDir, int promotionRow,
+                                      int opponent, int empty, int captured, int firstCaptured,
+                                      int[] moves, int[] capturedSets, int start, int offset) {
+        boolean extended = false;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && dir != firstDir && dir != firstDir + 1) continue;
+            int over = BitBoard.NEIGHBOR[dir][square];
+            if (over < 0 || (opponent & (1 << over)) == 0) continue;
+            int land = BitBoard.NEIGHBOR[dir][over];
+            if (land < 0 || (empty & (1 << land)) == 0) continue;
+
+            extended = true;
+            boolean landsAsKing = king || (promotionRow & (1 << land)) != 0;
+            int newEmpty = (empty | (1 << square) | (1 << over)) & ~(1 << land);
+            offset = extendSequence(from, land, landsAsKing, startedAsKing, firstDir, promotionRow,
+                    opponent & ~(1 << over), newEmpty, captured | (1 << over), firstCaptured < 0 ? over : firstCaptured,
+                    moves, capturedSets, start, offset);
+        }
+        if (!extended && captured != 0) {
+            int move = PackedMove.capture(from, square, firstCaptured, king && !startedAsKing);
+            for (int i = start; i < offset; i++) {
+                if (capturedSets[i] == captured && PackedMove.to(moves[i]) == square) return offset;
+            }
+            moves[offset] = move;
+            capturedSets[offset] = captured;
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Egy generateCaptureSequences által előállított ütéssorozat egyes ugrásainak célmezőit állítja vissza.
+     * Erre akkor van szükség, ha a sorozatot ugrásonként kell végrehajtani (pl. a Board makeCapture metódusával).
+     *
+     * @param position Az állás a sorozat előtt.
+     * @param move A becsomagolt sorozat.
+     * @param capturedSet A sorozatban leütött mezők maszkja.
+     * @param path Az ugrások célmezőit fogadó tömb (legalább 12 méretű).
+     * @return Az ugrások száma, vagy -1, ha a sorozat nem hajtható végre az állásban.
+     */
+    public static int capturePath(BitBoard position, int move, int capturedSet, int[] path) {
+        int from = PackedMove.from(move);
+        boolean king = (position.kings & (1 << from)) != 0;
+        PieceColor side = (position.white & (1 << from)) != 0 ? PieceColor.WHITE : PieceColor.BLACK;
+        int promotionRow = side == PieceColor.WHITE ? BitBoard.WHITE_PROMOTION_ROW : BitBoard.BLACK_PROMOTION_ROW;
+        int firstDir = side == PieceColor.WHITE ? BitBoard.UP_LEFT : BitBoard.DOWN_LEFT;
+        return findPath(from, PackedMove.to(move), king, firstDir, promotionRow, capturedSet,
+                position.getEmpty() | (1 << from), path, 0) ? Integer.bitCount(capturedSet) : -1;
+    }
+
+    private static boolean findPath(int square, int to, boolean king, int firstDir, int promotionRow,
+                                    int remaining, int empty, int[] path, int hop) {
+        if (remaining == 0) return square == to;
+        for (int dir = 0; dir < 4; dir++) {
+            if (!king && dir != firstDir && dir != firstDir + 1) continue;
+            int over = BitBoard.NEIGHBOR[dir][square];
+            if (over < 0 || (remaining & (1 << over)) == 0) continue;
+            int land = BitBoard.NEIGHBOR[dir][over];
+            if (land < 0 || (empty & (1 << land)) == 0) continue;
+            path[hop] = land;
+            if (findPath(land, to, king || (promotionRow & (1 << land)) != 0, firstDir, promotionRow,
+                    remaining & ~(1 << over), (empty | (1 << over)) & ~(1 << land), path, hop + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package logic;
+
+/**
+ * Lépések tömör, egyetlen int-be csomagolt alakjának kezelése.
+ * Ezzel a lépésgenerálás objektum létrehozás nélkül, újrafelhasználható int tömbökbe írhat.
+ * A bitek kiosztása:
+ *  - 0-4. bit: a kiinduló mező (0-31),
+ *  - 5-9. bit: a célmező (0-31),
+ *  - 10-14. bit: a leütött bábu mezője (csak ütésnél),
+ *  - 15. bit: ütés jelző,
+ *  - 16. bit: promótálás jelző.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0; // Nem létező lépés jelölése (a kiinduló és célmező nem lehet azonos).
+
+    static final int CAPTURE_FLAG = 1 << 15;
+    static final int PROMOTION_FLAG = 1 << 16;
+
+    private PackedMove() {}
+
+    /**
+     * Normál lépés becsomagolása.
+     *
+     * @param from A kiinduló mező.
+     * @param to A célmező.
+     * @param promotion Igaz, ha a lépéssel a bábu promótálódik.
+     * @return A becsomagolt lépés.
+     */
+    public static int normal(int from, int to, boolean promotion) {
+        return from | (to << 5) | (promotion ? PROMOTION_FLAG : 0);
+    }
+
+    /**
+     * Ütés becsomagolása.
+     *
+     * @param from A kiinduló mező.
+     * @param to A célmező.
+     * @param captured A leütött bábu mezője.
+     * @param promotion Igaz, ha a lépéssel a bábu promótálódik.
+     * @return A becsomagolt lépés.
+     */
+    public static int capture(int from, int to, int captured, boolean promotion) {
+        return from | (to << 5) | (captured << 10) | CAPTURE_FLAG | (promotion ? PROMOTION_FLAG : 0);
+    }
+
+    public static int from(int move) {
+        return move & 31;
+    }
+
+    public static int to(int move) {
+        return (move >>> 5) & 31;
+    }
+
+    public static int captured(int move) {
+        return (move >>> 10) & 31;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE_FLAG) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+
+    /**
+     * A lépés olvasható alakja, a Move osztályhoz hasonlóan (sor,oszlop) párokkal, pl. "(5,0)-(4,1)" vagy "(5,0)x(3,2)".
+     *
+     * @param move A becsomagolt lépés.
+     * @return A lépés szöveges alakja.
+     */
+    public static String toString(int move) {
+        int from = from(move);
+        int to = to(move);
+        return "(" + BitBoard.rowOf(from) + "," + BitBoard.colOf(from) + ")"
+                + (isCapture(move) ? "x" : "-")
+                + "(" + BitBoard.rowOf(to) + "," + BitBoard.colOf(to) + ")";
+    }
+}
@@ -0,0 +1,201 @@
+package logic;
+
+import main.SaveFile;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Perft: egy állásból adott mélységig az összes szabályos lépéssorozat végigjátszása és a levelek megszámolása.
+ * A lépésgenerátor helyességének ellenőrzésére (a levelek száma egy állásban rögzített érték)
+ * és a sebességének mérésére (másodpercenként bejárt csúcsok) szolgál.
+ * A lépéseket a MoveGenerator.generateLegal állítja elő, vagyis egy teljes ütéssorozat egy lépésnek számít.
+ * A véget ért állásnak (BitBoard.winner) nincs folytatása, ugyanúgy, mint a GameLogic.checkGameOver esetén.
+ *
+ * Gyorsítások (mindkettő kikapcsolható):
+ *  - tömeges számolás: az utolsó szinten a lépéseket nem hajtja végre, csak megszámolja,
+ *  - hash tábla: a már kiszámolt (állás, mélység) párok eredményét eltárolja, így az átfedő ágakat csak egyszer számolja.
+ *
+ * Parancssorból a Swing felület nélkül futtatható:
+ *  java logic.Perft [mélység] [--divide] [--no-bulk] [--hash MB] [--position "állás"] [--file game.sav] [--black]
+ * Az állás a BitBoard.toString formátumában adható meg, a --file egy elmentett játékot (SaveFile) tölt be, a lépő féllel együtt.
+ * A --file régi formátumú game.txt fájlt is elfogad, ennek lépő felét a --black adja meg.
+ */
+public class Perft {
+
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L; // A mélységet a hash kulcsba keverő szorzó.
+
+    private final BitBoard position = new BitBoard();
+    private final int[][] moves;
+    private final int[][] capturedSets;
+    private final boolean bulk; // Tömeges számolás az utolsó szinten.
+    private final long[] hashKeys; // A hash tábla kulcsai (állás kulcs és mélység), null, ha nincs tábla.
+    private final long[] hashCounts; // A hash tábla értékei: a levelek száma.
+    private final int hashMask;
+    private long nodes; // A ténylegesen bejárt (végrehajtott lépéssel elért) csúcsok.
+
+    /**
+     * @param maxDepth A legnagyobb mélység, amellyel a példány használható.
+     * @param bulk Tömeges számolás az utolsó szinten.
+     * @param hashMb A hash tábla mérete megabájtban, 0 esetén nincs tábla.
+     */
+    public Perft(int maxDepth, boolean bulk, int hashMb) {
+        moves = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+        capturedSets = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+        this.bulk = bulk;
+        if (hashMb > 0) {
+            int entries = (int) Math.min(1L << 30, Long.highestOneBit(hashMb * 1024L * 1024L / 16));
+            hashKeys = new long[entries];
+            hashCounts = new long[entries];
+            hashMask = entries - 1;
+        } else {
+            hashKeys = null;
+            hashCounts = null;
+            hashMask = 0;
+        }
+    }
+
+    /**
+     * Megszámolja a leveleket a megadott mélységben.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @param depth A mélység félléptekben.
+     * @return A levelek száma.
+     */
+    public long perft(BitBoard root, int depth) {
+        position.copyFrom(root);
+        nodes = 0;
+        return count(depth, 0);
+    }
+
+    /**
+     * A gyökér lépésenként külön számolja meg a leveleket, és kiírja őket.
+     * Két generátor eltérésekor ez mutatja meg, melyik ágban van a hiba.
+     *
+     * @param root A kiinduló állás (nem módosul).
+     * @param depth A mélység félléptekben. 0 mélységben, a perft-hez hasonlóan, 1 levelet ad, és nem ír ki semmit.
+     * @return A levelek száma összesen.
+     */
+    public long divide(BitBoard root, int depth) {
+        position.copyFrom(root);
+        nodes = 0;
+        if (depth <= 0) return 1;
+        if (position.winner() != null) return 0;
+        int count = MoveGenerator.generateLegal(position, moves[0], capturedSets[0]);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[0][i], capturedSets[0][i]);
+            nodes++;
+            long leaves = count(depth - 1, 1);
+            position.unmakeMove();
+            System.out.println(PackedMove.toString(moves[0][i]) + ": " + leaves);
+            total += leaves;
+        }
+        return total;
+    }
+
+    private long count(int depth, int ply) {
+        if (depth <= 0) return 1;
+        if (position.winner() != null) return 0;
+
+        long key = 0;
+        if (hashKeys != null && depth > 1) {
+            key = position.getHash() ^ (depth * DEPTH_KEY);
+            int index = (int) key & hashMask;
+            if (hashKeys[index] == key && hashCounts[index] != 0) return hashCounts[index];
+        }
+
+        int[] plyMoves = moves[ply];
+        int[] plyCaptured = capturedSets[ply];
+        int count = MoveGenerator.generateLegal(position, plyMoves, plyCaptured);
+        if (depth == 1 && bulk) return count;
+
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(plyMoves[i], plyCaptured[i]);
+            nodes++;
+            leaves += count(depth - 1, ply + 1);
+            position.unmakeMove();
+        }
+
+        if (hashKeys != null && depth > 1) {
+            int index = (int) key & hashMask;
+            hashKeys[index] = key;
+            hashCounts[index] = leaves;
+        }
+        return leaves;
+    }
+
+    /**
+     * @return Az utolsó számolás során végrehajtott lépések száma (tömeges számolásnál az utolsó szint nélkül).
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        int depth = 6;
+        boolean divide = false;
+        boolean bulk = true;
+        int hashMb = 0;
+        PieceColor side = PieceColor.WHITE;
+        String text = null;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--no-bulk" -> bulk = false;
+                case "--hash" -> hashMb = Integer.parseInt(args[++i]);
+                case "--position" -> text = args[++i];
+                case "--file" -> file = args[++i];
+                case "--black" -> side = PieceColor.BLACK;
+                default -> depth = Integer.parseInt(args[i]);
+            }
+        }
+        if (depth < 0) {
+            System.err.println("Invalid depth: " + depth);
+            return;
+        }
+
+        BitBoard root;
+        if (text != null) {
+            root = BitBoard.parse(text);
+        } else if (file != null) {
+            root = loadPosition(file, side);
+            if (root == null) return;
+        } else {
+            root = BitBoard.initial();
+        }
+
+        System.out.println(root);
+        Perft perft = new Perft(Math.max(1, depth), bulk, hashMb);
+        for (int d = divide ? depth : 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long leaves = divide ? perft.divide(root, d) : perft.perft(root, d);
+            long micros = Math.max(1, (System.nanoTime() - start) / 1000);
+            System.out.println("perft(" + d + ") = " + leaves + "  " + micros / 1000 + " ms  "
+                    + leaves * 1_000_000 / micros + " leaves/s  " + perft.getNodes() * 1_000_000 / micros + " nps");
+        }
+    }
+
+    /**
+     * Betölt egy elmentett játékot, és az állását adja vissza. Ha a fájl nem SaveFile, régi formátumú állásként olvassa be.
+     */
+    private static BitBoard loadPosition(String filename, PieceColor side) {
+        Path file = Paths.get(filename);
+        try {
+            return SaveFile.read(file).getPosition();
+        } catch (IOException e) {
+            try {
+                return SaveFile.importLegacy(file, side).getPosition();
+            } catch (IOException legacy) {
+                legacy.addSuppressed(e);
+                System.err.println("Error loading position: " + e.getMessage());
+                legacy.printStackTrace();
+                return null;
+            }
+        }
+    }
+}
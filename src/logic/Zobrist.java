@@ -0,0 +1,89 @@
+package logic;
+
+import pieces.PieceColor;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist kulcsok az állások 64 bites azonosításához.
+ * Minden (bábu típus, mező) párhoz és a fekete lépési jogához tartozik egy véletlen szám,
+ * az állás kulcsa a benne szereplő elemek számainak XOR-ja. Így egy lépés után a kulcs
+ * néhány XOR művelettel frissíthető, a tábla bejárása nélkül.
+ * A számok rögzített kezdőértékből készülnek, így a kulcsok futások között is azonosak (pl. fájlba mentett könyvekhez).
+ */
+public final class Zobrist {
+
+    public static final int WHITE_MAN = 0, WHITE_KING = 1, BLACK_MAN = 2, BLACK_KING = 3; // A bábu típusok sorszámai.
+
+    private static final long[][] PIECE_KEYS = new long[4][BitBoard.SQUARES];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x636865636B657273L);
+        for (int type = 0; type < 4; type++) {
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                PIECE_KEYS[type][sq] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param color A bábu színe.
+     * @param king Igaz, ha a bábu királynő.
+     * @return A bábu típusának sorszáma.
+     */
+    public static int pieceType(PieceColor color, boolean king) {
+        return (color == PieceColor.WHITE ? WHITE_MAN : BLACK_MAN) + (king ? 1 : 0);
+    }
+
+    /**
+     * @param type A bábu típusa.
+     * @param square A mező sorszáma.
+     * @return Az adott bábu típushoz és mezőhöz tartozó kulcs.
+     */
+    public static long pieceKey(int type, int square) {
+        return PIECE_KEYS[type][square];
+    }
+
+    /**
+     * @param side A soron következő játékos.
+     * @return A lépési joghoz tartozó kulcs (fehér esetén 0).
+     */
+    public static long sideKey(PieceColor side) {
+        return side == PieceColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * Egy maszk összes mezőjéhez tartozó kulcsok XOR-ja, adott bábu típusra.
+     *
+     * @param type A bábu típusa.
+     * @param mask A mezők maszkja.
+     * @return A kulcsok XOR-ja.
+     */
+    public static long maskKey(int type, int mask) {
+        long key = 0;
+        while (mask != 0) {
+            key ^= PIECE_KEYS[type][Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Az állás teljes kulcsának kiszámítása, az összes bábu alapján.
+     *
+     * @param white A fehér bábuk maszkja.
+     * @param black A fekete bábuk maszkja.
+     * @param kings A királynők maszkja.
+     * @param side A soron következő játékos.
+     * @return Az állás kulcsa.
+     */
+    public static long hash(int white, int black, int kings, PieceColor side) {
+        return maskKey(WHITE_MAN, white & ~kings) ^ maskKey(WHITE_KING, white & kings)
+                ^ maskKey(BLACK_MAN, black & ~kings) ^ maskKey(BLACK_KING, black & kings)
+                ^ sideKey(side);
+    }
+}
@@ -39,25 +39,23 @@ public class BoardOutput extends JTextArea {
     /**
      * Fehér győzelem jelzése a kimeneten.
      * Hozzáadja a jelenlegi vagyis győztes játékost a leaderboardhoz, majd frissíti a leaderboardot, hogy megjelenjen a játékos a képernyőn.
-     * Elmenti azonnal a leaderboardot fájlba.
+     * Az eredményt a ranglista azonnal a naplójához fűzi.
      */
     public void whiteWon() {
         setText("GAME OVER\n" + players[0].toString() + " WON with " + players[0].getMovecount() + " moves");
         leaderBoard.addPlayer(getCurrentPlayer(), getCurrentPlayer().getMovecount());
         leaderBoard.updateList();
-        leaderBoard.save("leaderboard.txt");
     }
 
     /**
      * Fekete győzelem jelzése a kimeneten.
      * Hozzáadja a jelenlegi vagyis győztes játékost a leaderboardhoz, majd frissíti a leaderboardot, hogy megjelenjen a játékos a képernyőn.
-     * Elmenti azonnal a leaderboardot fájlba.
+     * Az eredményt a ranglista azonnal a naplójához fűzi.
      */
     public void blackWon() {
         setText("GAME OVER\n" + players[1].toString() + " WON with " + players[1].getMovecount() + " moves");
         leaderBoard.addPlayer(getCurrentPlayer(), getCurrentPlayer().getMovecount());
         leaderBoard.updateList();
-        leaderBoard.save("leaderboard.txt");
     }
 
     /**
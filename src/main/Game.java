@@ -1,18 +1,34 @@
 package main;
 
 import board.Board;
+import book.OpeningBook;
+import engine.Evaluation;
+import engine.SearchResult;
+import logic.BitBoard;
 import logic.CursorInput;
-import pieces.Piece;
+import players.ComputerPlayer;
 import players.Player;
+import tablebase.TablebaseProbe;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A Game osztály a játék fő komponenseit és logikáját foglalja magába.
  * Tartalmazza a főablakot, a játéktáblát, a ranglistát és egy szövegkimeneti mezőt.
  * Az osztály lehetőséget biztosít a játék inicializálására, mentésére és betöltésére, illetve a játékhoz kapcsolódó felhasználói felület elemeinek kezelésére.
+ * Ha a soron következő játékos számítógépes játékos, a lépését egy háttérszálon keresi meg, és az eseménykezelő szálon hajtja végre,
+ * így a felület keresés közben sem fagy le.
+ * Ember elleni játékban a számítógépes játékos a saját lépése után az ember gondolkodási ideje alatt (pl. amíg a bábut húzza)
+ * a várható válasz utáni állást keresi. Ha az ember valóban azt lépi, a keresés időkorláttal folytatódik, vagy ha már kész,
+ * az eredménye azonnal lép. Ha mást lép, a várakozó keresés leáll, és a szokásos keresés indul.
+ * Ha a tablebases könyvtárban vannak végjáték táblák, a játék végének ellenőrzése és a számítógépes játékosok is használják őket.
+ * Ha van megnyitás könyv (book.ckbk), a számítógépes játékosok a könyvben szereplő állásokban keresés nélkül lépnek.
+ * Ha van súly fájl (evaluation.properties), a számítógépes játékosok az abban megadott súlyokkal értékelnek.
  */
 public class Game {
 
@@ -21,13 +37,38 @@ public class Game {
     private LeaderBoard leaderBoard;
     private BoardOutput textArea;
 
+    private ExecutorService computerExecutor; // A számítógépes játékos keresését futtató háttérszál.
+    private ComputerPlayer thinkingPlayer; // A jelenleg gondolkodó számítógépes játékos, vagy null.
+    private long thinkingTicket; // Ha a gondolkodás egy eltalált várakozó keresés, annak sorszáma, különben 0.
+    private ComputerPlayer ponderingPlayer; // Az ember idejében kereső számítógépes játékos, vagy null.
+    private long ponderTicket; // A várakozó keresés sorszáma.
+    private long ponderHash; // A várható válasz utáni állás kulcsa.
+    private SearchResult ponderResult; // A várakozó keresés eredménye, ha a válasz előtt befejeződött.
+    private boolean disposed; // Igaz, ha a játékot már lecserélték, ekkor nem indul új keresés.
+    private TablebaseProbe tablebase; // A végjáték táblák, ha vannak a tablebases könyvtárban.
+    private OpeningBook book; // A megnyitás könyv, ha van.
+
     /**
      * Alapértelmezett konstruktor, üres táblát hoz létre.
      */
     public Game() {
         board = new Board();
+        leaderBoard = LeaderBoard.load(board);
+    }
+
+    /**
+     * Ablak nélküli konstruktor két játékossal (pl. mérésekhez). Kezdőállású táblát, üres ranglistát és szövegkimenetet hoz létre,
+     * fájlt nem olvas, és nem indít számítógépes keresést.
+     *
+     * @param p1 Az első játékos.
+     * @param p2 A második játékos.
+     */
+    public Game(Player p1, Player p2) {
+        board = new Board();
+        board.initBoard();
         leaderBoard = new LeaderBoard(board);
-        leaderBoard = leaderBoard.loadLeaderBoard("leaderboard.txt", board);
+        textArea = new BoardOutput(leaderBoard, board, p1, p2);
+        board.setOutputArea(textArea);
     }
 
     /**
@@ -63,8 +104,7 @@ public class Game {
         c.weightx = 0;
         c.weighty = 0;
 
-        leaderBoard = new LeaderBoard(board);
-        leaderBoard = leaderBoard.loadLeaderBoard("leaderboard.txt", board);
+        leaderBoard = LeaderBoard.load(board);
         frame.add(leaderBoard, c);
 
         c.gridx =1;
@@ -78,11 +118,176 @@ public class Game {
         board.setOutputArea(textArea);
         frame.add(textArea, c);
 
-        CursorInput input = new CursorInput(board, board.getGameLogic());
+        tablebase = TablebaseProbe.open(Paths.get(TablebaseProbe.DEFAULT_DIRECTORY), TablebaseProbe.DEFAULT_CACHE_BLOCKS);
+        book = OpeningBook.open(Paths.get(OpeningBook.DEFAULT_FILE));
+        Evaluation evaluation = Evaluation.open(Paths.get(Evaluation.DEFAULT_FILE));
+        board.setTablebase(tablebase);
+        for (Player p : textArea.getPlayers()) {
+            if (p instanceof ComputerPlayer computer) {
+                computer.setTablebase(tablebase);
+                computer.setOpeningBook(book);
+                computer.setEvaluation(evaluation);
+            }
+        }
+
+        CursorInput input = new CursorInput(board);
         board.addMouseListener(input);
         board.addMouseMotionListener(input);
 
+        board.setTurnListener(() -> SwingUtilities.invokeLater(this::requestComputerMove));
         board.showPlayer();
+        SwingUtilities.invokeLater(this::requestComputerMove);
+    }
+
+    /**
+     * Ha a soron következő játékos számítógépes játékos, és nem gondolkodik már, elindítja a keresést egy háttérszálon.
+     * A keresés az állás másolatán fut. Az eredményt az eseménykezelő szálon hajtja végre, de csak akkor,
+     * ha közben nem változott az állás (pl. visszavonás miatt) és a játékot nem cserélték le.
+     * Az eseménykezelő szálon kell hívni.
+     */
+    private void requestComputerMove() {
+        if (disposed || thinkingPlayer != null || textArea == null || board.isGameWon()) {
+            cancelPondering();
+            return;
+        }
+        if (!(textArea.getCurrentPlayer() instanceof ComputerPlayer computer)) return;
+        if (ponderingPlayer == computer && board.getHash() == ponderHash) {
+            ponderingPlayer = null;
+            if (ponderResult != null) {
+                applyResult(ponderResult, ponderHash);
+                return;
+            }
+            computer.ponderHit(ponderTicket); // Ha közben befejeződött, az eredménye úton van a ponderFinished felé.
+            thinkingPlayer = computer;
+            thinkingTicket = ponderTicket;
+            return;
+        }
+        cancelPondering();
+
+        BitBoard snapshot = snapshot();
+        long hash = snapshot.getHash();
+        thinkingPlayer = computer;
+        thinkingTicket = 0;
+        executor().execute(() -> {
+            SearchResult result = computer.chooseMove(snapshot);
+            SwingUtilities.invokeLater(() -> applyComputerMove(computer, result, hash));
+        });
+    }
+
+    /**
+     * Végrehajtja a számítógépes játékos által választott lépést, ha az állás azóta nem változott.
+     */
+    private void applyComputerMove(ComputerPlayer computer, SearchResult result, long hash) {
+        if (thinkingPlayer != computer || thinkingTicket != 0) return;
+        thinkingPlayer = null;
+        applyResult(result, hash);
+    }
+
+    /**
+     * Végrehajtja a lépést, ha az állás nem változott, majd ember elleni játékban elindítja a várakozó keresést.
+     */
+    private void applyResult(SearchResult result, long hash) {
+        if (disposed || board.isGameWon() || board.getHash() != hash || result == null || !result.hasMove()) return;
+        ComputerPlayer mover = (ComputerPlayer) textArea.getCurrentPlayer();
+        board.makeSequence(result.getMove(), result.getCapturedSet());
+        board.repaint();
+        startPondering(mover);
+    }
+
+    /**
+     * Ha ember következik, a számítógépes játékos a várható válasza utáni állást kezdi keresni a háttérszálon.
+     * A jóslat az előző keresés transzpozíciós táblájából származik, ha nincs jóslat, nem indul várakozó keresés.
+     */
+    private void startPondering(ComputerPlayer computer) {
+        if (disposed || board.isGameWon() || textArea.getCurrentPlayer() instanceof ComputerPlayer) return;
+        BitBoard predicted = computer.ponderPosition(snapshot());
+        if (predicted == null) return;
+        long ticket = computer.preparePonder();
+        ponderingPlayer = computer;
+        ponderTicket = ticket;
+        ponderHash = predicted.getHash();
+        ponderResult = null;
+        executor().execute(() -> {
+            SearchResult result = computer.ponder(predicted, ticket);
+            SwingUtilities.invokeLater(() -> ponderFinished(computer, ticket, result));
+        });
+    }
+
+    /**
+     * A várakozó keresés befejeződött. Ha az ember még nem lépett, az eredményt eltárolja, ha a várt lépést tette, végrehajtja.
+     */
+    private void ponderFinished(ComputerPlayer computer, long ticket, SearchResult result) {
+        if (ponderingPlayer == computer && ponderTicket == ticket) {
+            ponderResult = result;
+        } else if (thinkingPlayer == computer && thinkingTicket == ticket) {
+            thinkingPlayer = null;
+            thinkingTicket = 0;
+            applyResult(result, board.getHash());
+        }
+    }
+
+    /**
+     * Leállítja a folyamatban levő várakozó keresést.
+     */
+    private void cancelPondering() {
+        if (ponderingPlayer != null) {
+            ponderingPlayer.cancelPonder(ponderTicket);
+            ponderingPlayer = null;
+            ponderResult = null;
+        }
+    }
+
+    /**
+     * @return A tábla aktuális állásának másolata a háttérszál számára.
+     */
+    private BitBoard snapshot() {
+        BitBoard current = board.getPosition();
+        return new BitBoard(current.getWhite(), current.getBlack(), current.getKings(), current.getSideToMove());
+    }
+
+    private ExecutorService executor() {
+        if (computerExecutor == null) {
+            computerExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "computer-player");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return computerExecutor;
+    }
+
+    /**
+     * @return Igaz, ha a számítógépes játékos éppen keres.
+     */
+    public boolean isComputerThinking() {
+        return thinkingPlayer != null;
+    }
+
+    /**
+     * @return Igaz, ha a számítógépes játékos az ember gondolkodási ideje alatt keres.
+     */
+    public boolean isPondering() {
+        return ponderingPlayer != null;
+    }
+
+    /**
+     * Leállítja a folyamatban levő keresést, a háttérszálat és a számítógépes játékosok keresőszálait.
+     * A játék lecserélése előtt kell hívni.
+     */
+    public void dispose() {
+        disposed = true;
+        cancelPondering();
+        if (thinkingPlayer != null) {
+            thinkingPlayer.stopThinking();
+            thinkingPlayer = null;
+        }
+        for (Player p : textArea == null ? new Player[0] : textArea.getPlayers()) {
+            if (p instanceof ComputerPlayer computer) computer.shutdown();
+        }
+        if (computerExecutor != null) {
+            computerExecutor.shutdownNow();
+        }
+        if (leaderBoard != null) leaderBoard.close();
     }
 
     /**
@@ -92,6 +297,35 @@ public class Game {
         board.loadPieceImages();
     }
 
+    /**
+     * Visszavonja az utolsó lépést a táblán, majd újrarajzolja azt.
+     * Ha a visszavonás után számítógépes játékos következne, az ő lépéseit is visszavonja,
+     * így az ember ismét a saját lépése előtti állásba kerül. Ha két számítógépes játékos játszik, újraindítja a keresést.
+     * Amíg a számítógépes játékos gondolkodik, nem vonható vissza lépés.
+     * @return Igaz, ha volt visszavonható lépés.
+     */
+    public boolean undoMove() {
+        if (thinkingPlayer != null) {
+            return false;
+        }
+        cancelPondering();
+        if (!board.unmakeMove()) {
+            return false;
+        }
+        Player[] players = textArea.getPlayers();
+        boolean bothComputers = players[0] instanceof ComputerPlayer && players[1] instanceof ComputerPlayer;
+        while (!bothComputers && textArea.getCurrentPlayer() instanceof ComputerPlayer && board.getUndoDepth() > 0) {
+            if (!board.unmakeMove()) break;
+        }
+        board.repaint();
+        requestComputerMove();
+        return true;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
     /**
      * Ellenőrzi, hogy véget ért-e a játék.
      * @return Igaz, ha a játék véget ért, különben hamis.
@@ -101,61 +335,38 @@ public class Game {
     }
 
     /**
-     * Elmenti a játéktábla és a játékosok állapotát fájlokba.
+     * Elmenti az állást, az ütéskényszert és a játékosokat egy bináris mentés fájlba (SaveFile).
      *
-     * @param gmfilename A játéktábla állapotát tároló fájl neve.
-     * @param pnfilename A játékosok adatait tároló fájl neve.
-     */
-    public void save(String gmfilename, String pnfilename) {
-        try (FileOutputStream f = new FileOutputStream(gmfilename);
-             ObjectOutputStream out = new ObjectOutputStream(f)) {
-            out.writeObject((Piece[][]) board.getPieces());
-            System.out.println("Game saved with filename: " + gmfilename);
+     * @param filename A mentés fájl neve.
+     * @return Igaz, ha sikerült a mentés.
+     */
+    public boolean save(String filename) {
+        try {
+            toSaveFile().write(Paths.get(filename));
+            System.out.println("Game saved with filename: " + filename);
+            return true;
         } catch (IOException e) {
             System.err.println("Error while saving the game: " + e.getMessage());
             e.printStackTrace();
-        }
-
-        try (FileOutputStream f = new FileOutputStream(pnfilename);
-             ObjectOutputStream out = new ObjectOutputStream(f)) {
-            out.writeObject(textArea.getPlayers());
-            System.out.println("Players saved with filename: " + pnfilename);
-        } catch (IOException e) {
-            System.err.println("Error while saving the players: " + e.getMessage());
-            e.printStackTrace();
+            return false;
         }
     }
 
     /**
-     * Betölti a játéktábla állapotát egy adott fájlból.
-     *
-     * @param filename A betöltendő fájl neve.
-     */
-    public void loadGame(String filename) {
-        // Load the game state
-        try (FileInputStream f2 = new FileInputStream(filename);
-             ObjectInputStream o = new ObjectInputStream(f2)) {
-             board.setPieces((Piece[][]) o.readObject());
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading game: " + e.getMessage());
-            e.printStackTrace();
-        }
+     * @return A játék jelenlegi állapota mentéshez.
+     */
+    public SaveFile toSaveFile() {
+        return new SaveFile(board.getPosition(), board.getCaptureLock(), board.getState().getLockedSquare(), textArea.getPlayers());
     }
 
     /**
-     * Betölti a játékosok adatait egy adott fájlból.
+     * Visszaállítja a táblát egy elmentett játék állására. A játékosokat a mentésből a konstruktor kapja.
      *
-     * @param filename A betöltendő fájl neve.
-     * @return A betöltött játékosok tömbje, vagy null hiba esetén.
-     */
-    public Player[] loadPlayers(String filename) {
-        try (FileInputStream f2 = new FileInputStream(filename);
-             ObjectInputStream o = new ObjectInputStream(f2)) {
-             return ((Player[]) o.readObject());
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("Error loading players: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return null;
+     * @param save A mentés.
+     */
+    public void load(SaveFile save) {
+        board.setPosition(save.getPosition(), save.isCaptureLocked(), save.getLockedSquare());
+        board.showPlayer();
+        board.repaint();
     }
 }
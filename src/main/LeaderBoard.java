@@ -6,31 +6,52 @@ import players.Player;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * A LeaderBoard osztály a játékosok pontszámainak megjelenítéséért és kezeléséért felelős.
  * Ez az osztály JPanelként működik, így könnyen integrálható a GUI-ba.
- * Lehetőséget nyújt a játékosok listájának frissítésére, új játékosok hozzáadására, illetve a ranglista mentésére és betöltésére fájlokból.
+ * Lehetőséget nyújt a játékosok listájának frissítésére és új játékosok hozzáadására.
+ * A pontszámokat egy ScoreStore tárolja; a panel csak megjeleníti őket, és maga már nem kerül fájlba.
  */
 public class LeaderBoard extends JPanel implements Serializable {
     static final long serialVersionUID = 1L;
 
-    private final HashMap<String, Integer> LB = new HashMap<>(); // A játékosok pontszámainak tárolására szolgáló adatstruktúra.
+    public static final String SNAPSHOT_FILE = "leaderboard.dat"; // A pontszámok pillanatképe.
+    public static final String LOG_FILE = "leaderboard.log"; // Az új eredmények naplója.
+    public static final String LEGACY_FILE = "leaderboard.txt"; // A régi, szerializált panelt tartalmazó fájl.
+
+    private final HashMap<String, Integer> LB; // A játékosok pontszámainak tárolására szolgáló adatstruktúra, a tároló táblája.
     private final DefaultListModel<String> listModel = new DefaultListModel<>(); // A JList modellje, amely a megjelenített adatokat tartalmazza.
+    private transient ScoreStore store; // A pontszámok tárolója.
 
     private static final int lbWidth = 120;
 
+    /**
+     * Létrehozza a LeaderBoardot egy csak memóriában élő, üres tárolóval.
+     *
+     * @param board A játéktábla referenciaja, amelynek magassága alapján méretezi a ranglistát.
+     */
+    public LeaderBoard (Board board) {
+        this(board, new ScoreStore());
+    }
+
     /**
      * Létrehozza a LeaderBoardot.
      * Beállítja a ranglista megjelenítéséhez szükséges elrendezést, panelméretet és alapvető stílusokat.
      * Hozzáadja a listModel-t.
      *
      * @param board A játéktábla referenciaja, amelynek magassága alapján méretezi a ranglistát.
+     * @param store A pontszámok tárolója.
      */
-    public LeaderBoard (Board board) {
+    public LeaderBoard (Board board, ScoreStore store) {
         super(new BorderLayout());
+        this.store = store;
+        LB = store.getScores();
         setBackground(Color.blue);
         setPreferredSize(new Dimension(lbWidth, board.getHeightofBoard()/2));
         setMinimumSize(new Dimension(lbWidth, board.getHeightofBoard()/2));
@@ -76,14 +97,18 @@ public class LeaderBoard extends JPanel implements Serializable {
 
     /**
      * Új játékost ad hozzá a ranglistához, vagy frissíti a pontszámát, ha már létezik.
-     * Ha a játékos már szerepel, csak akkor frissíti a pontszámot, ha az új pontszám kisebb.
+     * Ha a játékos már szerepel, csak akkor frissíti a pontszámot, ha az új pontszám kisebb. A változást a tároló azonnal fájlba írja.
      *
      * @param player A hozzáadandó játékos.
      * @param score Az új pontszám.
      */
     public void addPlayer(Player player, int score) {
-        if (!containsPlayer(player)) LB.put(player.toString(), score);
-        else if (LB.get(player.toString()) > score) LB.put(player.toString(), score);
+        try {
+            store.record(player.toString(), score);
+        } catch (IOException e) {
+            System.err.println("Error while saving the leaderboard: " + e.getMessage());
+            e.printStackTrace();
+        }
     }
 
     public int getLbWidth() {
@@ -98,60 +123,76 @@ public class LeaderBoard extends JPanel implements Serializable {
         return LB;
     }
 
+    public ScoreStore getStore() {
+        return store;
+    }
+
     /**
-     * Elmenti a ranglistát egy fájlba.
-     *
-     * @param lbfilename A fájl neve, amelybe a ranglistát menti.
+     * Lezárja a tárolót.
      */
-    public void save(String lbfilename) {
-        try (FileOutputStream f = new FileOutputStream(lbfilename);
-             ObjectOutputStream out = new ObjectOutputStream(f)) {
-            out.writeObject(this);
-            System.out.println("Leaderboard saved with filename: " + lbfilename);
+    public void close() {
+        try {
+            store.close();
         } catch (IOException e) {
-            System.err.println("Error while saving the leaderboard: " + e.getMessage());
+            System.err.println("Error while closing the leaderboard: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
     /**
-     * Betölti a ranglistát egy fájlból, vagy új fájlt hoz létre, ha nem létezik.
+     * Betölti a ranglistát a munkakönyvtárban levő fájlokból. Ha még nincsenek, de van régi formátumú ranglista, azt átveszi.
+     * Ha a fájlok nem olvashatók, üres, csak memóriában élő ranglistát ad.
      *
-     * @param lbfilename A fájl neve, amelyből a ranglistát betölti.
      * @param board A játéktábla referenciaja.
      * @return A betöltött vagy újonnan létrehozott LeaderBoard objektum.
      */
-    public LeaderBoard loadLeaderBoard(String lbfilename, Board board) {
-        File lbFile = new File(lbfilename);
-
-        if (lbFile.exists()) {
-            // If the file exists, try loading the leaderboard
-            try (FileInputStream f2 = new FileInputStream(lbFile);
-                 ObjectInputStream o = new ObjectInputStream(f2)) {
-                return (LeaderBoard) o.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Error loading leaderboard: " + e.getMessage());
-                e.printStackTrace();
-            }
-        } else {
-            // If the file doesn't exist, create a new one and initialize the leaderboard
-            System.out.println("Leaderboard file not found. Creating a new leaderboard file.");
-
-            // Initialize a new LeaderBoard
-            LeaderBoard newLeaderBoard = new LeaderBoard(board);
-
-            // Create and save the new leaderboard file
-            try (FileOutputStream f2 = new FileOutputStream(lbfilename);
-                 ObjectOutputStream o = new ObjectOutputStream(f2)) {
-                o.writeObject(newLeaderBoard);
-                System.out.println("New leaderboard file created.");
-            } catch (IOException e) {
-                System.err.println("Error saving leaderboard: " + e.getMessage());
-                e.printStackTrace();
+    public static LeaderBoard load(Board board) {
+        return load(board, Paths.get(SNAPSHOT_FILE), Paths.get(LOG_FILE), Paths.get(LEGACY_FILE));
+    }
+
+    /**
+     * Betölti a ranglistát a megadott fájlokból. Ha még nincsenek, de a régi fájl létezik, annak pontszámaiból pillanatképet ír.
+     *
+     * @param board A játéktábla referenciaja.
+     * @param snapshot A pillanatkép fájl.
+     * @param log A napló fájl.
+     * @param legacy A régi formátumú fájl.
+     * @return A betöltött vagy újonnan létrehozott LeaderBoard objektum.
+     */
+    public static LeaderBoard load(Board board, Path snapshot, Path log, Path legacy) {
+        boolean importLegacy = !Files.exists(snapshot) && !Files.exists(log) && Files.exists(legacy);
+        try {
+            ScoreStore store = ScoreStore.open(snapshot, log);
+            if (importLegacy) {
+                store.getScores().putAll(readLegacy(legacy));
+                store.compact();
+                System.out.println("Leaderboard imported from " + legacy);
             }
+            return new LeaderBoard(board, store);
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error loading leaderboard: " + e.getMessage());
+            e.printStackTrace();
+            return new LeaderBoard(board);
+        }
+    }
 
-            return newLeaderBoard;  // Return the new leaderboard
+    /**
+     * Beolvassa a régi ranglista fájlt, amely a teljes szerializált panelt tartalmazza.
+     */
+    private static Map<String, Integer> readLegacy(Path legacy) throws IOException, ClassNotFoundException {
+        try (InputStream f = Files.newInputStream(legacy);
+             ObjectInputStream o = new ObjectInputStream(new BufferedInputStream(f))) {
+            Object value = o.readObject();
+            if (!(value instanceof LeaderBoard old)) throw new IOException("Invalid leaderboard file: " + legacy);
+            return old.getLB();
         }
-        return null;
+    }
+
+    /**
+     * Szerializált panel beolvasásakor a pontszámokat egy memóriában élő tárolóba teszi.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        store = new ScoreStore(LB);
     }
 }
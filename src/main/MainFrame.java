@@ -1,14 +1,16 @@
 package main;
 
 import pieces.PieceColor;
+import players.ComputerPlayer;
 import players.Player;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * JFrame-et megvalósító MainFrame osztály. Tárolja az aktuális játékot, illetve a menüt a játék vezérléséhez.
@@ -21,11 +23,15 @@ public class MainFrame extends JFrame {
 
     private static final int size = 800;
 
+    private static final String SAVE_FILE = "game.sav"; // A mentés fájl
+    private static final String LEGACY_GAME_FILE = "game.txt"; // A régi formátumú mentés bábui
+    private static final String LEGACY_PLAYERS_FILE = "players.txt"; // A régi formátumú mentés játékosai
+
     /**
      * Alapértelmezett konstruktor, amely meghívja az ősét a kapott String címmel.
      * Beállítja a frame méretét, illetve az ablak közepére helyezi a frame-et.
      * A leállításhoz egy inner class-t állít be, amely WindowAdapter-től származik.
-     * Létrehoz egy üres Game-et, illetve egy menüt, amelyben választhatunk, hogy új Game-et hozunk létre, mentünk, vagy töltünk be.
+     * Létrehoz egy üres Game-et, illetve egy menüt, amelyben választhatunk, hogy új Game-et hozunk létre, mentünk, töltünk be, vagy lépést vonunk vissza.
      * Ehhez az actionListener-eken belül saját függvényeket használ.
      *
      * @param title
@@ -65,6 +71,9 @@ public class MainFrame extends JFrame {
         JMenuItem saveGameMenuItem = new JMenuItem("Save Game");
         saveGameMenuItem.addActionListener(e -> saveCurrentGame());
 
+        JMenuItem undoMoveMenuItem = new JMenuItem("Undo Move");
+        undoMoveMenuItem.addActionListener(e -> undoMove());
+
         JMenuItem loadGameMenuItem = new JMenuItem("Load Game");
         loadGameMenuItem.addActionListener(e -> {
             try {
@@ -79,6 +88,7 @@ public class MainFrame extends JFrame {
         gameMenu.add(newGameMenuItem);
         gameMenu.add(saveGameMenuItem);
         gameMenu.add(loadGameMenuItem);
+        gameMenu.add(undoMoveMenuItem);
 
         menuBar.add(gameMenu);
 
@@ -111,7 +121,7 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Új játékot indít, ehhez bekéri a player neveket, majd törli a meglévő elemeket.
+     * Új játékot indít, ehhez bekéri a playereket, majd leállítja a régi játékot és törli a meglévő elemeket.
      * A game-be létrehoz egy új Game-et, a megfelelő adatokkal.
      * A bábukhoz betölti a képeket, majd frissíti az egész frame-et, hogy minden megjelenjen.
      *
@@ -119,11 +129,12 @@ public class MainFrame extends JFrame {
      * @throws ClassNotFoundException A Game létrehozása dobhatja.
      */
     private void startNewGame() throws IOException, ClassNotFoundException {
-        String[] playerNames = requestPlayerNames(this);
+        Player[] players = requestPlayers(this);
 
-        if (playerNames != null) {
+        if (players != null) {
+            game.dispose();
             clearFrame();
-            game = new Game(this, new Player(playerNames[0], PieceColor.WHITE), new Player(playerNames[1], PieceColor.BLACK)); // Create a new game
+            game = new Game(this, players[0], players[1]); // Create a new game
             game.loadBoardImages();
             this.revalidate();
             this.repaint();
@@ -131,15 +142,17 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Ha a game létezik és nem ért még véget, akkor elmenti a játék állapotát:
-     *  - a board 2D pieces tömbjét a game.txt fájlba.
-     *  - az outputArea-ból a játékosok 2 elemű tömbjét a players.txt fájlba.
+     * Ha a game létezik és nem ért még véget, akkor elmenti a játék állapotát (az állást és a játékosokat) a game.sav fájlba.
      * Ha a game véget ért vagy nem létezik game, akkor a megfelelő hibaüzenetet írja ki a felhasználónak.
      */
     private void saveCurrentGame() {
         if (game != null && !game.isGameOver()) {
-            game.save("game.txt", "players.txt");
-            JOptionPane.showMessageDialog(this, "Game saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            if (game.save(SAVE_FILE)) {
+                JOptionPane.showMessageDialog(this, "Game saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            }
+            else {
+                JOptionPane.showMessageDialog(this, "Game can't be saved!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
         else if (game != null && game.isGameOver()) {
             JOptionPane.showMessageDialog(this, "Game can't be saved! Game is already won.", "Warning", JOptionPane.WARNING_MESSAGE);
@@ -150,28 +163,51 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Betölti a legutóbb elmentett játékot.
-     * Ha nem létezik valamelyik fájl, akkor hibaüzenetet dob a felhasználónak.
-     * Egyébként először törli a meglévő elemeket a frame-ben, majd betölti a playereket, és ez alapján létrehozza a game-et.
+     * Visszavonja az utolsó lépést az aktuális játékban.
+     * Ha nincs visszavonható lépés, vagy a játék már véget ért, figyelmeztetést ír ki a felhasználónak.
+     */
+    private void undoMove() {
+        if (game == null || !game.undoMove()) {
+            JOptionPane.showMessageDialog(this, "No move to undo!", "Warning", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    /**
+     * Betölti a legutóbb elmentett játékot a game.sav fájlból. Ha az nem létezik, de megvannak a régi formátumú
+     * game.txt és players.txt fájlok, azokat importálja.
+     * Ha nincs mentés, vagy nem olvasható, akkor hibaüzenetet dob a felhasználónak.
+     * Egyébként először törli a meglévő elemeket a frame-ben, majd a mentés játékosaival létrehozza a game-et, és visszaállítja az állást.
      * A bábukhoz betölti a képeket, majd frissíti az egész frame-et, hogy minden megjelenjen.
      *
-     * @throws IOException A Game betöltése dobhatja.
-     * @throws ClassNotFoundException A Game betöltése dobhatja.
+     * @throws IOException A Game létrehozása dobhatja.
+     * @throws ClassNotFoundException A Game létrehozása dobhatja.
      */
     private void loadGame() throws IOException, ClassNotFoundException {
-        File f1 = new File("game.txt");
-        File f2 = new File("players.txt");
-
-        if (!f1.exists() || !f2.exists()) {
-            JOptionPane.showMessageDialog(this, "Game file(s) missing.\nCan't load game.", "Warning", JOptionPane.WARNING_MESSAGE);
+        SaveFile save;
+        try {
+            if (Files.exists(Paths.get(SAVE_FILE))) {
+                save = SaveFile.read(Paths.get(SAVE_FILE));
+            }
+            else if (Files.exists(Paths.get(LEGACY_GAME_FILE)) && Files.exists(Paths.get(LEGACY_PLAYERS_FILE))) {
+                save = SaveFile.importLegacy(Paths.get(LEGACY_GAME_FILE), Paths.get(LEGACY_PLAYERS_FILE));
+            }
+            else {
+                JOptionPane.showMessageDialog(this, "Game file(s) missing.\nCan't load game.", "Warning", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading game: " + e.getMessage());
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Game file is damaged.\nCan't load game.", "Warning", JOptionPane.WARNING_MESSAGE);
             return;
         }
 
+        game.dispose();
         clearFrame();
 
-        Player[] players = game.loadPlayers("players.txt");
+        Player[] players = save.getPlayers();
         game = new Game(this, players[0], players[1]);
-        game.loadGame("game.txt");
+        game.load(save);
         game.loadBoardImages();
 
         this.revalidate();
@@ -190,27 +226,32 @@ public class MainFrame extends JFrame {
 
     /**
      * Új játék indítása esetén, a player nevek felhasználótól való bekérésére szolgál.
-     * Lérehoz egy új JPanel-t a képernyő közepén, benne JTextFieldekkel.
+     * Lérehoz egy új JPanel-t a képernyő közepén, benne JTextFieldekkel, illetve játékosonként egy JCheckBox-szal,
+     * amellyel az adott színt a számítógép irányíthatja.
      * A bekért neveknek nem üresnek, és egymástól különbözőnek kell lenniük,
      * ha az ezek nem teljesülnek, újbóli beírást kér a felhasználótól.
      * Ha cancel-t nyom a felhasználó, akkor null-t ad vissza.
-     * Ha sikeres a beírás, visszadja a playerek neveit tartalmazó tömböt.
+     * Ha sikeres a beírás, visszadja a playereket tartalmazó tömböt (a kiválasztott színeknél ComputerPlayer-t).
      *
      * @param frame A frame, amelyen megjelenik.
-     * @return Stringek tömbje, mely tartalmazza a playerek nevét.
+     * @return A fehér és a fekete playert tartalmazó tömb.
      */
-    private String[] requestPlayerNames(JFrame frame) {
-        JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
+    private Player[] requestPlayers(JFrame frame) {
+        JPanel panel = new JPanel(new GridLayout(4, 2, 10, 10));
 
         JLabel player1Label = new JLabel("Player 1 (White Piece):");
         JTextField player1Field = new JTextField();
         JLabel player2Label = new JLabel("Player 2 (Black Piece):");
         JTextField player2Field = new JTextField();
+        JCheckBox player1Computer = new JCheckBox("White: Computer");
+        JCheckBox player2Computer = new JCheckBox("Black: Computer");
 
         panel.add(player1Label);
         panel.add(player1Field);
         panel.add(player2Label);
         panel.add(player2Field);
+        panel.add(player1Computer);
+        panel.add(player2Computer);
 
         while (true) {
             int result = JOptionPane.showConfirmDialog(frame, panel, "Enter Player Names", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
@@ -227,7 +268,10 @@ public class MainFrame extends JFrame {
             } else if (player1.equalsIgnoreCase(player2)) {
                 JOptionPane.showMessageDialog(frame, "Player names must be different!","Invalid Input", JOptionPane.ERROR_MESSAGE);
             } else {
-                return new String[]{player1, player2};
+                return new Player[]{
+                        player1Computer.isSelected() ? new ComputerPlayer(player1, PieceColor.WHITE) : new Player(player1, PieceColor.WHITE),
+                        player2Computer.isSelected() ? new ComputerPlayer(player2, PieceColor.BLACK) : new Player(player2, PieceColor.BLACK)
+                };
             }
         }
     }
@@ -0,0 +1,279 @@
+package main;
+
+import logic.BitBoard;
+import pieces.Piece;
+import pieces.PieceColor;
+import players.ComputerPlayer;
+import players.Player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Egy elmentett játék: az állás, az ütéskényszer és a két játékos, verziózott bináris formátumban.
+ *
+ * A fájl felépítése (nagy endián):
+ *  - fejléc, 8 bájt: "CKRS" azonosító, verzió (1 bájt), 3 fenntartott bájt;
+ *  - állás, 16 bájt: a fehér, a fekete és a királynő maszk (3 x 4 bájt), a lépő fél (0 fehér, 1 fekete),
+ *    az ütéskényszer jelzője, a tovább ütő bábu mezője + 1 (0, ha nincs), 1 fenntartott bájt;
+ *  - a játékosok száma (1 bájt), majd játékosonként: típus (0 ember, 1 számítógép), szín, soron következik-e,
+ *    lépésszám (4 bájt), a név UTF-8 hossza (2 bájt) és bájtjai, számítógépnél a mélység (4 bájt), a gondolkodási idő
+ *    (8 bájt), a szálak száma (4 bájt) és a pondering jelzője (1 bájt);
+ *  - a megelőző bájtok CRC32 ellenőrző összege (4 bájt).
+ * Egy játék mentése így néhány tíz bájt, a beolvasás nem használ Java szerializációt.
+ * A régi, ObjectOutputStream-mel írt game.txt és players.txt fájlok az importLegacy metódussal olvashatók be.
+ */
+public final class SaveFile {
+
+    public static final int VERSION = 1; // A jelenlegi formátum verziója.
+
+    private static final byte[] MAGIC = {'C', 'K', 'R', 'S'}; // A fájl azonosítója.
+    private static final int HEADER_BYTES = 8;
+    private static final int POSITION_BYTES = 16;
+    private static final int HUMAN = 0, COMPUTER = 1; // A játékos típusa.
+    private static final int MAX_NAME_BYTES = 0xFFFF; // A név legnagyobb hossza bájtban.
+
+    private final BitBoard position; // Az állás, a lépő féllel.
+    private final boolean captureLock; // Igaz, ha ütéssorozat közben mentettek.
+    private final int lockedSquare; // A tovább ütő bábu mezője, vagy -1.
+    private final Player[] players; // A fehér és a fekete játékos.
+
+    /**
+     * @param position Az állás (átmásolja).
+     * @param captureLock Igaz, ha ütéssorozat közben kell tovább ütni.
+     * @param lockedSquare A tovább ütő bábu mezője, vagy -1.
+     * @param players A fehér és a fekete játékos.
+     */
+    public SaveFile(BitBoard position, boolean captureLock, int lockedSquare, Player[] players) {
+        this.position = new BitBoard();
+        this.position.copyFrom(position);
+        this.captureLock = captureLock;
+        this.lockedSquare = captureLock ? lockedSquare : -1;
+        this.players = players;
+    }
+
+    public BitBoard getPosition() {
+        return position;
+    }
+
+    public boolean isCaptureLocked() {
+        return captureLock;
+    }
+
+    public int getLockedSquare() {
+        return lockedSquare;
+    }
+
+    public Player[] getPlayers() {
+        return players;
+    }
+
+    /**
+     * Elmenti a játékot. Először egy ideiglenes fájlba ír, majd átnevezi, így megszakadt mentés nem írja felül a régit.
+     *
+     * @param file A cél fájl.
+     * @throws IOException Ha az írás nem sikerül.
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(toBytes());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return A játék bináris alakja, ellenőrző összeggel.
+     */
+    public byte[] toBytes() {
+        byte[][] names = new byte[players.length][];
+        int size = HEADER_BYTES + POSITION_BYTES + 1 + 4;
+        for (int i = 0; i < players.length; i++) {
+            names[i] = players[i].toString().getBytes(StandardCharsets.UTF_8);
+            if (names[i].length > MAX_NAME_BYTES) throw new IllegalArgumentException("Player name too long: " + players[i]);
+            size += 9 + names[i].length + (players[i] instanceof ComputerPlayer ? 17 : 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC).put((byte) VERSION).put(new byte[3]);
+        buffer.putInt(position.getWhite()).putInt(position.getBlack()).putInt(position.getKings());
+        buffer.put((byte) (position.getSideToMove() == PieceColor.WHITE ? 0 : 1));
+        buffer.put((byte) (captureLock ? 1 : 0)).put((byte) (lockedSquare + 1)).put((byte) 0);
+        buffer.put((byte) players.length);
+        for (int i = 0; i < players.length; i++) {
+            Player p = players[i];
+            buffer.put((byte) (p instanceof ComputerPlayer ? COMPUTER : HUMAN));
+            buffer.put((byte) (p.getColor() == PieceColor.WHITE ? 0 : 1));
+            buffer.put((byte) (p.isCurrentPlayer() ? 1 : 0));
+            buffer.putInt(p.getMovecount());
+            buffer.putShort((short) names[i].length).put(names[i]);
+            if (p instanceof ComputerPlayer computer) {
+                buffer.putInt(computer.getMaxDepth()).putLong(computer.getTimeMillis()).putInt(computer.getThreads());
+                buffer.put((byte) (computer.isPondering() ? 1 : 0));
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Beolvas egy elmentett játékot.
+     *
+     * @param file A fájl.
+     * @return A játék.
+     * @throws IOException Ha a fájl nem olvasható, sérült, vagy ismeretlen a verziója.
+     */
+    public static SaveFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > 1 << 20) throw new IOException("Save file too large: " + file);
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {}
+            return fromBytes(buffer.array());
+        }
+    }
+
+    /**
+     * Beolvas egy játékot a bináris alakjából.
+     *
+     * @param data A bájtok.
+     * @return A játék.
+     * @throws IOException Ha az adat sérült, vagy ismeretlen a verziója.
+     */
+    public static SaveFile fromBytes(byte[] data) throws IOException {
+        if (data.length < HEADER_BYTES + POSITION_BYTES + 1 + 4) throw new IOException("Save file truncated");
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) throw new IOException("Not a save file");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) throw new IOException("Unsupported save file version: " + version);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()) throw new IOException("Save file checksum mismatch");
+
+        try {
+            buffer.position(HEADER_BYTES);
+            int white = buffer.getInt(), black = buffer.getInt(), kings = buffer.getInt();
+            PieceColor side = buffer.get() == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+            boolean captureLock = buffer.get() != 0;
+            int lockedSquare = (buffer.get() & 0xFF) - 1;
+            buffer.get();
+            if ((white & black) != 0 || (kings & ~(white | black)) != 0 || lockedSquare >= BitBoard.SQUARES) {
+                throw new IOException("Invalid position in save file");
+            }
+
+            Player[] players = new Player[buffer.get() & 0xFF];
+            for (int i = 0; i < players.length; i++) {
+                int type = buffer.get();
+                PieceColor color = buffer.get() == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+                boolean current = buffer.get() != 0;
+                int movecount = buffer.getInt();
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                Player p;
+                if (type == COMPUTER) {
+                    ComputerPlayer computer = new ComputerPlayer(new String(name, StandardCharsets.UTF_8), color, buffer.getInt(), buffer.getLong(), buffer.getInt());
+                    computer.setPondering(buffer.get() != 0);
+                    p = computer;
+                } else {
+                    p = new Player(new String(name, StandardCharsets.UTF_8), color);
+                }
+                p.setCurrentPlayer(current);
+                p.setMovecount(movecount);
+                players[i] = p;
+            }
+            if (buffer.remaining() != 4) throw new IOException("Unexpected data in save file");
+            return new SaveFile(new BitBoard(white, black, kings, side), captureLock, lockedSquare, players);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt save file", e);
+        }
+    }
+
+    /**
+     * Beolvas egy régi formátumú mentést: a game.txt a bábuk szerializált 2D tömbje, a players.txt a játékosok tömbje.
+     * A lépő felet a játékosok jelzője adja. A régi bábuk a táblájukat is magukkal vitték, ezért ez a beolvasás lassú és nagy.
+     *
+     * @param gameFile A bábukat tartalmazó fájl.
+     * @param playersFile A játékosokat tartalmazó fájl.
+     * @return A játék.
+     * @throws IOException Ha valamelyik fájl nem olvasható, vagy nem a várt tartalmú.
+     */
+    public static SaveFile importLegacy(Path gameFile, Path playersFile) throws IOException {
+        Player[] players = readLegacy(playersFile, Player[].class);
+        if (players.length != 2) throw new IOException("Invalid legacy save: " + playersFile);
+        PieceColor side = players[0].isCurrentPlayer() ? PieceColor.WHITE : PieceColor.BLACK;
+        return new SaveFile(BitBoard.fromPieces(readLegacy(gameFile, Piece[][].class), side), false, -1, players);
+    }
+
+    /**
+     * Beolvas egy régi formátumú állást (game.txt) a játékosok nélkül, pl. a Perft számára.
+     *
+     * @param gameFile A bábukat tartalmazó fájl.
+     * @param sideToMove A lépő fél.
+     * @return A játék, játékosok nélkül.
+     * @throws IOException Ha a fájl nem olvasható, vagy nem a várt tartalmú.
+     */
+    public static SaveFile importLegacy(Path gameFile, PieceColor sideToMove) throws IOException {
+        return new SaveFile(BitBoard.fromPieces(readLegacy(gameFile, Piece[][].class), sideToMove), false, -1, new Player[0]);
+    }
+
+    private static <T> T readLegacy(Path file, Class<T> type) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             ObjectInputStream o = new LegacyInputStream(in)) {
+            Object value = o.readObject();
+            if (!type.isInstance(value)) throw new IOException("Invalid legacy save: " + file);
+            return type.cast(value);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Invalid legacy save: " + file, e);
+        }
+    }
+
+    /**
+     * A régi mentések a bábuk tábláját, és vele a GameLogic-ot is tartalmazzák, amelynek nincs rögzített serialVersionUID-ja.
+     * Ha egy osztálynak csak az azonosítója változott, a szerializált mezői nem, a helyi leírót használja, így a régi fájl beolvasható.
+     */
+    private static final class LegacyInputStream extends ObjectInputStream {
+
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass stream = super.readClassDescriptor();
+            Class<?> local;
+            try {
+                local = Class.forName(stream.getName(), false, SaveFile.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return stream;
+            }
+            ObjectStreamClass current = ObjectStreamClass.lookup(local);
+            if (current == null || current.getSerialVersionUID() == stream.getSerialVersionUID() || !sameFields(stream, current)) return stream;
+            return current;
+        }
+
+        private static boolean sameFields(ObjectStreamClass a, ObjectStreamClass b) {
+            ObjectStreamField[] x = a.getFields(), y = b.getFields();
+            if (x.length != y.length) return false;
+            for (int i = 0; i < x.length; i++) {
+                if (!x[i].getName().equals(y[i].getName()) || x[i].getTypeCode() != y[i].getTypeCode()) return false;
+            }
+            return true;
+        }
+    }
+}
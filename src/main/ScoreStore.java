@@ -0,0 +1,275 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A ranglista pontszámainak felület nélküli tárolója: játékosnév szerint a legjobb (legkevesebb lépésből álló) győzelem.
+ *
+ * A pontszámok két fájlban vannak. A pillanatkép a teljes tömörített lista, a napló csak a hozzáfűzött új eredményeket tartalmazza,
+ * így egy játék vége egyetlen rövid rekord írása, a lista méretétől függetlenül. Ha a napló a listához képest túl hosszú lesz,
+ * a tároló új pillanatképet ír, és kiüríti a naplót. Megnyitáskor mindkét fájlt egyetlen olvasással pufferbe tölti, a pillanatképből
+ * felépíti a táblát, majd lejátssza a naplót. Mivel mindig a kisebb pontszám marad meg, egy rekord többszöri lejátszása sem változtat.
+ *
+ * A fájlok felépítése (nagy endián):
+ *  - pillanatkép: "CKLB" azonosító, verzió (1 bájt), 3 fenntartott bájt, a bejegyzések száma (4 bájt), bejegyzésenként
+ *    a név UTF-8 hossza (2 bájt) és bájtjai, a pontszám (4 bájt), végül az előző bájtok CRC32 ellenőrző összege (4 bájt);
+ *  - napló: "CKLL" azonosító, verzió (1 bájt), 3 fenntartott bájt, majd rekordonként a név hossza (2 bájt) és bájtjai, a pontszám (4 bájt)
+ *    és a rekord CRC32 ellenőrző összege (4 bájt). Az utolsó, félbeszakadt rekordot megnyitáskor levágja.
+ *
+ * Az osztály nem szálbiztos, a felület szálán kell használni.
+ */
+public final class ScoreStore implements AutoCloseable {
+
+    public static final int VERSION = 1; // A fájlok jelenlegi verziója.
+
+    private static final byte[] SNAPSHOT_MAGIC = {'C', 'K', 'L', 'B'}; // A pillanatkép azonosítója.
+    private static final byte[] LOG_MAGIC = {'C', 'K', 'L', 'L'}; // A napló azonosítója.
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_NAME_BYTES = 0xFFFF; // A név legnagyobb hossza bájtban.
+    private static final int MIN_COMPACT_RECORDS = 1024; // Ennél rövidebb naplót nem tömörít.
+
+    private final HashMap<String, Integer> scores; // A pontszámok játékosnév szerint.
+    private final Path snapshot; // A pillanatkép fájl, vagy null, ha a tároló csak memóriában él.
+    private final Path log; // A napló fájl, vagy null.
+    private FileChannel logChannel; // A naplóhoz hozzáfűző csatorna, vagy null.
+    private int logRecords; // A naplóban levő rekordok száma.
+
+    /**
+     * Üres, csak memóriában élő tároló, fájlba nem ír.
+     */
+    public ScoreStore() {
+        this(new HashMap<>());
+    }
+
+    /**
+     * Csak memóriában élő tároló a megadott pontszámokkal.
+     *
+     * @param scores A pontszámok, a tároló ezt a táblát használja.
+     */
+    ScoreStore(HashMap<String, Integer> scores) {
+        this.scores = scores;
+        this.snapshot = null;
+        this.log = null;
+    }
+
+    private ScoreStore(Path snapshot, Path log) {
+        this.scores = new HashMap<>();
+        this.snapshot = snapshot;
+        this.log = log;
+    }
+
+    /**
+     * Megnyitja a fájlokban tárolt ranglistát. A hiányzó fájlokat üresnek tekinti, a naplót létrehozza.
+     *
+     * @param snapshot A pillanatkép fájl.
+     * @param log A napló fájl.
+     * @return A tároló.
+     * @throws IOException Ha a fájlok nem olvashatók, vagy a pillanatkép sérült.
+     */
+    public static ScoreStore open(Path snapshot, Path log) throws IOException {
+        ScoreStore store = new ScoreStore(snapshot, log);
+        if (Files.exists(snapshot)) store.readSnapshot();
+        store.openLog();
+        return store;
+    }
+
+    /**
+     * @return A pontszámok élő táblája. A közvetlen módosítások nem kerülnek fájlba.
+     */
+    public HashMap<String, Integer> getScores() {
+        return scores;
+    }
+
+    /**
+     * @return A naplóban levő, még nem tömörített rekordok száma.
+     */
+    public int getLogRecords() {
+        return logRecords;
+    }
+
+    /**
+     * Rögzít egy győzelmet. Csak akkor változtat, ha a játékos még nem szerepel, vagy az új pontszám kisebb;
+     * ilyenkor a rekordot a naplóhoz fűzi, és szükség esetén tömörít.
+     *
+     * @param name A játékos neve.
+     * @param score A győzelemhez szükséges lépések száma.
+     * @return Igaz, ha a pontszám változott.
+     * @throws IOException Ha a napló vagy a pillanatkép írása nem sikerül. A memóriában levő pontszám ilyenkor is frissül.
+     */
+    public boolean record(String name, int score) throws IOException {
+        Integer previous = scores.get(name);
+        if (previous != null && previous <= score) return false;
+        scores.put(name, score);
+        if (logChannel == null) return true;
+
+        byte[] bytes = name(name);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + bytes.length + 8);
+        buffer.putShort((short) bytes.length).put(bytes).putInt(score);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue()).flip();
+        while (buffer.hasRemaining()) logChannel.write(buffer);
+        logChannel.force(false);
+        if (++logRecords > Math.max(MIN_COMPACT_RECORDS, scores.size() / 2)) compact();
+        return true;
+    }
+
+    /**
+     * Kiírja az összes pontszámot egy új pillanatképbe, majd kiüríti a naplót. A pillanatképet ideiglenes fájlba írja és átnevezi,
+     * így megszakadt tömörítés után a régi pillanatkép és a napló együtt még mindig a teljes listát adja.
+     *
+     * @throws IOException Ha az írás nem sikerül.
+     */
+    public void compact() throws IOException {
+        if (snapshot == null) return;
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.write(SNAPSHOT_MAGIC);
+            out.writeByte(VERSION);
+            out.write(new byte[3]);
+            out.writeInt(scores.size());
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                byte[] bytes = name(entry.getKey());
+                out.writeShort(bytes.length);
+                out.write(bytes);
+                out.writeInt(entry.getValue());
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (logChannel != null) {
+            logChannel.truncate(HEADER_BYTES);
+            logChannel.position(HEADER_BYTES);
+            logChannel.force(true);
+        }
+        logRecords = 0;
+    }
+
+    /**
+     * Lezárja a naplót. Utána a tároló csak memóriában módosul.
+     */
+    @Override
+    public void close() throws IOException {
+        if (logChannel == null) return;
+        logChannel.close();
+        logChannel = null;
+    }
+
+    /**
+     * Beolvassa a pillanatképet. A fájlt nem képezi le memóriába, mert a leképezett fájl egyes rendszereken nem nevezhető át,
+     * és a tömörítés felülírja.
+     */
+    private void readSnapshot() throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 8 || size > Integer.MAX_VALUE) throw new IOException("Invalid leaderboard snapshot: " + snapshot);
+            ByteBuffer buffer = readFully(channel, (int) size);
+            checkHeader(buffer, SNAPSHOT_MAGIC, snapshot);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit((int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) throw new IOException("Leaderboard snapshot checksum mismatch: " + snapshot);
+            try {
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(bytes);
+                    scores.put(new String(bytes, StandardCharsets.UTF_8), buffer.getInt());
+                }
+                if (buffer.remaining() != 4) throw new IOException("Unexpected data in leaderboard snapshot: " + snapshot);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt leaderboard snapshot: " + snapshot, e);
+            }
+        }
+    }
+
+    /**
+     * Megnyitja a naplót hozzáfűzésre: lejátssza az ép rekordokat, az első sérült vagy csonka rekordtól levágja, üres naplónak fejlécet ír.
+     */
+    private void openLog() throws IOException {
+        logChannel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = logChannel.size();
+            if (size < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).put(LOG_MAGIC).put((byte) VERSION).put(new byte[3]).flip();
+                logChannel.truncate(0);
+                while (header.hasRemaining()) logChannel.write(header);
+                return;
+            }
+            if (size > Integer.MAX_VALUE) throw new IOException("Leaderboard log too large: " + log);
+            ByteBuffer buffer = readFully(logChannel, (int) size);
+            checkHeader(buffer, LOG_MAGIC, log);
+            int end = replay(buffer);
+            if (end < size) {
+                System.err.println("Truncating damaged leaderboard log at byte " + end + ": " + log);
+                logChannel.truncate(end);
+            }
+            logChannel.position(end);
+        } catch (IOException | RuntimeException e) {
+            logChannel.close();
+            logChannel = null;
+            throw e;
+        }
+    }
+
+    /**
+     * Lejátssza a napló rekordjait a fejléc után.
+     * @return Az utolsó ép rekord vége.
+     */
+    private int replay(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        int end = buffer.position();
+        while (buffer.remaining() >= 2) {
+            int length = buffer.getShort(end) & 0xFFFF;
+            if (buffer.remaining() < 2 + length + 8) break;
+            crc.reset();
+            crc.update(buffer.duplicate().position(end).limit(end + 2 + length + 4));
+            if ((int) crc.getValue() != buffer.getInt(end + 2 + length + 4)) break;
+            byte[] bytes = new byte[length];
+            buffer.get(end + 2, bytes);
+            scores.merge(new String(bytes, StandardCharsets.UTF_8), buffer.getInt(end + 2 + length), Math::min);
+            end += 2 + length + 8;
+            buffer.position(end);
+            logRecords++;
+        }
+        return end;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        channel.position(0);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {}
+        if (buffer.hasRemaining()) throw new IOException("Unexpected end of file");
+        return buffer.flip();
+    }
+
+    private static void checkHeader(ByteBuffer buffer, byte[] magic, Path file) throws IOException {
+        for (byte b : magic) {
+            if (buffer.get() != b) throw new IOException("Not a leaderboard file: " + file);
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != VERSION) throw new IOException("Unsupported leaderboard file version " + version + ": " + file);
+        buffer.position(HEADER_BYTES);
+    }
+
+    private static byte[] name(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) throw new IllegalArgumentException("Player name too long: " + name);
+        return bytes;
+    }
+}
@@ -1,61 +1,39 @@
 package pieces;
 
-import board.Board;
-
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.io.Serializable;
 
 /**
- * A Piece osztályból öröklődik. A Piece attribútumain felül tartalmazza a bábu képét.
+ * A Piece osztályból öröklődik, a normál bábu két (fehér és fekete) megosztott példánya.
+ * Új példány nem hozható létre, a bábukat a WHITE és BLACK konstansok, vagy a Piece.of metódus adja.
  * Szerializálható, mivel a bábuk 2D tömbjét kell tudni elmenteni.
  */
-public class NormalPiece extends Piece implements Serializable {
+public final class NormalPiece extends Piece implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    private transient Image image;
+    public static final NormalPiece WHITE = new NormalPiece(PieceColor.WHITE);
+    public static final NormalPiece BLACK = new NormalPiece(PieceColor.BLACK);
 
-    /**
-     * Alapértelmezett konstruktor, meghívja az ős konstruktorát és beállítja a bábu helyzetét.
-     * Az x,y pozíciót a tábla mező méretéből számolja.
-     *
-     * @param board A tábla amelyen megtalálható a bábu.
-     * @param r A bábu sora.
-     * @param c A bábu oszlopa.
-     * @param co A bábu színe.
-     */
-    public NormalPiece(Board board, int r, int c, PieceColor co) {
-        super(board);
-        col = c;
-        row = r;
-        color = co;
-        xPos = col * board.getRowandcolsize();
-        yPos = row * board.getRowandcolsize();
+    private NormalPiece(PieceColor color) {
+        super(color);
+    }
+
+    @Override
+    public boolean isKing() {
+        return false;
     }
 
     /**
-     * Megpróbálja betölteni a bábuhoz tartalmazó képet.
-     * Amilyen színű a bábu, azt a png képet tölti be.
-     * Méretét a board mező mérete alapján skálázza.
+     * Amilyen színű a bábu, annak a png képnek a neve.
      */
-    public void loadImage() {
-        try {
-            if (color == PieceColor.BLACK) image = ImageIO.read(ClassLoader.getSystemResourceAsStream("blacknormal.png")).getScaledInstance(board.getRowandcolsize(), board.getRowandcolsize(), BufferedImage.SCALE_SMOOTH);
-            else image = ImageIO.read(ClassLoader.getSystemResourceAsStream("whitenormal.png")).getScaledInstance(board.getRowandcolsize(), board.getRowandcolsize(), BufferedImage.SCALE_SMOOTH);
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    @Override
+    protected String imageName() {
+        return getColor() == PieceColor.BLACK ? "blacknormal.png" : "whitenormal.png";
     }
 
     /**
-     * Kirajzolja a bábuhoz tartalmazó képet, a bábuhoz tartozó x és y pozícióba.
-     * @param g Graphics2D paraméter.
+     * Beolvasáskor (a régebbi, helyet is tároló mentéseknél is) a megosztott példányt adja vissza.
      */
-    @Override
-    public void paint(Graphics2D g) {
-        g.drawImage(image, xPos, yPos, null);
+    private Object readResolve() {
+        return getColor() == PieceColor.WHITE ? WHITE : BLACK;
     }
 }
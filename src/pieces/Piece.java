@@ -1,74 +1,79 @@
 package pieces;
 
-import board.Board;
-
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.Serializable;
 
 /**
- * Absztrakt osztály, amely a bábuk alapvető attribútumait tartalmazza.
- * Szerializálható, mivel a bábuk 2D tömbjét kell tudni elmenteni.
+ * Absztrakt osztály, amely a bábuk közös, megosztott (flyweight) példányainak alapja.
+ * Bábuból csak négy példány létezik (normál vagy királynő, fehér vagy fekete), ezeket minden tábla és állás közösen használja.
+ * A bábu nem tárolja a helyét: a mezőt a tábla tömbje, a húzás közbeni képernyő pozíciót a felület tartja nyilván.
+ * A példányok nem módosíthatók, a képeket a közös SpriteCache adja.
+ * Szerializálható, mivel a bábuk 2D tömbjét kell tudni elmenteni. Beolvasáskor a megosztott példány kerül vissza (readResolve).
  */
 public abstract class Piece implements Serializable {
     private static final long serialVersionUID = 1L;
 
-    protected int col, row;
-    protected int xPos, yPos;
-    protected PieceColor color;
-    Board board;
+    private final PieceColor color; // A bábu színe.
 
     /**
-     * Beállítja a boardot amin a bábu megtalálható.
-     * @param b Board objektum.
+     * @param color A bábu színe.
      */
-    public Piece(Board b) {
-        board = b;
+    protected Piece(PieceColor color) {
+        this.color = color;
     }
 
     /**
-     * Absztrakt metódus, amit minden leszármazottnak meg kell valósítania.
-     * @param g Graphics2D paraméter.
+     * Visszaadja a megadott fajtájú bábu megosztott példányát.
+     *
+     * @param color A bábu színe.
+     * @param king Igaz, ha királynő.
+     * @return A megosztott bábu.
      */
-    public abstract void paint(Graphics2D g);
+    public static Piece of(PieceColor color, boolean king) {
+        if (king) return color == PieceColor.WHITE ? QueenPiece.WHITE : QueenPiece.BLACK;
+        return color == PieceColor.WHITE ? NormalPiece.WHITE : NormalPiece.BLACK;
+    }
 
     /**
-     * Absztrakt metódus, amit minden leszármazottnak meg kell valósítania.
+     * @return Igaz, ha a bábu királynő.
      */
-    public abstract void loadImage();
-
-    public int getCol() {
-        return col;
-    }
-
-    public int getRow() {
-        return row;
-    }
-
-    public int getXPos() {
-        return xPos;
-    }
+    public abstract boolean isKing();
 
-    public int getYPos() {
-        return yPos;
-    }
-
-    public void setxPos(int xPos) {
-        this.xPos = xPos;
-    }
-
-    public void setyPos(int yPos) {
-        this.yPos = yPos;
-    }
+    /**
+     * @return A bábu képét tartalmazó erőforrás neve.
+     */
+    protected abstract String imageName();
 
-    public void setCol(int col) {
-        this.col = col;
+    /**
+     * A bábu képe a kapott mezőméretre skálázva. A képet a SpriteCache egyszer olvassa be és méretenként egyszer skálázza,
+     * így a hívás az első után nem jár beolvasással.
+     *
+     * @param size A mező mérete pixelben.
+     * @return A közös kép, vagy null, ha nem olvasható be.
+     */
+    public BufferedImage getImage(int size) {
+        return SpriteCache.get(imageName(), size);
     }
 
-    public void setRow(int row) {
-        this.row = row;
+    /**
+     * Kirajzolja a bábu képét a megadott pozícióba.
+     *
+     * @param g Graphics2D paraméter.
+     * @param x A bal felső sarok x pozíciója.
+     * @param y A bal felső sarok y pozíciója.
+     * @param size A mező mérete pixelben.
+     */
+    public void paint(Graphics2D g, int x, int y, int size) {
+        g.drawImage(getImage(size), x, y, null);
     }
 
     public PieceColor getColor() {
         return color;
     }
+
+    @Override
+    public String toString() {
+        return color + (isKing() ? " queen" : " piece");
+    }
 }
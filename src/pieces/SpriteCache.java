@@ -0,0 +1,109 @@
+package pieces;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Az egész folyamatban közös képgyorsítótár a bábuk képeihez.
+ * Minden png képet egyszer olvas be, és mezőméretenként egyszer skáláz át a képernyővel kompatibilis BufferedImage-be,
+ * így a kirajzolás nem skáláz, és a táblák, a bábuk és a promótálás ugyanazt a képet kapják.
+ * A gyorsítótár szálbiztos. A visszaadott képeket nem szabad módosítani.
+ */
+public final class SpriteCache {
+
+    private static final Map<String, BufferedImage> sources = new ConcurrentHashMap<>(); // A beolvasott eredeti képek név szerint.
+    private static final Map<String, BufferedImage> sprites = new ConcurrentHashMap<>(); // A skálázott képek "név@méret" kulccsal.
+
+    private SpriteCache() {}
+
+    /**
+     * Visszaadja a kép megadott méretre skálázott, közös példányát. Első kéréskor beolvassa és átskálázza.
+     *
+     * @param name A png erőforrás neve.
+     * @param size A kép szélessége és magassága pixelben.
+     * @return A skálázott kép, vagy null, ha a kép nem olvasható be.
+     */
+    public static BufferedImage get(String name, int size) {
+        String key = name + "@" + size;
+        BufferedImage sprite = sprites.get(key);
+        if (sprite != null) return sprite;
+        BufferedImage source = source(name);
+        if (source == null) return null;
+        return sprites.computeIfAbsent(key, k -> scale(source, size));
+    }
+
+    /**
+     * Törli a skálázott képeket (pl. a képernyő beállításainak változásakor). Az eredeti képek megmaradnak.
+     */
+    public static void clear() {
+        sprites.clear();
+    }
+
+    /**
+     * @return A gyorsítótárban levő skálázott képek száma.
+     */
+    public static int size() {
+        return sprites.size();
+    }
+
+    /**
+     * Beolvassa az eredeti képet, ha még nem történt meg. Hiba esetén null-t ad, és a következő kéréskor újrapróbálja.
+     */
+    private static BufferedImage source(String name) {
+        BufferedImage source = sources.get(name);
+        if (source != null) return source;
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(name)) {
+            if (in == null) {
+                System.err.println("Missing image: " + name);
+                return null;
+            }
+            source = ImageIO.read(in);
+        } catch (IOException e) {
+            System.err.println("Error reading image: " + name);
+            e.printStackTrace();
+            return null;
+        }
+        BufferedImage previous = sources.putIfAbsent(name, source);
+        return previous != null ? previous : source;
+    }
+
+    /**
+     * Átskálázza a képet. Kicsinyítéskor lépésenként legfeljebb a felére csökkent bicubic interpolációval,
+     * így az eredmény a getScaledInstance(SCALE_SMOOTH) minőségéhez közeli, de egyszeri és szinkron.
+     */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage current = source;
+        while (current.getWidth() / 2 > size && current.getHeight() / 2 > size) {
+            current = draw(current, new BufferedImage(current.getWidth() / 2, current.getHeight() / 2, BufferedImage.TYPE_INT_ARGB));
+        }
+        return draw(current, compatibleImage(size, size));
+    }
+
+    /**
+     * A forrás képet a cél kép teljes méretére rajzolja.
+     * @return A cél kép.
+     */
+    private static BufferedImage draw(BufferedImage source, BufferedImage target) {
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setComposite(AlphaComposite.Src);
+        g.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), null);
+        g.dispose();
+        return target;
+    }
+
+    /**
+     * Átlátszó, a képernyő formátumával kompatibilis kép, így a kirajzolás nem igényel átalakítást. Felület nélkül ARGB kép.
+     */
+    private static BufferedImage compatibleImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
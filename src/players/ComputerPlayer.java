@@ -0,0 +1,206 @@
+package players;
+
+import book.OpeningBook;
+import engine.Evaluation;
+import engine.ParallelSearch;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import logic.BitBoard;
+import pieces.PieceColor;
+import tablebase.TablebaseProbe;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Számítógépes játékos. A Player adatain felül a lépés kiválasztásához szükséges keresés beállításait tárolja.
+ * A lépést iteratívan mélyülő alfa-béta kereséssel választja ki, a megadott mélység- és időkorláton belül.
+ * A keresés több szálon futhat (ParallelSearch), a fő keresés a hívó szálon, így a hívónak kell gondoskodnia róla,
+ * hogy ne az eseménykezelő (EDT) szálon fusson. Egy szál esetén a keresés determinisztikus, a játszmák megismételhetők.
+ * Az időkorlátot a keresés osztja be: nem kezd olyan iterációt, amely már nem fejeződne be, bizonytalan állásban pedig tovább gondolkodik.
+ * Várakozó kereséssel (ponder) az ellenfél gondolkodási ideje alatt is keres: a saját lépése után a várható válasz utáni
+ * állást keresi, és ha az ellenfél valóban azt lépi, a már felépült keresést folytatja, így szinte azonnal válaszol.
+ * Ha van megnyitás könyv, a benne szereplő állásokban keresés nélkül a könyv egy lépését választja. A választás
+ * az állás kulcsából indított véletlenszám forrással történik, így ugyanabban az állásban mindig ugyanazt a lépést választja.
+ * Szerializálható, a keresés belső állapota viszont nem kerül mentésre.
+ */
+public class ComputerPlayer extends Player implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_DEPTH = 20; // Alapértelmezett maximális mélység félléptekben.
+    public static final long DEFAULT_TIME_MILLIS = 1000; // Alapértelmezett gondolkodási idő lépésenként.
+    public static final int DEFAULT_TT_MB = 32; // Alapértelmezett transzpozíciós tábla méret.
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors(); // Alapértelmezett szálszám.
+
+    private final int maxDepth; // A keresés maximális mélysége.
+    private final long timeMillis; // A gondolkodási idő lépésenként ezredmásodpercben.
+    private final int threads; // A keresés szálainak száma.
+    private boolean pondering = true; // Igaz, ha az ellenfél idejében is keres.
+    private transient ParallelSearch search; // A keresés, első használatkor jön létre.
+    private transient TablebaseProbe tablebase; // A végjáték táblák, vagy null.
+    private transient OpeningBook book; // A megnyitás könyv, vagy null.
+    private transient Evaluation evaluation; // A statikus értékelés, vagy null az alapértelmezetthez.
+
+    /**
+     * Számítógépes játékos alapértelmezett keresési beállításokkal.
+     * @param n Név.
+     * @param c Szín.
+     */
+    public ComputerPlayer(String n, PieceColor c) {
+        this(n, c, DEFAULT_DEPTH, DEFAULT_TIME_MILLIS, DEFAULT_THREADS);
+    }
+
+    /**
+     * Számítógépes játékos megadott keresési beállításokkal.
+     * @param n Név.
+     * @param c Szín.
+     * @param maxDepth A keresés maximális mélysége félléptekben.
+     * @param timeMillis A gondolkodási idő lépésenként ezredmásodpercben.
+     * @param threads A keresés szálainak száma (1 esetén megismételhető a játszma).
+     */
+    public ComputerPlayer(String n, PieceColor c, int maxDepth, long timeMillis, int threads) {
+        super(n, c);
+        this.maxDepth = maxDepth;
+        this.timeMillis = timeMillis;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Kiválasztja a lépést a kapott állásban. Hosszan futhat, ezért nem szabad az EDT-n hívni.
+     *
+     * @param position Az állás, amelyben a játékos következik (nem módosul).
+     * @return A keresés eredménye a kiválasztott lépéssel.
+     */
+    public SearchResult chooseMove(BitBoard position) {
+        OpeningBook b = book;
+        if (b != null) {
+            long start = System.currentTimeMillis();
+            OpeningBook.BookMove move = b.choose(position, new Random(position.getHash()));
+            if (move != null) {
+                return new SearchResult(move.getMove(), move.getCapturedSet(), 0, 0, 0, System.currentTimeMillis() - start);
+            }
+        }
+        return getSearch().search(position, maxDepth, timeMillis);
+    }
+
+    /**
+     * Megjósolja az ellenfél válaszát az utolsó keresés transzpozíciós táblájából.
+     *
+     * @param position Az állás a játékos lépése után (az ellenfél következik, nem módosul).
+     * @return A várható válasz utáni állás, vagy null, ha a játékos nem keres az ellenfél idejében, vagy nincs jóslat.
+     */
+    public BitBoard ponderPosition(BitBoard position) {
+        return pondering ? getSearch().predictReply(position) : null;
+    }
+
+    /**
+     * @return Az új várakozó keresés sorszáma, a ponder hívás előtt kell kérni (lásd ParallelSearch.newPonderTicket).
+     */
+    public long preparePonder() {
+        return getSearch().newPonderTicket();
+    }
+
+    /**
+     * Várakozó keresés a várható válasz utáni állásban. A ponderHit vagy a cancelPonder hívásáig időkorlát nélkül fut,
+     * ezért nem szabad az EDT-n hívni.
+     *
+     * @param position A várható válasz utáni állás (nem módosul).
+     * @param ticket A preparePonder által adott sorszám.
+     * @return A keresés eredménye, vagy null, ha a kérést visszavonták.
+     */
+    public SearchResult ponder(BitBoard position, long ticket) {
+        return getSearch().ponder(position, maxDepth, ticket);
+    }
+
+    /**
+     * Az ellenfél a várt lépést tette: a várakozó keresés a játékos gondolkodási idejével fut tovább. Bármely szálból hívható.
+     *
+     * @param ticket A kérés sorszáma.
+     * @return Hamis, ha a várakozó keresés már befejeződött.
+     */
+    public boolean ponderHit(long ticket) {
+        return getSearch().ponderHit(ticket, timeMillis);
+    }
+
+    /**
+     * Az ellenfél nem a várt lépést tette: leállítja a várakozó keresést. Bármely szálból hívható.
+     *
+     * @param ticket A kérés sorszáma.
+     */
+    public void cancelPonder(long ticket) {
+        ParallelSearch s = search;
+        if (s != null) s.cancelPonder(ticket);
+    }
+
+    /**
+     * Megszakítja a folyamatban levő keresést. Bármely szálból hívható.
+     */
+    public void stopThinking() {
+        if (search != null) search.stop();
+    }
+
+    /**
+     * Beállítja a végjáték táblákat. A táblákban szereplő állásokban a játékos keresés nélkül, pontosan lép.
+     * @param tablebase A táblák, vagy null.
+     */
+    public synchronized void setTablebase(TablebaseProbe tablebase) {
+        this.tablebase = tablebase;
+        if (search != null) search.setTablebase(tablebase);
+    }
+
+    /**
+     * Beállítja a megnyitás könyvet. A könyvben szereplő állásokban a játékos keresés nélkül lép.
+     * @param book A könyv, vagy null.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Beállítja a keresés statikus értékelését (pl. fájlból betöltött súlyokkal).
+     * @param evaluation Az értékelés, vagy null az alapértelmezetthez.
+     */
+    public synchronized void setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+        if (search != null) search.setEvaluation(evaluation != null ? evaluation : Evaluation.DEFAULT);
+    }
+
+    /**
+     * Leállítja a keresés segédszálait. A következő lépésnél a keresés újra létrejön.
+     */
+    public synchronized void shutdown() {
+        if (search != null) {
+            search.shutdown();
+            search = null;
+        }
+    }
+
+    private synchronized ParallelSearch getSearch() {
+        if (search == null) {
+            search = new ParallelSearch(new TranspositionTable(DEFAULT_TT_MB), threads);
+            search.setTablebase(tablebase);
+            if (evaluation != null) search.setEvaluation(evaluation);
+        }
+        return search;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+}
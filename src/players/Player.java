@@ -43,6 +43,14 @@ public class Player implements Serializable {
         return movecount;
     }
 
+    /**
+     * Beállítja a lépésszámot, egy elmentett játék betöltésekor.
+     * @param movecount A lépésszám.
+     */
+    public void setMovecount(int movecount) {
+        this.movecount = movecount;
+    }
+
     /**
      * Növeli a lépésszámot.
      */
@@ -50,6 +58,13 @@ public class Player implements Serializable {
         movecount++;
     }
 
+    /**
+     * Csökkenti a lépésszámot, egy lépés visszavonásakor.
+     */
+    public void decrementMovecount() {
+        movecount--;
+    }
+
     public PieceColor getColor() {
         return color;
     }
@@ -0,0 +1,155 @@
+package tablebase;
+
+import logic.BitBoard;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A végjáték táblák közös formátuma és érték kódolása.
+ *
+ * Minden anyagi felálláshoz egy fájl tartozik (TablebaseIndex.fileName), amely egy 16 bájtos fejlécből és
+ * állásonként egy értékből áll: előbb a fehér lépésű állások az index sorrendjében, majd a fekete lépésűek.
+ * Az érték egy bájt, ha a szelet minden távolsága belefér (legfeljebb 126 féllépés), egyébként két bájt (char).
+ * A fejléc: "CKTB" varázsszám, verzió (short), a négy bábuszám (4 bájt), az állások száma lépő felenként (int),
+ * az érték szélessége bájtban, 1 bájt tartalék.
+ *
+ * A játék közbeni kereséshez blokkonként tömörített változat is készül (COMPRESSED_EXTENSION): ugyanaz a fejléc
+ * a COMPRESSED_MAGIC varázsszámmal, utána a blokkok száma (int), a blokkok kezdőpozíciói a fájlban (blokkszám + 1 long),
+ * végül a blokkok, mindegyik az értékterület BLOCK_BYTES bájtos darabja Deflate tömörítéssel.
+ * Így egy érték kiolvasásához csak egyetlen blokkot kell kitömöríteni (lásd TablebaseProbe).
+ *
+ * Az érték a lépő fél szemszögéből:
+ *  - 0: érvénytelen állás (az index nem tartozik álláshoz),
+ *  - 1: döntetlen (egyik fél sem tudja kikényszeríteni a győzelmet),
+ *  - 2 + 2d: a lépő fél d féllépésben nyer,
+ *  - 3 + 2d: a lépő fél d féllépésben veszít.
+ */
+public final class Tablebase {
+
+    public static final int MAGIC = 0x434B5442; // "CKTB"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final String FILE_EXTENSION = ".cktb";
+    public static final int COMPRESSED_MAGIC = 0x434B545A; // "CKTZ"
+    public static final String COMPRESSED_EXTENSION = ".cktbz";
+    public static final int BLOCK_BYTES = 8192; // Egy tömörített blokk mérete kitömörítve.
+
+    public static final int INVALID = 0;
+    public static final int DRAW = 1;
+    public static final int MAX_DISTANCE = 32766; // A két bájtban tárolható legnagyobb távolság.
+
+    private Tablebase() {}
+
+    public static int win(int distance) {
+        return 2 + 2 * distance;
+    }
+
+    public static int loss(int distance) {
+        return 3 + 2 * distance;
+    }
+
+    public static boolean isWin(int value) {
+        return value >= 2 && (value & 1) == 0;
+    }
+
+    public static boolean isLoss(int value) {
+        return value >= 3 && (value & 1) == 1;
+    }
+
+    /**
+     * @param value Nyert vagy vesztett érték.
+     * @return A győzelemig vagy vereségig hátralevő féllépések száma.
+     */
+    public static int distance(int value) {
+        return (value - 2) >> 1;
+    }
+
+    /**
+     * Fejlécet ír a puffer elejére.
+     *
+     * @param width Az értékek szélessége bájtban (1 vagy 2).
+     */
+    static void writeHeader(ByteBuffer buffer, TablebaseIndex index, int width) {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.put(6, (byte) index.getWhiteMen());
+        buffer.put(7, (byte) index.getWhiteKings());
+        buffer.put(8, (byte) index.getBlackMen());
+        buffer.put(9, (byte) index.getBlackKings());
+        buffer.putInt(10, index.size());
+        buffer.put(14, (byte) width);
+        buffer.put(15, (byte) 0);
+    }
+
+    /**
+     * Ellenőrzi, hogy a puffer fejléce a kapott felálláshoz tartozik.
+     *
+     * @throws IOException Ha a fejléc hibás vagy más felálláshoz tartozik.
+     */
+    static void checkHeader(ByteBuffer buffer, TablebaseIndex index) throws IOException {
+        checkHeader(buffer, index, MAGIC);
+        if (buffer.capacity() < HEADER_SIZE + 2L * index.size() * buffer.get(14)) {
+            throw new IOException("Truncated tablebase file for " + index);
+        }
+    }
+
+    /**
+     * Ellenőrzi, hogy a puffer fejléce a kapott varázsszámmal kezdődik, és a kapott felálláshoz tartozik.
+     *
+     * @throws IOException Ha a fejléc hibás vagy más felálláshoz tartozik.
+     */
+    static void checkHeader(ByteBuffer buffer, TablebaseIndex index, int magic) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != magic || buffer.getShort(4) != VERSION
+                || buffer.get(6) != index.getWhiteMen() || buffer.get(7) != index.getWhiteKings()
+                || buffer.get(8) != index.getBlackMen() || buffer.get(9) != index.getBlackKings()
+                || buffer.getInt(10) != index.size() || (buffer.get(14) != 1 && buffer.get(14) != 2)) {
+            throw new IOException("Invalid tablebase header for " + index);
+        }
+    }
+
+    /**
+     * Memóriába képezi egy szelet fájlját csak olvasásra, és ellenőrzi a fejlécét.
+     * A leképezés a csatorna bezárása után is érvényes marad, az adatok nem a heap-en vannak.
+     *
+     * @param file A fájl.
+     * @param index A szelet indexelője.
+     * @return A fájl tartalma (fejléccel együtt).
+     * @throws IOException Ha a fájl nem olvasható vagy a fejléce hibás.
+     */
+    public static ByteBuffer map(Path file, TablebaseIndex index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer, index);
+            return buffer;
+        }
+    }
+
+    /**
+     * Kiolvassa egy állás értékét egy szelet pufferéből.
+     *
+     * @param buffer A szelet fájljának tartalma (fejléccel együtt).
+     * @param index A szelet indexelője, az állásnak ehhez kell tartoznia.
+     * @param position Az állás.
+     * @return Az állás értéke a lépő fél szemszögéből.
+     */
+    public static int value(ByteBuffer buffer, TablebaseIndex index, BitBoard position) {
+        int i = (position.getSideToMove() == PieceColor.WHITE ? 0 : index.size()) + index.index(position);
+        return buffer.get(14) == 1 ? buffer.get(HEADER_SIZE + i) & 0xFF : buffer.getChar(HEADER_SIZE + 2 * i);
+    }
+
+    /**
+     * @param value Egy tábla érték.
+     * @return Az érték szöveges alakja, pl. "win 7", "loss 4", "draw".
+     */
+    public static String toString(int value) {
+        if (value == DRAW) return "draw";
+        if (isWin(value)) return "win " + distance(value);
+        if (isLoss(value)) return "loss " + distance(value);
+        return "invalid";
+    }
+}
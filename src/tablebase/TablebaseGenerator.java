@@ -0,0 +1,411 @@
+package tablebase;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+/**
+ * Végjáték táblák előállítása retrográd elemzéssel, legfeljebb N bábus állásokra.
+ *
+ * Az állásokat anyagi felállásonként (szeletenként) oldja meg. Egy lépés után az állás vagy ugyanabban a szeletben marad,
+ * vagy ütés miatt kevesebb bábus, vagy promótálás miatt kevesebb normál bábus szeletbe kerül. Ezért a szeleteket
+ * (bábuszám, normál bábuk száma) szerint csoportosítja és növekvő sorrendben dolgozza fel: egy csoport szeletei
+ * csak a korábbi csoportoktól függenek, így egy csoporton belül párhuzamosan, egy ForkJoinPool-on oldhatók meg.
+ *
+ * Egy szeleten belül a véget ért állásokból (BitBoard.winner) kiindulva, a lépéseket visszafelé lejátszva halad (retrográd elemzés):
+ * egy állás nyer d féllépésben, ha van olyan lépése, amely után az ellenfél d-1 féllépésben veszít; és veszít d féllépésben,
+ * ha minden lépése után az ellenfél nyer, és a leghosszabb ilyen győzelem d-1 féllépés.
+ * A végül értéket nem kapott állások döntetlenek (ezekből egyik fél sem tudja kikényszeríteni a győzelmet, így a játszma ismétlődik).
+ *
+ * Az elkészült szeleteket memóriába leképezett fájlba írja, a későbbi szeletek ezekből olvasnak,
+ * így a már kész eredmények nem a heap-en vannak. Minden szeletből a játék közbeni lekérdezéshez
+ * blokkonként tömörített fájl is készül (lásd Tablebase és TablebaseProbe).
+ *
+ * Használat: java tablebase.TablebaseGenerator [max bábuszám] [könyvtár] [szálak száma]
+ */
+public class TablebaseGenerator {
+
+    private final Path directory; // A táblák könyvtára.
+    private final int maxPieces; // A legnagyobb bábuszám.
+    private final ForkJoinPool pool; // A szeletek párhuzamos megoldásához.
+    private final Map<Integer, ByteBuffer> solved = new ConcurrentHashMap<>(); // A kész szeletek anyagi kód szerint.
+    private final Map<Integer, TablebaseIndex> indexes = new ConcurrentHashMap<>(); // A kész szeletek indexelői.
+
+    /**
+     * @param directory A táblák könyvtára (ha nem létezik, létrejön).
+     * @param maxPieces A legnagyobb bábuszám.
+     * @param threads A párhuzamosan megoldott szeletek legnagyobb száma.
+     */
+    public TablebaseGenerator(Path directory, int maxPieces, int threads) {
+        this.directory = directory;
+        this.maxPieces = maxPieces;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    /**
+     * Előállítja az összes szeletet. A már létező, érvényes fájlokat nem számolja újra.
+     *
+     * @throws IOException Ha a fájlok írása nem sikerül.
+     */
+    public void generate() throws IOException {
+        Files.createDirectories(directory);
+        try {
+            for (List<TablebaseIndex> group : groups(maxPieces)) {
+                pool.submit(() -> group.parallelStream().forEach(this::solveOrLoad)).join();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A szeletek csoportjai a feldolgozás sorrendjében: bábuszám, azon belül a normál bábuk száma szerint növekvően.
+     * Azok a szeletek, ahol egyik félnek sincs bábuja, kimaradnak.
+     */
+    static List<List<TablebaseIndex>> groups(int maxPieces) {
+        List<List<TablebaseIndex>> groups = new ArrayList<>();
+        for (int pieces = 1; pieces <= maxPieces; pieces++) {
+            for (int men = 0; men <= pieces; men++) {
+                List<TablebaseIndex> group = new ArrayList<>();
+                for (int wm = 0; wm <= men; wm++) {
+                    int bm = men - wm;
+                    for (int wk = 0; wk <= pieces - men; wk++) {
+                        group.add(new TablebaseIndex(wm, wk, bm, pieces - men - wk));
+                    }
+                }
+                groups.add(group);
+            }
+        }
+        return groups;
+    }
+
+    private void solveOrLoad(TablebaseIndex index) {
+        try {
+            Path file = directory.resolve(index.fileName());
+            if (Files.exists(file)) {
+                try {
+                    ByteBuffer buffer = Tablebase.map(file, index);
+                    indexes.put(index.materialCode(), index);
+                    solved.put(index.materialCode(), buffer);
+                    Path compressed = directory.resolve(index.compressedFileName());
+                    if (!Files.exists(compressed)) writeCompressed(compressed, buffer);
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Regenerating " + file + ": " + e.getMessage());
+                }
+            }
+            long start = System.currentTimeMillis();
+            char[] values = solve(index);
+            ByteBuffer buffer = write(file, index, values);
+            indexes.put(index.materialCode(), index);
+            solved.put(index.materialCode(), buffer);
+            writeCompressed(directory.resolve(index.compressedFileName()), buffer);
+            System.out.println(summary(index, values, System.currentTimeMillis() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Megoldja egy szelet összes állását. A szelet függőségeinek már késznek kell lenniük.
+     *
+     * Először minden álláshoz előállítja a lépéseit: a szeleten kívülre vezető lépések értéke már ismert,
+     * a szeleten belüliek (ütés és promótálás nélküli lépések) számát pedig eltárolja. Ezután a megoldott állásokat
+     * távolság szerint növekvő sorrendben dolgozza fel, és a szeleten belüli elődjeiket (a lépés visszafelé lejátszásával)
+     * frissíti: ha a megoldott állás vesztes, az előd nyer eggyel hosszabban; ha nyerő, az előd számlálója csökken,
+     * és ha minden lépése nyerő állásba visz, az előd veszít a leghosszabb győzelemnél eggyel hosszabban.
+     *
+     * @param index A szelet indexelője.
+     * @return Állásonként egy érték (Tablebase kódolás), előbb a fehér, majd a fekete lépésű állások.
+     */
+    char[] solve(TablebaseIndex index) {
+        int size = index.size();
+        char[] values = new char[2 * size];
+        byte[] remaining = new byte[2 * size]; // A még meg nem oldott szeleten belüli lépések száma, -1, ha az állás nem veszíthet.
+        char[] longestWin = new char[2 * size]; // A szeleten kívüli nyerő lépések leghosszabb távolsága + 1.
+        DistanceQueue queue = new DistanceQueue();
+        BitBoard position = new BitBoard();
+        BitBoard previous = new BitBoard();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] capturedSets = new int[MoveGenerator.MAX_MOVES];
+        int code = index.materialCode();
+
+        for (int i = 0; i < values.length; i++) {
+            PieceColor side = i < size ? PieceColor.WHITE : PieceColor.BLACK;
+            if (!index.decode(i % size, side, position)) continue;
+            PieceColor winner = position.winner();
+            if (winner != null) {
+                queue.add(0, i, winner == side ? Tablebase.win(0) : Tablebase.loss(0));
+                continue;
+            }
+            int count = MoveGenerator.generateLegal(position, moves, capturedSets);
+            int inside = 0;
+            int bestWin = Integer.MAX_VALUE;
+            int longest = 0;
+            boolean canLose = true;
+            for (int m = 0; m < count; m++) {
+                position.makeMove(moves[m], capturedSets[m]);
+                if (TablebaseIndex.materialCode(position) == code) {
+                    inside++;
+                } else {
+                    int value = externalValue(position, index);
+                    if (Tablebase.isLoss(value)) {
+                        bestWin = Math.min(bestWin, Tablebase.distance(value) + 1);
+                        canLose = false;
+                    } else if (Tablebase.isWin(value)) {
+                        longest = Math.max(longest, Tablebase.distance(value) + 1);
+                    } else {
+                        canLose = false;
+                    }
+                }
+                position.unmakeMove();
+            }
+            if (bestWin != Integer.MAX_VALUE) {
+                queue.add(bestWin, i, Tablebase.win(bestWin));
+            }
+            remaining[i] = (byte) (canLose ? inside : -1);
+            longestWin[i] = (char) longest;
+            if (canLose && inside == 0) {
+                queue.add(longest, i, Tablebase.loss(longest));
+            }
+        }
+
+        for (int distance = 0; distance <= queue.maxDistance(); distance++) {
+            for (int q = 0; q < queue.size(distance); q++) {
+                int i = queue.position(distance, q);
+                if (values[i] != 0) continue;
+                int value = queue.value(distance, q);
+                values[i] = (char) value;
+                PieceColor side = i < size ? PieceColor.WHITE : PieceColor.BLACK;
+                index.decode(i % size, side, position);
+                int pred = predecessors(position, index, previous, moves);
+                for (int p = 0; p < pred; p++) {
+                    int j = moves[p];
+                    if (values[j] != 0) continue;
+                    if (Tablebase.isLoss(value)) {
+                        queue.add(distance + 1, j, Tablebase.win(distance + 1));
+                    } else if (remaining[j] > 0 && --remaining[j] == 0) {
+                        int d = Math.max(distance + 1, longestWin[j]);
+                        queue.add(d, j, Tablebase.loss(d));
+                    }
+                }
+            }
+            queue.release(distance);
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == 0 && index.decode(i % size, i < size ? PieceColor.WHITE : PieceColor.BLACK, position)) {
+                values[i] = Tablebase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Az állás szeleten belüli elődjei: azok az állások, amelyekből az előző lépő fél egy ütés és promótálás nélküli
+     * lépéssel ide juthatott. Királynő bármely irányba, normál bábu csak a saját haladási irányával szemben léphet vissza.
+     * Az elődök a szelet tömbjébeli indexükkel kerülnek az out tömbbe, a previous csak munkaterület.
+     *
+     * @return Az elődök száma.
+     */
+    private static int predecessors(BitBoard position, TablebaseIndex index, BitBoard previous, int[] out) {
+        PieceColor mover = position.getSideToMove() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        int white = position.getWhite();
+        int black = position.getBlack();
+        int kings = position.getKings();
+        int empty = position.getEmpty();
+        int own = mover == PieceColor.WHITE ? white : black;
+        int offset = mover == PieceColor.WHITE ? 0 : index.size();
+        int backFirst = mover == PieceColor.WHITE ? BitBoard.DOWN_LEFT : BitBoard.UP_LEFT;
+        int count = 0;
+        for (int pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int to = Integer.numberOfTrailingZeros(pieces);
+            int toBit = 1 << to;
+            boolean king = (kings & toBit) != 0;
+            for (int dir = 0; dir < 4; dir++) {
+                if (!king && dir != backFirst && dir != backFirst + 1) continue;
+                int from = BitBoard.neighbor(to, dir);
+                if (from < 0 || (empty & 1 << from) == 0) continue;
+                int moveMask = toBit | 1 << from;
+                int prevKings = king ? kings ^ moveMask : kings;
+                if (mover == PieceColor.WHITE) {
+                    previous.set(white ^ moveMask, black, prevKings, mover);
+                } else {
+                    previous.set(white, black ^ moveMask, prevKings, mover);
+                }
+                out[count++] = offset + index.index(previous);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Távolság szerinti sorok: minden távolsághoz a megoldandó állások indexe és értéke.
+     * Egy állás többször is bekerülhet, a feldolgozáskor az elsőként (legkisebb távolsággal) kivett érték érvényes.
+     */
+    private static final class DistanceQueue {
+        private final int[][] positions = new int[Tablebase.MAX_DISTANCE + 1][];
+        private final int[][] values = new int[Tablebase.MAX_DISTANCE + 1][];
+        private final int[] sizes = new int[Tablebase.MAX_DISTANCE + 1];
+        private int maxDistance = -1;
+
+        void add(int distance, int position, int value) {
+            if (distance > Tablebase.MAX_DISTANCE) {
+                throw new IllegalStateException("Distance overflow: " + distance);
+            }
+            if (positions[distance] == null) {
+                positions[distance] = new int[256];
+                values[distance] = new int[256];
+            } else if (sizes[distance] == positions[distance].length) {
+                positions[distance] = Arrays.copyOf(positions[distance], sizes[distance] * 2);
+                values[distance] = Arrays.copyOf(values[distance], sizes[distance] * 2);
+            }
+            positions[distance][sizes[distance]] = position;
+            values[distance][sizes[distance]++] = value;
+            maxDistance = Math.max(maxDistance, distance);
+        }
+
+        int size(int distance) {
+            return sizes[distance];
+        }
+
+        int position(int distance, int i) {
+            return positions[distance][i];
+        }
+
+        int value(int distance, int i) {
+            return values[distance][i];
+        }
+
+        int maxDistance() {
+            return maxDistance;
+        }
+
+        void release(int distance) {
+            positions[distance] = null;
+            values[distance] = null;
+            sizes[distance] = 0;
+        }
+    }
+
+    /**
+     * Egy szeleten kívülre vezető lépés utáni állás értéke, a kész szelet fájljából.
+     */
+    private int externalValue(BitBoard child, TablebaseIndex index) {
+        int code = TablebaseIndex.materialCode(child);
+        ByteBuffer buffer = solved.get(code);
+        TablebaseIndex childIndex = indexes.get(code);
+        if (buffer == null || childIndex == null) {
+            throw new IllegalStateException("Missing dependency " + TablebaseIndex.of(child) + " of " + index);
+        }
+        return Tablebase.value(buffer, childIndex, child);
+    }
+
+    /**
+     * Kiírja a szeletet egy memóriába leképezett fájlba, és a fájl csak olvasható nézetét adja vissza.
+     */
+    private static ByteBuffer write(Path file, TablebaseIndex index, char[] values) throws IOException {
+        int max = 0;
+        for (char v : values) {
+            max = Math.max(max, v);
+        }
+        int width = max <= 0xFF ? 1 : 2;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    Tablebase.HEADER_SIZE + (long) values.length * width);
+            Tablebase.writeHeader(buffer, index, width);
+            for (int i = 0; i < values.length; i++) {
+                if (width == 1) {
+                    buffer.put(Tablebase.HEADER_SIZE + i, (byte) values[i]);
+                } else {
+                    buffer.putChar(Tablebase.HEADER_SIZE + 2 * i, values[i]);
+                }
+            }
+            buffer.force();
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Elkészíti a szelet blokkonként tömörített változatát (a formátum leírása a Tablebase osztályban).
+     *
+     * @param file A tömörített fájl.
+     * @param raw A tömörítetlen fájl tartalma, fejléccel együtt.
+     */
+    static void writeCompressed(Path file, ByteBuffer raw) throws IOException {
+        int width = raw.get(14);
+        int valueBytes = 2 * raw.getInt(10) * width;
+        int blocks = (valueBytes + Tablebase.BLOCK_BYTES - 1) / Tablebase.BLOCK_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE + 4 + 8 * (blocks + 1));
+        header.put(raw.slice(0, Tablebase.HEADER_SIZE));
+        header.putInt(0, Tablebase.COMPRESSED_MAGIC);
+        header.putInt(Tablebase.HEADER_SIZE, blocks);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] block = new byte[Tablebase.BLOCK_BYTES];
+        byte[] out = new byte[Tablebase.BLOCK_BYTES * 2];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = header.capacity();
+            channel.position(offset);
+            for (int b = 0; b < blocks; b++) {
+                int length = Math.min(Tablebase.BLOCK_BYTES, valueBytes - b * Tablebase.BLOCK_BYTES);
+                raw.get(Tablebase.HEADER_SIZE + b * Tablebase.BLOCK_BYTES, block, 0, length);
+                deflater.reset();
+                deflater.setInput(block, 0, length);
+                deflater.finish();
+                int compressed = deflater.deflate(out);
+                header.putLong(Tablebase.HEADER_SIZE + 4 + 8 * b, offset);
+                channel.write(ByteBuffer.wrap(out, 0, compressed));
+                offset += compressed;
+            }
+            header.putLong(Tablebase.HEADER_SIZE + 4 + 8 * blocks, offset);
+            header.rewind();
+            channel.write(header, 0);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String summary(TablebaseIndex index, char[] values, long millis) {
+        long wins = 0, losses = 0, draws = 0;
+        int longest = 0;
+        for (int v : values) {
+            if (v == Tablebase.DRAW) draws++;
+            else if (Tablebase.isWin(v)) wins++;
+            else if (Tablebase.isLoss(v)) losses++;
+            if (v >= 2) longest = Math.max(longest, Tablebase.distance(v));
+        }
+        return index + ": " + (wins + losses + draws) + " positions, " + wins + " wins, " + losses + " losses, "
+                + draws + " draws, longest " + longest + ", " + millis + " ms";
+    }
+
+    public static void main(String[] args) throws IOException {
+        int maxPieces = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Path directory = Paths.get(args.length > 1 ? args[1] : TablebaseProbe.DEFAULT_DIRECTORY);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long start = System.currentTimeMillis();
+        new TablebaseGenerator(directory, maxPieces, threads).generate();
+        System.out.println("Tablebase up to " + maxPieces + " pieces generated in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,235 @@
+package tablebase;
+
+import logic.BitBoard;
+import pieces.PieceColor;
+
+/**
+ * Egy anyagi felállás (fehér normál bábuk, fehér királynők, fekete normál bábuk, fekete királynők száma)
+ * állásainak tökéletes hash függvénye: minden álláshoz egy egyedi indexet rendel 0 és size()-1 között, és vissza.
+ *
+ * Az index négy kombináció sorszámából áll (kombinatorikus számrendszer):
+ *  - a fehér normál bábuk a 28 lehetséges mezőn (a 0. sorban nem állhat fehér normál bábu, mert ott promótálódik),
+ *  - a fekete normál bábuk a 28 lehetséges mezőn (a 7. sor kivételével),
+ *  - a fehér királynők a normál bábuk által szabadon hagyott mezőkön,
+ *  - a fekete királynők a maradék szabad mezőkön.
+ * Ha a két szín normál bábui ugyanarra a mezőre esnének, az index érvénytelen (decode hamisat ad), ez kevés helyet pazarol,
+ * cserébe az index egyszerű szorzatként számolható. A lépő fél nem része az indexnek, a táblák színenként külön részben tárolják.
+ */
+public final class TablebaseIndex {
+
+    private static final int MEN_SQUARES = 28; // A normál bábuk lehetséges mezőinek száma.
+    private static final int WHITE_MEN_SHIFT = 4; // A fehér normál bábuk mezői a 4. mezőtől kezdődnek.
+    private static final int BLACK_MEN_MASK = 0x0FFFFFFF; // A fekete normál bábuk lehetséges mezői.
+    private static final long[][] BINOMIAL = new long[BitBoard.SQUARES + 1][BitBoard.SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= BitBoard.SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    private final int whiteMen, whiteKings, blackMen, blackKings;
+    private final int whiteMenCount, blackMenCount, whiteKingsCount, blackKingsCount; // Az egyes kombinációk száma.
+    private final int size; // Az indexek száma egy lépő félre.
+
+    /**
+     * @throws IllegalArgumentException Ha a felállás nem lehetséges, vagy túl sok állást tartalmaz.
+     */
+    public TablebaseIndex(int whiteMen, int whiteKings, int blackMen, int blackKings) {
+        if (whiteMen < 0 || whiteKings < 0 || blackMen < 0 || blackKings < 0 || whiteMen > MEN_SQUARES || blackMen > MEN_SQUARES
+                || whiteMen + whiteKings + blackMen + blackKings > BitBoard.SQUARES || whiteKings > 15 || blackKings > 15) {
+            throw new IllegalArgumentException("Invalid material: " + whiteMen + whiteKings + blackMen + blackKings);
+        }
+        this.whiteMen = whiteMen;
+        this.whiteKings = whiteKings;
+        this.blackMen = blackMen;
+        this.blackKings = blackKings;
+        int free = BitBoard.SQUARES - whiteMen - blackMen;
+        whiteMenCount = (int) BINOMIAL[MEN_SQUARES][whiteMen];
+        blackMenCount = (int) BINOMIAL[MEN_SQUARES][blackMen];
+        whiteKingsCount = (int) BINOMIAL[free][whiteKings];
+        blackKingsCount = (int) BINOMIAL[free - whiteKings][blackKings];
+        long total = (long) whiteMenCount * blackMenCount * whiteKingsCount * blackKingsCount;
+        if (total > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Too many positions: " + total);
+        }
+        size = (int) total;
+    }
+
+    /**
+     * @param position Egy állás.
+     * @return Az állás anyagi felállásának indexelője.
+     */
+    public static TablebaseIndex of(BitBoard position) {
+        int kings = position.getKings();
+        return new TablebaseIndex(Integer.bitCount(position.getWhite() & ~kings), Integer.bitCount(position.getWhite() & kings),
+                Integer.bitCount(position.getBlack() & ~kings), Integer.bitCount(position.getBlack() & kings));
+    }
+
+    /**
+     * Az anyagi felállás egész kódja, bábu típusonként 4 bit.
+     */
+    public static int materialCode(int whiteMen, int whiteKings, int blackMen, int blackKings) {
+        return whiteMen | whiteKings << 4 | blackMen << 8 | blackKings << 12;
+    }
+
+    /**
+     * @param position Egy állás.
+     * @return Az állás anyagi felállásának kódja.
+     */
+    public static int materialCode(BitBoard position) {
+        int kings = position.getKings();
+        return materialCode(Integer.bitCount(position.getWhite() & ~kings), Integer.bitCount(position.getWhite() & kings),
+                Integer.bitCount(position.getBlack() & ~kings), Integer.bitCount(position.getBlack() & kings));
+    }
+
+    public int materialCode() {
+        return materialCode(whiteMen, whiteKings, blackMen, blackKings);
+    }
+
+    /**
+     * Az állás indexe. Az állásnak ehhez az anyagi felálláshoz kell tartoznia.
+     *
+     * @param position Az állás.
+     * @return Az index 0 és size()-1 között (a lépő féltől független).
+     */
+    public int index(BitBoard position) {
+        int kings = position.getKings();
+        int wm = position.getWhite() & ~kings;
+        int bm = position.getBlack() & ~kings;
+        int wk = position.getWhite() & kings;
+        int bk = position.getBlack() & kings;
+        int free = ~(wm | bm);
+        long index = rank(wm >>> WHITE_MEN_SHIFT);
+        index = index * blackMenCount + rank(bm & BLACK_MEN_MASK);
+        index = index * whiteKingsCount + rank(compress(wk, free));
+        index = index * blackKingsCount + rank(compress(bk, free & ~wk));
+        return (int) index;
+    }
+
+    /**
+     * Visszaállítja az indexhez tartozó állást.
+     *
+     * @param index Az index 0 és size()-1 között.
+     * @param side A lépő fél.
+     * @param out Ide kerül az állás.
+     * @return Hamis, ha az index nem tartozik érvényes álláshoz (a két szín normál bábui ütköznek).
+     */
+    public boolean decode(int index, PieceColor side, BitBoard out) {
+        int r4 = index % blackKingsCount;
+        index /= blackKingsCount;
+        int r3 = index % whiteKingsCount;
+        index /= whiteKingsCount;
+        int r2 = index % blackMenCount;
+        int r1 = index / blackMenCount;
+        int wm = unrank(r1, whiteMen) << WHITE_MEN_SHIFT;
+        int bm = unrank(r2, blackMen);
+        if ((wm & bm) != 0) return false;
+        int free = ~(wm | bm);
+        int wk = expand(unrank(r3, whiteKings), free);
+        int bk = expand(unrank(r4, blackKings), free & ~wk);
+        out.set(wm | wk, bm | bk, wk | bk, side);
+        return true;
+    }
+
+    /**
+     * A maszk bitjeinek kombinatorikus sorszáma: a növekvő sorrendű p0 < p1 < ... pozíciókra C(p0,1) + C(p1,2) + ...
+     */
+    private static long rank(int mask) {
+        long rank = 0;
+        for (int i = 1; mask != 0; i++) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(mask)][i];
+            mask &= mask - 1;
+        }
+        return rank;
+    }
+
+    /**
+     * A rank inverze: a k elemű kombináció maszkja a sorszámából.
+     */
+    private static int unrank(long rank, int k) {
+        int mask = 0;
+        int p = BitBoard.SQUARES - 1;
+        for (int i = k; i >= 1; i--) {
+            while (BINOMIAL[p][i] > rank) p--;
+            mask |= 1 << p;
+            rank -= BINOMIAL[p][i];
+            p--;
+        }
+        return mask;
+    }
+
+    /**
+     * A maszk bitjeit a szabad mezők között elfoglalt helyük szerint tömöríti (a szabad mezők sorszámai lesznek a bitek).
+     */
+    private static int compress(int mask, int free) {
+        int result = 0;
+        int bit = 1;
+        for (int f = free; f != 0; f &= f - 1) {
+            if ((mask & f & -f) != 0) result |= bit;
+            bit <<= 1;
+        }
+        return result;
+    }
+
+    /**
+     * A compress inverze: a tömörített bitek a szabad mezőkre kerülnek vissza.
+     */
+    private static int expand(int compressed, int free) {
+        int result = 0;
+        for (int f = free; compressed != 0 && f != 0; f &= f - 1) {
+            if ((compressed & 1) != 0) result |= f & -f;
+            compressed >>>= 1;
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getWhiteMen() {
+        return whiteMen;
+    }
+
+    public int getWhiteKings() {
+        return whiteKings;
+    }
+
+    public int getBlackMen() {
+        return blackMen;
+    }
+
+    public int getBlackKings() {
+        return blackKings;
+    }
+
+    /**
+     * @return Az összes bábu száma.
+     */
+    public int pieces() {
+        return whiteMen + whiteKings + blackMen + blackKings;
+    }
+
+    /**
+     * @return A felálláshoz tartozó fájl neve, pl. "2101.cktb" (fehér normál, fehér királynő, fekete normál, fekete királynő).
+     */
+    public String fileName() {
+        return "" + whiteMen + whiteKings + blackMen + blackKings + Tablebase.FILE_EXTENSION;
+    }
+
+    /**
+     * @return A felálláshoz tartozó tömörített fájl neve, pl. "2101.cktbz".
+     */
+    public String compressedFileName() {
+        return "" + whiteMen + whiteKings + blackMen + blackKings + Tablebase.COMPRESSED_EXTENSION;
+    }
+
+    @Override
+    public String toString() {
+        return "" + whiteMen + whiteKings + blackMen + blackKings;
+    }
+}
@@ -0,0 +1,286 @@
+package tablebase;
+
+import logic.BitBoard;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Végjáték táblák lekérdezése játék és keresés közben, a blokkonként tömörített fájlokból (lásd Tablebase).
+ *
+ * A szeletek fájljai az első lekérdezéskor nyílnak meg, FileChannel-en keresztül memóriába képezve, így a tömörített adat
+ * sem a heap-en van. Egy érték kiolvasásához a hozzá tartozó blokkot kell kitömöríteni. A kitömörített blokkokat
+ * egy korlátos méretű LRU gyorsítótár tárolja, így a keresés közben ismétlődő lekérdezések nagy része memóriából,
+ * kitömörítés nélkül teljesül. A gyorsítótár szegmensekre oszlik, hogy a párhuzamos keresés szálai ritkán várjanak egymásra.
+ * A lekérdezésekről és a gyorsítótárról számlálók készülnek.
+ * Bármely szálból használható.
+ */
+public class TablebaseProbe {
+
+    public static final String DEFAULT_DIRECTORY = "tablebases"; // Az alapértelmezett könyvtár.
+    public static final int DEFAULT_CACHE_BLOCKS = 4096; // Alapértelmezett gyorsítótár méret blokkokban (32 MB).
+
+    private static final int SEGMENTS = 16; // A gyorsítótár szegmenseinek száma (kettő hatvány).
+    private static final Slice MISSING = new Slice(null, null, 0); // A hiányzó szeletek jelölője.
+
+    private final Path directory;
+    private final int maxPieces; // A legnagyobb bábuszám, amelyhez van fájl.
+    private final Map<Integer, Slice> slices = new ConcurrentHashMap<>(); // A megnyitott szeletek anyagi kód szerint.
+    private final BlockCache[] cache = new BlockCache[SEGMENTS];
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder blockHits = new LongAdder();
+    private final LongAdder blockMisses = new LongAdder();
+
+    /**
+     * Egy megnyitott szelet: az indexelője, a memóriába képezett fájl és a blokkok kezdőpozíciói.
+     */
+    private static final class Slice {
+        final TablebaseIndex index;
+        final ByteBuffer file;
+        final int width; // Az értékek szélessége bájtban.
+
+        Slice(TablebaseIndex index, ByteBuffer file, int width) {
+            this.index = index;
+            this.file = file;
+            this.width = width;
+        }
+
+        long blockOffset(int block) {
+            return file.getLong(Tablebase.HEADER_SIZE + 4 + 8 * block);
+        }
+    }
+
+    /**
+     * A gyorsítótár egy szegmense: hozzáférési sorrendű LinkedHashMap, amely a legrégebben használt blokkot dobja el.
+     * Nem szálbiztos, a szegmensre szinkronizálva kell használni.
+     */
+    private static final class BlockCache {
+        private final LinkedHashMap<Long, byte[]> blocks = new LinkedHashMap<>(16, 0.75f, true); // A blokkok használati sorrendben.
+        private final int capacity;
+
+        BlockCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        byte[] get(long key) {
+            return blocks.get(key);
+        }
+
+        void put(long key, byte[] data) {
+            blocks.put(key, data);
+            if (blocks.size() > capacity) {
+                Iterator<Long> eldest = blocks.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * @param directory A tömörített fájlok könyvtára.
+     * @param maxPieces A legnagyobb bábuszám, amelyhez van fájl.
+     * @param cacheBlocks A gyorsítótárban tartott kitömörített blokkok legnagyobb száma.
+     */
+    public TablebaseProbe(Path directory, int maxPieces, int cacheBlocks) {
+        this.directory = directory;
+        this.maxPieces = maxPieces;
+        for (int i = 0; i < SEGMENTS; i++) {
+            cache[i] = new BlockCache(Math.max(1, cacheBlocks / SEGMENTS));
+        }
+    }
+
+    /**
+     * Megnyitja a könyvtár tábláit, ha vannak. A legnagyobb bábuszámot a fájlnevekből állapítja meg.
+     *
+     * @param directory A tömörített fájlok könyvtára.
+     * @param cacheBlocks A gyorsítótárban tartott kitömörített blokkok legnagyobb száma.
+     * @return A lekérdező, vagy null, ha a könyvtár nem létezik vagy nincs benne tömörített tábla.
+     */
+    public static TablebaseProbe open(Path directory, int cacheBlocks) {
+        if (!Files.isDirectory(directory)) return null;
+        int maxPieces = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + Tablebase.COMPRESSED_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int pieces = 0;
+                for (int i = 0; i < 4; i++) {
+                    pieces += Character.digit(name.charAt(i), 10);
+                }
+                maxPieces = Math.max(maxPieces, pieces);
+            }
+        } catch (IOException e) {
+            System.err.println("Error opening tablebases: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return maxPieces > 0 ? new TablebaseProbe(directory, maxPieces, cacheBlocks) : null;
+    }
+
+    /**
+     * Megkeresi az állás értékét.
+     *
+     * @param position Az állás.
+     * @return Az érték a lépő fél szemszögéből (Tablebase kódolás), vagy Tablebase.INVALID, ha az állás nincs a táblákban.
+     */
+    public int probe(BitBoard position) {
+        return probe(position, position.getSideToMove());
+    }
+
+    /**
+     * Megkeresi az állás értékét, ha a megadott fél következik (az állásban tárolt lépő féltől függetlenül).
+     *
+     * @param position Az állás.
+     * @param side A lépő fél.
+     * @return Az érték a lépő fél szemszögéből (Tablebase kódolás), vagy Tablebase.INVALID, ha az állás nincs a táblákban.
+     */
+    public int probe(BitBoard position, PieceColor side) {
+        if (Integer.bitCount(position.getWhite() | position.getBlack()) > maxPieces) return Tablebase.INVALID;
+        probes.increment();
+        Slice slice = slice(TablebaseIndex.materialCode(position), position);
+        if (slice == MISSING) return Tablebase.INVALID;
+
+        long i = (side == PieceColor.WHITE ? 0 : slice.index.size()) + (long) slice.index.index(position);
+        long byteOffset = i * slice.width;
+        int block = (int) (byteOffset / Tablebase.BLOCK_BYTES);
+        int within = (int) (byteOffset % Tablebase.BLOCK_BYTES);
+        byte[] data = block(slice, block);
+        if (data == null) return Tablebase.INVALID;
+        hits.increment();
+        return slice.width == 1 ? data[within] & 0xFF : (data[within] & 0xFF) << 8 | (data[within + 1] & 0xFF);
+    }
+
+    /**
+     * @return Igaz, ha az állás bábuszáma alapján szerepelhet a táblákban.
+     */
+    public boolean covers(BitBoard position) {
+        return Integer.bitCount(position.getWhite() | position.getBlack()) <= maxPieces;
+    }
+
+    private Slice slice(int code, BitBoard position) {
+        Slice slice = slices.get(code);
+        if (slice != null) return slice;
+        return slices.computeIfAbsent(code, c -> openSlice(TablebaseIndex.of(position)));
+    }
+
+    private Slice openSlice(TablebaseIndex index) {
+        Path file = directory.resolve(index.compressedFileName());
+        if (!Files.exists(file)) return MISSING;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Tablebase.checkHeader(buffer, index, Tablebase.COMPRESSED_MAGIC);
+            return new Slice(index, buffer, buffer.get(14));
+        } catch (IOException e) {
+            System.err.println("Error opening tablebase " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            return MISSING;
+        }
+    }
+
+    /**
+     * A szelet egy kitömörített blokkja, a gyorsítótárból vagy a fájlból.
+     */
+    private byte[] block(Slice slice, int block) {
+        long key = (long) slice.index.materialCode() << 32 | block;
+        BlockCache segment = cache[(int) (key ^ key >>> 29) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            byte[] data = segment.get(key);
+            if (data != null) {
+                blockHits.increment();
+                return data;
+            }
+        }
+        blockMisses.increment();
+        byte[] data = inflate(slice, block);
+        if (data != null) {
+            synchronized (segment) {
+                segment.put(key, data);
+            }
+        }
+        return data;
+    }
+
+    private byte[] inflate(Slice slice, int block) {
+        long start = slice.blockOffset(block);
+        long end = slice.blockOffset(block + 1);
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(slice.file.slice((int) start, (int) (end - start)));
+        byte[] data = new byte[Tablebase.BLOCK_BYTES];
+        try {
+            int length = 0;
+            while (!inflater.finished() && length < data.length) {
+                int n = inflater.inflate(data, length, data.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += n;
+            }
+            // Teljes blokknál a folyam végét jelző rész még hátra lehet; ha ezután is adat jönne, a blokk hibás.
+            if (!inflater.finished() && length == data.length && inflater.inflate(new byte[1]) != 0) length++;
+            if (!inflater.finished()) {
+                System.err.println("Truncated tablebase block " + block + " of " + slice.index + " (" + length + " bytes)");
+                return null;
+            }
+            return data;
+        } catch (DataFormatException e) {
+            System.err.println("Corrupt tablebase block " + block + " of " + slice.index + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getBlockHits() {
+        return blockHits.sum();
+    }
+
+    public long getBlockMisses() {
+        return blockMisses.sum();
+    }
+
+    /**
+     * @return A lekérdezések közül a táblában megtaláltak aránya (0-1).
+     */
+    public double getHitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+    /**
+     * @return A blokk olvasások közül a gyorsítótárból teljesültek aránya (0-1).
+     */
+    public double getCacheHitRate() {
+        long total = blockHits.sum() + blockMisses.sum();
+        return total == 0 ? 0 : (double) blockHits.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Tablebase %d pieces, probes %d, hit rate %.1f%%, block cache hit rate %.1f%% (%d misses)",
+                maxPieces, getProbes(), 100 * getHitRate(), 100 * getCacheHitRate(), getBlockMisses());
+    }
+}
@@ -0,0 +1,131 @@
+package test;
+
+import board.Board;
+import logic.BitBoard;
+import logic.Capture;
+import logic.GameLogic;
+import logic.Move;
+import logic.PackedMove;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pieces.Piece;
+import pieces.PieceColor;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A BitBoard osztály tesztjei. A lépésgenerálást a GameLogic listás metódusaival veti össze.
+ */
+class BitBoardTest {
+
+    private Board board;
+    private GameLogic gameLogic;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board();
+        gameLogic = new GameLogic();
+    }
+
+    /**
+     * A mezők sorszámozásának oda-vissza konverzióját teszteli.
+     */
+    @Test
+    void testSquareConversion() {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            int row = BitBoard.rowOf(sq);
+            int col = BitBoard.colOf(sq);
+            assertTrue(BitBoard.isDarkSquare(row, col));
+            assertEquals(sq, BitBoard.square(row, col));
+        }
+    }
+
+    /**
+     * Teszteli, hogy a Board.initBoard által felállított állás megegyezik a BitBoard kezdőállásával,
+     * és hogy a 2D tömbbé visszaalakítás ugyanazokat a megosztott bábu példányokat adja.
+     */
+    @Test
+    void testInitialPositionRoundTrip() {
+        board.initBoard();
+        BitBoard position = BitBoard.fromPieces(board.getPieces(), PieceColor.WHITE);
+        assertEquals(BitBoard.initial(), position);
+
+        Piece[][] pieces = position.toPieces();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                assertSame(board.getPieces()[r][c], pieces[r][c]);
+            }
+        }
+    }
+
+    /**
+     * A szöveges alak oda-vissza konverzióját teszteli.
+     */
+    @Test
+    void testParse() {
+        BitBoard position = new BitBoard(0x00100001, 0x00000400, 0x00000401, PieceColor.BLACK);
+        assertEquals(position, BitBoard.parse(position.toString()));
+        assertThrows(IllegalArgumentException.class, () -> BitBoard.parse("xyz"));
+    }
+
+    /**
+     * Véletlen állásokon veti össze a normál lépések és ütések célmezőit a GameLogic listáival.
+     */
+    @Test
+    void testTargetsMatchGameLogic() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            board.clearBoard();
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                int kind = random.nextInt(6);
+                if (kind > 3) continue;
+                PieceColor color = kind % 2 == 0 ? PieceColor.WHITE : PieceColor.BLACK;
+                int r = BitBoard.rowOf(sq);
+                int c = BitBoard.colOf(sq);
+                board.setPiece(Piece.of(color, kind >= 2), r, c);
+            }
+            PieceColor side = random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK;
+            BitBoard position = BitBoard.fromPieces(board.getPieces(), side);
+
+            boolean sideHasMoves = false;
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                int r = BitBoard.rowOf(sq);
+                int c = BitBoard.colOf(sq);
+                List<Move> moves = gameLogic.updateListOfNormalMoves(board.getPieces(), r, c, side);
+                List<Capture> captures = gameLogic.updateListOfCaptures(board.getPieces(), r, c, side);
+                assertEquals(toMask(moves), position.normalMoveTargets(sq));
+                assertEquals(toMask(captures), position.captureTargets(sq));
+                sideHasMoves |= !moves.isEmpty() || !captures.isEmpty();
+            }
+            assertEquals(sideHasMoves, position.hasMoves(side));
+        }
+    }
+
+    /**
+     * A visszavonási verem a kezdeti méretén túl is nő: két királynő ide-oda lépései a verem többszöröséig visszavonhatók.
+     */
+    @Test
+    void testUndoStackGrows() {
+        int w1 = BitBoard.square(5, 0), w2 = BitBoard.square(4, 1), b1 = BitBoard.square(0, 1), b2 = BitBoard.square(1, 0);
+        BitBoard start = new BitBoard(1 << w1, 1 << b1, 1 << w1 | 1 << b1, PieceColor.WHITE);
+        int[] cycle = {PackedMove.normal(w1, w2, false), PackedMove.normal(b1, b2, false),
+                PackedMove.normal(w2, w1, false), PackedMove.normal(b2, b1, false)};
+        BitBoard position = new BitBoard();
+        position.copyFrom(start);
+        int plies = 3 * BitBoard.UNDO_CAPACITY + 2;
+        for (int i = 0; i < plies; i++) position.makeMove(cycle[i % 4]);
+        assertEquals(plies, position.getUndoDepth());
+        while (position.getUndoDepth() > 0) position.unmakeMove();
+        assertEquals(start, position);
+        assertEquals(start.getHash(), position.getHash());
+    }
+
+    private static int toMask(List<? extends Move> moves) {
+        int mask = 0;
+        for (Move m : moves) mask |= 1 << BitBoard.square(m.getRow(), m.getCol());
+        return mask;
+    }
+}
@@ -2,7 +2,9 @@ package test;
 
 import board.Board;
 import board.FieldColor;
+import logic.BitBoard;
 import logic.Capture;
+import logic.MoveGenerator;
 import main.BoardOutput;
 import main.LeaderBoard;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +15,11 @@ import pieces.PieceColor;
 import pieces.QueenPiece;
 import players.Player;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,38 +48,118 @@ class BoardTest {
     @Test
     void testMove() {
         // Arrange
-        Piece whitePiece = new NormalPiece(board, 1, 0, PieceColor.WHITE);
-        board.setPiece(whitePiece, 1, 0);
+        board.setPiece(NormalPiece.WHITE, 1, 0);
 
         // Act
-        board.makeMove(whitePiece, 0, 1); // Move to the last row
+        board.makeMove(1, 0, 0, 1); // Move to the last row
 
         // Assert
-        assertInstanceOf(QueenPiece.class, board.getPieces()[0][1]);
+        assertSame(QueenPiece.WHITE, board.getPieces()[0][1]);
         assertNull(board.getPieces()[1][0]);
-        assertEquals(0, board.getPieces()[0][1].getRow());
-        assertEquals(1, board.getPieces()[0][1].getCol());
     }
 
     /**
-     * Teszteli, hogy ütés esetén a leütött bábu törlésre kerül e a tábláról, illetve az ütő bábu adatai frissülnek-e.
+     * Teszteli, hogy ütés esetén a leütött bábu törlésre kerül e a tábláról, illetve az ütő bábu és a kiválasztás a célmezőre kerül-e.
      */
     @Test
     void testCapture() {
-        Piece blackPiece = new NormalPiece(board, 4, 3, PieceColor.BLACK);
-        Piece whitePiece = new NormalPiece(board, 5, 4, PieceColor.WHITE);
+        Piece blackPiece = NormalPiece.BLACK;
+        Piece whitePiece = NormalPiece.WHITE;
 
         board.setPiece(blackPiece, 4, 3);
         board.setPiece(whitePiece, 5, 4);
 
-        board.setSelectedPiece(whitePiece);
-        List<Capture> captureList = board.getGameLogic().updateListOfCaptures(board.getPieces(), whitePiece, PieceColor.WHITE);
+        board.select(5, 4);
+        List<Capture> captureList = board.getGameLogic().updateListOfCaptures(board.getPieces(), 5, 4, PieceColor.WHITE);
+        assertEquals(1, captureList.size());
 
-        board.makeCapture(whitePiece, 3, 2);
+        board.makeCapture(5, 4, 3, 2);
 
         assertNull(board.getPieces()[4][3]);
-        assertEquals(3, whitePiece.getRow());
-        assertEquals(2, whitePiece.getCol());
+        assertNull(board.getPieces()[5][4]);
+        assertSame(whitePiece, board.getPieces()[3][2]);
+        assertEquals(3, board.getSelectedRow());
+        assertEquals(2, board.getSelectedCol());
+    }
+
+    /**
+     * Teszteli, hogy a tábla tömör állása lépés és ütés után is megegyezik a bábuk 2D tömbjével.
+     */
+    @Test
+    void testPositionFollowsMoves() {
+        board.initBoard();
+        assertEquals(BitBoard.initial(), board.getPosition());
+
+        board.makeMove(5, 2, 4, 3);
+        assertEquals(BitBoard.fromPieces(board.getPieces(), PieceColor.BLACK), board.getPosition());
+
+        board.makeMove(2, 5, 3, 4);
+        board.select(4, 3);
+        board.makeCapture(4, 3, 2, 5);
+        assertNull(board.getPieces()[3][4]);
+        assertEquals(BitBoard.fromPieces(board.getPieces(), board.getCurrentPlayer()), board.getPosition());
+        assertEquals(BitBoard.fromPieces(board.getPieces(), board.getCurrentPlayer()).getHash(), board.getHash());
+    }
+
+    /**
+     * Egy ütés és a hozzá tartozó promótálás visszavonását teszteli.
+     * Visszavonás után a promótálás előtti bábu és a leütött bábu kerül vissza, a lépésszám és a jelenlegi játékos is visszaáll.
+     */
+    @Test
+    void testUnmakeMove() {
+        Piece whitePiece = NormalPiece.WHITE;
+        Piece blackPiece = NormalPiece.BLACK;
+        Piece otherBlackPiece = NormalPiece.BLACK;
+        board.setPiece(whitePiece, 2, 3);
+        board.setPiece(blackPiece, 1, 2);
+        board.setPiece(otherBlackPiece, 4, 7);
+        BitBoard before = BitBoard.fromPieces(board.getPieces(), PieceColor.WHITE);
+
+        board.select(2, 3);
+        board.makeCapture(2, 3, 0, 1);
+        assertSame(QueenPiece.WHITE, board.getPieces()[0][1]);
+        assertEquals(PieceColor.BLACK, board.getCurrentPlayer());
+        assertEquals(2, mockOutput.getPlayers()[0].getMovecount());
+
+        assertTrue(board.unmakeMove());
+        assertSame(whitePiece, board.getPieces()[2][3]);
+        assertSame(blackPiece, board.getPieces()[1][2]);
+        assertNull(board.getPieces()[0][1]);
+        assertEquals(PieceColor.WHITE, board.getCurrentPlayer());
+        assertEquals(1, mockOutput.getPlayers()[0].getMovecount());
+        assertEquals(before, board.getPosition());
+        assertFalse(board.unmakeMove());
+    }
+
+    /**
+     * Egy MoveGenerator által előállított kettős ütés végrehajtását teszteli a makeSequence metódussal.
+     * Mindkét leütött bábu eltűnik, az ütő bábu a célmezőre kerül, és a fekete következik.
+     */
+    @Test
+    void testMakeSequence() {
+        Piece whitePiece = NormalPiece.WHITE;
+        board.setPiece(whitePiece, 6, 1);
+        board.setPiece(NormalPiece.BLACK, 5, 2);
+        board.setPiece(NormalPiece.BLACK, 3, 4);
+        board.setPiece(NormalPiece.BLACK, 0, 7);
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(board.getPosition(), moves, captured);
+        int index = -1;
+        for (int i = 0; i < count; i++) {
+            if (Integer.bitCount(captured[i]) == 2) index = i;
+        }
+        assertTrue(index >= 0);
+
+        board.makeSequence(moves[index], captured[index]);
+        assertSame(whitePiece, board.getPieces()[2][5]);
+        assertNull(board.getPieces()[5][2]);
+        assertNull(board.getPieces()[3][4]);
+        assertNull(board.getPieces()[6][1]);
+        assertNull(board.getSelectedPiece());
+        assertEquals(PieceColor.BLACK, board.getCurrentPlayer());
+        assertEquals(BitBoard.fromPieces(board.getPieces(), PieceColor.BLACK), board.getPosition());
     }
 
     /**
@@ -99,5 +186,30 @@ class BoardTest {
         assertEquals(FieldColor.DARK, board.colorOfField(1, 0));
         assertEquals(FieldColor.LIGHT, board.colorOfField(1, 1));
     }
-}
 
+    /**
+     * A bábuk megosztott példányok: a kezdőállás csak a két normál bábu példányt tartalmazza,
+     * és a mentett tömb beolvasása után is ugyanazok a példányok kerülnek vissza.
+     */
+    @Test
+    void testPiecesAreShared() throws IOException, ClassNotFoundException {
+        board.initBoard();
+        assertSame(NormalPiece.BLACK, board.getPieces()[0][1]);
+        assertSame(NormalPiece.WHITE, board.getPieces()[7][0]);
+        assertSame(QueenPiece.BLACK, Piece.of(PieceColor.BLACK, true));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(board.getPieces());
+        }
+        Piece[][] loaded;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            loaded = (Piece[][]) in.readObject();
+        }
+        for (int r = 0; r < board.getRows(); r++) {
+            for (int c = 0; c < board.getCols(); c++) {
+                assertSame(board.getPieces()[r][c], loaded[r][c]);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package test;
+
+import engine.Evaluation;
+import logic.BitBoard;
+import logic.MoveGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pieces.PieceColor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A statikus értékelés és növekményes frissítésének tesztjei.
+ */
+class EvaluationTest {
+
+    /**
+     * Véletlen játszmákban minden lépés és visszavonás után a növekményesen követett érték megegyezik a teljes újraszámolással.
+     */
+    @Test
+    void testIncrementalMatchesFull() {
+        Evaluation evaluation = Evaluation.DEFAULT;
+        Random random = new Random(7);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            BitBoard position = BitBoard.initial();
+            position.setPieceSquareTable(evaluation.pieceSquareTable());
+            int[] scores = new int[200];
+            int ply = 0;
+            for (; ply < scores.length; ply++) {
+                scores[ply] = position.getPieceSquareScore();
+                assertEquals(evaluation.evaluateFull(position), evaluation.evaluate(position), position.toString());
+                int count = MoveGenerator.generateLegal(position, moves, captured);
+                if (count == 0) break;
+                int m = random.nextInt(count);
+                position.makeMove(moves[m], captured[m]);
+            }
+            for (ply--; ply >= 0; ply--) {
+                position.unmakeMove();
+                assertEquals(scores[ply], position.getPieceSquareScore());
+            }
+        }
+    }
+
+    /**
+     * A szimmetrikus kezdőállás értéke 0, az anyagi előny pozitív a lépő félnek, az elszabadult bábu pótlékot kap.
+     */
+    @Test
+    void testTerms() {
+        Evaluation evaluation = Evaluation.DEFAULT;
+        BitBoard initial = BitBoard.initial();
+        initial.setPieceSquareTable(evaluation.pieceSquareTable());
+        assertEquals(0, evaluation.evaluate(initial));
+
+        BitBoard position = new BitBoard(1 << BitBoard.square(6, 1), 1 << BitBoard.square(1, 0) | 1 << BitBoard.square(1, 2),
+                0, PieceColor.BLACK);
+        position.setPieceSquareTable(evaluation.pieceSquareTable());
+        assertTrue(evaluation.evaluate(position) >= evaluation.getManValue() / 2);
+
+        BitBoard blocked = new BitBoard(1 << BitBoard.square(3, 2), 1 << BitBoard.square(0, 1), 0, PieceColor.WHITE);
+        BitBoard free = new BitBoard(1 << BitBoard.square(3, 2), 1 << BitBoard.square(0, 7), 0, PieceColor.WHITE);
+        blocked.setPieceSquareTable(evaluation.pieceSquareTable());
+        free.setPieceSquareTable(evaluation.pieceSquareTable());
+        assertTrue(evaluation.evaluate(free) > evaluation.evaluate(blocked));
+    }
+
+    /**
+     * A mentett súlyok visszatölthetők, a fájlból hiányzó kulcsok az alapértelmezett értéket kapják.
+     */
+    @Test
+    void testLoadWeights(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve(Evaluation.DEFAULT_FILE);
+        Evaluation.DEFAULT.save(file);
+        Evaluation loaded = Evaluation.load(file);
+        BitBoard position = BitBoard.parse("..b.w.b..W...b....ww..B.w....... b");
+        position.setPieceSquareTable(loaded.pieceSquareTable());
+        assertEquals(Evaluation.DEFAULT.evaluateFull(position), loaded.evaluate(position));
+
+        Files.write(file, List.of("king=300"));
+        Evaluation kings = Evaluation.load(file);
+        assertEquals(300, kings.getKingValue());
+        assertEquals(Evaluation.DEFAULT.getManValue(), kings.getManValue());
+        assertNull(Evaluation.open(directory.resolve("missing.properties")));
+    }
+}
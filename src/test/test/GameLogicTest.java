@@ -14,8 +14,13 @@ import pieces.QueenPiece;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import players.Player;
+import tablebase.TablebaseGenerator;
+import tablebase.TablebaseProbe;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,7 +55,7 @@ class GameLogicTest {
         assertNotNull(whitePiece);
         assertEquals(PieceColor.WHITE, whitePiece.getColor());
 
-        MoveType moveType = gameLogic.isValidMove(board, whitePiece, 4, 1);
+        MoveType moveType = gameLogic.isValidMove(board, 5, 0, 4, 1);
         assertEquals(MoveType.NormalMove, moveType);
     }
 
@@ -61,13 +66,13 @@ class GameLogicTest {
      */
     @Test
     void testIsValidMoveCaptureMove() {
-        board.getPieces()[4][1] = new NormalPiece(board, 4, 1, PieceColor.BLACK);
+        board.getPieces()[4][1] = NormalPiece.BLACK;
 
         Piece whitePiece = board.getPieces()[5][0];
         assertNotNull(whitePiece);
         assertEquals(PieceColor.WHITE, whitePiece.getColor());
 
-        MoveType moveType = gameLogic.isValidMove(board, whitePiece, 3, 2);
+        MoveType moveType = gameLogic.isValidMove(board, 5, 0, 3, 2);
         assertEquals(MoveType.CaptureMove, moveType);
     }
 
@@ -82,7 +87,7 @@ class GameLogicTest {
         assertNotNull(whitePiece);
         assertEquals(PieceColor.WHITE, whitePiece.getColor());
 
-        MoveType moveType = gameLogic.isValidMove(board, whitePiece, 5, 2);
+        MoveType moveType = gameLogic.isValidMove(board, 5, 0, 5, 2);
         assertEquals(MoveType.IllegalMove, moveType);
     }
 
@@ -95,7 +100,7 @@ class GameLogicTest {
         Piece whitePiece = board.getPieces()[5][4]; // Fehér
         assertNotNull(whitePiece);
 
-        List<Move> normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), whitePiece, PieceColor.WHITE);
+        List<Move> normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), 5, 4, PieceColor.WHITE);
 
         assertEquals(2, normalMoves.size());
         assertEquals(4, normalMoves.getFirst().getRow());
@@ -105,7 +110,7 @@ class GameLogicTest {
         Piece blackPiece = board.getPieces()[2][3]; // Fekete
         assertNotNull(blackPiece);
 
-        normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), blackPiece, PieceColor.BLACK);
+        normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), 2, 3, PieceColor.BLACK);
 
         assertEquals(2, normalMoves.size());
         assertEquals(3, normalMoves.getFirst().getRow());
@@ -113,10 +118,10 @@ class GameLogicTest {
         assertEquals("(3,4)", normalMoves.get(1).toString());
 
         board.clearBoard(); // Csak királynő
-        Piece queenPiece = new QueenPiece(board, 2, 3, PieceColor.BLACK);
+        Piece queenPiece = QueenPiece.BLACK;
         board.setPiece(queenPiece, 2, 3);
 
-        normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), queenPiece, PieceColor.BLACK);
+        normalMoves = gameLogic.updateListOfNormalMoves(board.getPieces(), 2, 3, PieceColor.BLACK);
 
         assertEquals(4, normalMoves.size());
     }
@@ -128,13 +133,13 @@ class GameLogicTest {
     @Test
     void testUpdateListOfCaptures() {
         board.clearBoard();
-        Piece whitePiece = new NormalPiece(board, 4, 3, PieceColor.WHITE);
-        Piece blackPiece = new NormalPiece(board, 3, 4, PieceColor.BLACK);
+        Piece whitePiece = NormalPiece.WHITE;
+        Piece blackPiece = NormalPiece.BLACK;
         board.setPiece(whitePiece, 4, 3);
         board.setPiece(blackPiece, 3, 4);
 
         // Fehérhez tartozó ütések
-        List<Capture> captures = gameLogic.updateListOfCaptures(board.getPieces(), whitePiece, PieceColor.WHITE);
+        List<Capture> captures = gameLogic.updateListOfCaptures(board.getPieces(), 4, 3, PieceColor.WHITE);
 
         assertEquals(1, captures.size());
         assertEquals(2, captures.getFirst().getRow());
@@ -142,7 +147,7 @@ class GameLogicTest {
         assertEquals(PieceColor.BLACK, captures.getFirst().getCapturedPiece().getColor());
 
         // Feketéhez tartozó ütések
-        captures = gameLogic.updateListOfCaptures(board.getPieces(), blackPiece, PieceColor.BLACK);
+        captures = gameLogic.updateListOfCaptures(board.getPieces(), 3, 4, PieceColor.BLACK);
 
         assertEquals(1, captures.size());
         assertEquals(5, captures.getFirst().getRow());
@@ -151,18 +156,18 @@ class GameLogicTest {
 
         // Királynőhöz tartozó ütések
         board.clearBoard();
-        Piece whiteQueenPiece = new QueenPiece(board, 4, 3, PieceColor.WHITE);
-        Piece blackPiece1 = new NormalPiece(board, 3, 2, PieceColor.BLACK);
-        Piece blackPiece2 = new NormalPiece(board, 3, 4, PieceColor.BLACK);
-        Piece blackPiece3 = new NormalPiece(board, 5, 2, PieceColor.BLACK);
-        Piece blackPiece4 = new NormalPiece(board, 5, 4, PieceColor.BLACK);
+        Piece whiteQueenPiece = QueenPiece.WHITE;
+        Piece blackPiece1 = NormalPiece.BLACK;
+        Piece blackPiece2 = NormalPiece.BLACK;
+        Piece blackPiece3 = NormalPiece.BLACK;
+        Piece blackPiece4 = NormalPiece.BLACK;
         board.setPiece(whiteQueenPiece, 4, 3);
         board.setPiece(blackPiece1, 3, 2);
         board.setPiece(blackPiece2, 3, 4);
         board.setPiece(blackPiece3, 5, 2);
         board.setPiece(blackPiece4, 5, 4);
 
-        captures = gameLogic.updateListOfCaptures(board.getPieces(), whiteQueenPiece, PieceColor.WHITE);
+        captures = gameLogic.updateListOfCaptures(board.getPieces(), 4, 3, PieceColor.WHITE);
         assertEquals(4, captures.size());
     }
 
@@ -173,19 +178,19 @@ class GameLogicTest {
     void testCheckGameOverWithNoMoves() {
         // Fehérrel
         board.clearBoard();
-        board.getPieces()[0][0] = new NormalPiece(board, 0, 0, PieceColor.WHITE);
-        board.getPieces()[1][1] = new NormalPiece(board, 1, 1, PieceColor.WHITE);
+        board.getPieces()[0][0] = NormalPiece.WHITE;
+        board.getPieces()[1][1] = NormalPiece.WHITE;
 
-        boolean gameOver = gameLogic.checkGameOver(board.getPieces(), mockOutput);
+        boolean gameOver = gameLogic.checkGameOver(board.getPieces(), PieceColor.WHITE, mockOutput);
 
         assertTrue(gameOver);
 
         // Feketével
         board.clearBoard();
-        board.getPieces()[0][0] = new NormalPiece(board, 0, 0, PieceColor.BLACK);
-        board.getPieces()[1][1] = new NormalPiece(board, 1, 1, PieceColor.BLACK);
+        board.getPieces()[0][0] = NormalPiece.BLACK;
+        board.getPieces()[1][1] = NormalPiece.BLACK;
 
-        gameOver = gameLogic.checkGameOver(board.getPieces(), mockOutput);
+        gameOver = gameLogic.checkGameOver(board.getPieces(), PieceColor.WHITE, mockOutput);
 
         assertTrue(gameOver);
     }
@@ -195,7 +200,25 @@ class GameLogicTest {
      */
     @Test
     void testGameOverWithMovesForBoth() {
-        boolean gameOver = gameLogic.checkGameOver(board.getPieces(), mockOutput);
+        boolean gameOver = gameLogic.checkGameOver(board.getPieces(), PieceColor.WHITE, mockOutput);
         assertFalse(gameOver);
     }
+
+    /**
+     * Végjáték táblákkal a győztest az éppen lépett játékos ellenfelének lépésével dönti el:
+     * a fehér bábu leütheti a feketét, ha a fekete lépése után a fehér következik, fordítva viszont a fekete üthetne.
+     */
+    @Test
+    void testCheckGameOverUsesSideToMove(@TempDir Path directory) throws IOException {
+        new TablebaseGenerator(directory, 2, 1).generate();
+        gameLogic.setTablebase(TablebaseProbe.open(directory, 16));
+        board.clearBoard();
+        board.getPieces()[5][2] = NormalPiece.WHITE;
+        board.getPieces()[4][3] = NormalPiece.BLACK;
+
+        assertTrue(gameLogic.checkGameOver(board.getPieces(), PieceColor.BLACK, mockOutput));
+        assertTrue(mockOutput.getText().contains("Player1 WON"));
+        assertTrue(gameLogic.checkGameOver(board.getPieces(), PieceColor.WHITE, mockOutput));
+        assertTrue(mockOutput.getText().contains("Player2 WON"));
+    }
 }
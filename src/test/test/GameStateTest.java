@@ -0,0 +1,146 @@
+package test;
+
+import logic.BitBoard;
+import logic.GameState;
+import logic.GameStateListener;
+import logic.MoveGenerator;
+import logic.MoveType;
+import org.junit.jupiter.api.Test;
+import pieces.PieceColor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A felület nélküli játszma állapot (GameState) tesztjei. Egyik teszt sem hoz létre Swing komponenst.
+ */
+class GameStateTest {
+
+    /**
+     * Véletlen játszmákban a teljes lépések végrehajtása ugyanahhoz az álláshoz vezet, mint a BitBoard.makeMove,
+     * és a visszavonás ugrásonként visszaállítja a kezdőállást és a körök számát.
+     */
+    @Test
+    void testPlayMatchesBitBoard() {
+        Random random = new Random(11);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            GameState state = GameState.initial();
+            BitBoard reference = BitBoard.initial();
+            int plies = 0;
+            while (!state.isGameOver() && plies < 150) {
+                int count = MoveGenerator.generateLegal(reference, moves, captured);
+                int m = random.nextInt(count);
+                state.play(moves[m], captured[m]);
+                reference.makeMove(moves[m], captured[m]);
+                plies++;
+                if (!state.isGameOver()) assertEquals(reference, state.getPosition());
+            }
+            if (state.isGameOver()) continue;
+            assertEquals((plies + 1) / 2, state.getTurns(PieceColor.WHITE));
+            assertEquals(plies / 2, state.getTurns(PieceColor.BLACK));
+            int undone = 0;
+            while (state.undo()) undone++;
+            assertTrue(undone >= plies);
+            assertEquals(BitBoard.initial(), state.getPosition());
+            assertEquals(BitBoard.initial().getHash(), state.getPosition().getHash());
+            assertEquals(0, state.getTurns(PieceColor.WHITE));
+        }
+    }
+
+    /**
+     * Ütés után, ha ugyanaz a bábu tovább üthet, csak azzal lehet ütni, normál lépés nem tehető, és a kör csak a sorozat végén zárul.
+     */
+    @Test
+    void testCaptureLock() {
+        GameState state = new GameState(new BitBoard(1 << BitBoard.square(6, 1) | 1 << BitBoard.square(7, 6),
+                1 << BitBoard.square(5, 2) | 1 << BitBoard.square(3, 4) | 1 << BitBoard.square(0, 7), 0, PieceColor.WHITE));
+        List<String> events = new ArrayList<>();
+        state.addListener(new GameStateListener() {
+            @Override
+            public void pieceMoved(int from, int to, int captured, boolean promoted) {
+                events.add("move " + from + "-" + to + "x" + captured);
+            }
+
+            @Override
+            public void turnChanged(PieceColor previous, PieceColor next) {
+                events.add("turn " + next);
+            }
+        });
+
+        assertEquals(MoveType.CaptureMove, state.move(6, 1, 4, 3));
+        assertTrue(state.isCaptureLocked());
+        assertEquals(PieceColor.WHITE, state.getSideToMove());
+        assertEquals(MoveType.IllegalMove, state.validate(4, 3, 3, 2));
+        assertEquals(MoveType.IllegalMove, state.validate(7, 6, 6, 5));
+        assertEquals(1, state.captures(4, 3).size());
+
+        assertEquals(MoveType.CaptureMove, state.move(4, 3, 2, 5));
+        assertFalse(state.isCaptureLocked());
+        assertEquals(PieceColor.BLACK, state.getSideToMove());
+        assertEquals(List.of("move " + BitBoard.square(6, 1) + "-" + BitBoard.square(4, 3) + "x" + BitBoard.square(5, 2),
+                "move " + BitBoard.square(4, 3) + "-" + BitBoard.square(2, 5) + "x" + BitBoard.square(3, 4),
+                "turn BLACK"), events);
+
+        assertTrue(state.undo());
+        assertTrue(state.isCaptureLocked());
+        assertEquals(BitBoard.square(4, 3), state.getLockedSquare());
+        assertEquals(PieceColor.WHITE, state.getSideToMove());
+    }
+
+    /**
+     * A lépéstelen félre lépő játékos nyer, a játék vége után nincs több lépés és visszavonás.
+     */
+    @Test
+    void testGameOver() {
+        GameState state = new GameState(new BitBoard(1 << BitBoard.square(5, 4), 1 << BitBoard.square(4, 3), 0, PieceColor.WHITE));
+        PieceColor[] winner = new PieceColor[1];
+        state.addListener(new GameStateListener() {
+            @Override
+            public void gameOver(PieceColor w) {
+                winner[0] = w;
+            }
+        });
+        assertEquals(MoveType.CaptureMove, state.move(5, 4, 3, 2));
+        assertTrue(state.isGameOver());
+        assertEquals(PieceColor.WHITE, state.getWinner());
+        assertEquals(PieceColor.WHITE, winner[0]);
+        assertEquals(MoveType.IllegalMove, state.validate(3, 2, 2, 1));
+        assertFalse(state.undo());
+        assertThrows(IllegalArgumentException.class, () -> state.play(0, 0));
+    }
+
+    /**
+     * A célmezők gyorsítótára lépés, ugrás és visszavonás után is a jelenlegi állás szerinti célmezőket adja.
+     */
+    @Test
+    void testTargetCacheFollowsState() {
+        Random random = new Random(5);
+        GameState state = GameState.initial();
+        for (int step = 0; step < 200 && !state.isGameOver(); step++) {
+            BitBoard position = state.getPosition();
+            int normals = 0, captures = 0;
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                boolean locked = state.isCaptureLocked();
+                assertEquals(locked ? 0 : position.normalMoveTargets(sq), state.normalMoveTargets(sq));
+                assertEquals(locked && sq != state.getLockedSquare() ? 0 : position.captureTargets(sq), state.captureTargets(sq));
+                normals |= state.normalMoveTargets(sq) != 0 ? 1 << sq : 0;
+                captures |= state.captureTargets(sq) != 0 ? 1 << sq : 0;
+            }
+            if (step % 7 == 6 && state.undo()) continue;
+            int movers = captures != 0 && random.nextBoolean() ? captures : normals | captures;
+            int[] squares = new int[Integer.bitCount(movers)];
+            for (int i = 0, m = movers; m != 0; m &= m - 1) squares[i++] = Integer.numberOfTrailingZeros(m);
+            int from = squares[random.nextInt(squares.length)];
+            int targets = state.normalMoveTargets(from) | state.captureTargets(from);
+            int[] options = new int[Integer.bitCount(targets)];
+            for (int i = 0, m = targets; m != 0; m &= m - 1) options[i++] = Integer.numberOfTrailingZeros(m);
+            int to = options[random.nextInt(options.length)];
+            assertNotEquals(MoveType.IllegalMove, state.move(BitBoard.rowOf(from), BitBoard.colOf(from), BitBoard.rowOf(to), BitBoard.colOf(to)));
+        }
+    }
+}
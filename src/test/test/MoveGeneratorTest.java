@@ -0,0 +1,191 @@
+package test;
+
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+import logic.Zobrist;
+import org.junit.jupiter.api.Test;
+import pieces.PieceColor;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A MoveGenerator osztály tesztjei.
+ */
+class MoveGeneratorTest {
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * A kezdőállásban mindkét félnek 7 normál lépése van, ütése nincs.
+     */
+    @Test
+    void testInitialPosition() {
+        BitBoard position = BitBoard.initial();
+        assertEquals(7, MoveGenerator.generate(position, moves));
+
+        position.setSideToMove(PieceColor.BLACK);
+        assertEquals(7, MoveGenerator.generate(position, moves));
+    }
+
+    /**
+     * Egy ütés helyes becsomagolását teszteli: kiinduló, cél, és leütött mező.
+     */
+    @Test
+    void testCapturePacking() {
+        int from = BitBoard.square(4, 3);
+        int over = BitBoard.square(3, 4);
+        int to = BitBoard.square(2, 5);
+        BitBoard position = new BitBoard(1 << from, 1 << over, 0, PieceColor.WHITE);
+
+        int count = MoveGenerator.generateCaptures(position, ~0, moves, 0);
+
+        assertEquals(1, count);
+        assertTrue(PackedMove.isCapture(moves[0]));
+        assertFalse(PackedMove.isPromotion(moves[0]));
+        assertEquals(from, PackedMove.from(moves[0]));
+        assertEquals(to, PackedMove.to(moves[0]));
+        assertEquals(over, PackedMove.captured(moves[0]));
+        assertEquals("(4,3)x(2,5)", PackedMove.toString(moves[0]));
+    }
+
+    /**
+     * A promótálás jelzőt teszteli: a normál bábu az utolsó sorba lépve promótálódik, a királynő nem.
+     */
+    @Test
+    void testPromotionFlag() {
+        int from = BitBoard.square(1, 0);
+        BitBoard position = new BitBoard(1 << from, 0, 0, PieceColor.WHITE);
+        assertEquals(1, MoveGenerator.generate(position, moves));
+        assertTrue(PackedMove.isPromotion(moves[0]));
+
+        position = new BitBoard(1 << from, 0, 1 << from, PieceColor.WHITE);
+        int count = MoveGenerator.generate(position, moves);
+        assertEquals(2, count);
+        for (int i = 0; i < count; i++) assertFalse(PackedMove.isPromotion(moves[i]));
+    }
+
+    /**
+     * Véletlen játszmákat játszik le, majd minden lépést visszavon, és ellenőrzi, hogy minden állás pontosan visszaáll.
+     */
+    @Test
+    void testMakeUnmakeRestoresPosition() {
+        Random random = new Random(3);
+        BitBoard position = BitBoard.initial();
+        BitBoard[] history = new BitBoard[200];
+        for (int game = 0; game < 50; game++) {
+            int ply = 0;
+            while (ply < history.length) {
+                int count = MoveGenerator.generate(position, moves);
+                if (count == 0) break;
+                history[ply++] = new BitBoard(position.getWhite(), position.getBlack(), position.getKings(), position.getSideToMove());
+                position.makeMove(moves[random.nextInt(count)]);
+                assertEquals(Zobrist.hash(position.getWhite(), position.getBlack(), position.getKings(), position.getSideToMove()), position.getHash());
+                assertEquals(0, position.getWhite() & position.getBlack());
+                assertEquals(0, position.getKings() & position.getEmpty());
+            }
+            while (ply > 0) {
+                position.unmakeMove();
+                assertEquals(history[--ply], position);
+                assertEquals(history[ply].getHash(), position.getHash());
+            }
+            assertEquals(0, position.getUndoDepth());
+        }
+        assertThrows(IllegalStateException.class, position::unmakeMove);
+    }
+
+    /**
+     * Egy kétszeres ütést egyetlen lépésként kell előállítani, a két leütött mező maszkjával.
+     * A sorozat közben promótálódó bábu királynőként folytatja az ütést.
+     */
+    @Test
+    void testCaptureSequences() {
+        int[] capturedSets = new int[MoveGenerator.MAX_MOVES];
+        int from = BitBoard.square(6, 1);
+        int first = BitBoard.square(5, 2);
+        int second = BitBoard.square(3, 4);
+        BitBoard position = new BitBoard(1 << from, (1 << first) | (1 << second), 0, PieceColor.WHITE);
+
+        int count = MoveGenerator.generateCaptureSequences(position, ~0, moves, capturedSets, 0);
+        assertEquals(1, count);
+        assertEquals(from, PackedMove.from(moves[0]));
+        assertEquals(BitBoard.square(2, 5), PackedMove.to(moves[0]));
+        assertEquals((1 << first) | (1 << second), capturedSets[0]);
+
+        position.makeMove(moves[0], capturedSets[0]);
+        assertEquals(1 << BitBoard.square(2, 5), position.getWhite());
+        assertEquals(0, position.getBlack());
+        position.unmakeMove();
+        assertEquals((1 << first) | (1 << second), position.getBlack());
+
+        // Promótálás a sorozat közben: (2,1) -> (0,3), majd királynőként vissza (0,3) -> (2,5).
+        from = BitBoard.square(2, 1);
+        first = BitBoard.square(1, 2);
+        second = BitBoard.square(1, 4);
+        position = new BitBoard(1 << from, (1 << first) | (1 << second), 0, PieceColor.WHITE);
+        count = MoveGenerator.generateCaptureSequences(position, ~0, moves, capturedSets, 0);
+        assertEquals(1, count);
+        assertEquals(BitBoard.square(2, 5), PackedMove.to(moves[0]));
+        assertTrue(PackedMove.isPromotion(moves[0]));
+        position.makeMove(moves[0], capturedSets[0]);
+        assertEquals(1 << BitBoard.square(2, 5), position.getKings());
+    }
+
+    /**
+     * Véletlen játszmákban minden ütéssorozat végrehajtása után ugyanazzal a bábuval nem lehet további ütés,
+     * és a leütött bábuk száma megegyezik a maszk bitjeinek számával.
+     */
+    @Test
+    void testSequencesAreComplete() {
+        int[] capturedSets = new int[MoveGenerator.MAX_MOVES];
+        Random random = new Random(11);
+        for (int game = 0; game < 200; game++) {
+            BitBoard position = BitBoard.initial();
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generateLegal(position, moves, capturedSets);
+                if (count == 0) break;
+                int i = random.nextInt(count);
+                int opponentBefore = Integer.bitCount(position.piecesOf(position.getSideToMove() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE));
+                PieceColor mover = position.getSideToMove();
+                position.makeMove(moves[i], capturedSets[i]);
+                assertEquals(Zobrist.hash(position.getWhite(), position.getBlack(), position.getKings(), position.getSideToMove()), position.getHash());
+                int opponentAfter = Integer.bitCount(position.piecesOf(position.getSideToMove()));
+                assertEquals(Integer.bitCount(capturedSets[i]), opponentBefore - opponentAfter);
+                if (capturedSets[i] != 0) {
+                    position.setSideToMove(mover);
+                    assertEquals(0, position.captureTargets(PackedMove.to(moves[i])));
+                    position.setSideToMove(position.getSideToMove() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Véletlen állásokon ellenőrzi, hogy a generált lépések pontosan a mezőnkénti célmezőket adják ki.
+     */
+    @Test
+    void testMatchesPerSquareTargets() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int white = random.nextInt() & random.nextInt();
+            int black = random.nextInt() & random.nextInt() & ~white;
+            int kings = random.nextInt() & (white | black);
+            BitBoard position = new BitBoard(white, black, kings, random.nextBoolean() ? PieceColor.WHITE : PieceColor.BLACK);
+
+            int[] normal = new int[BitBoard.SQUARES];
+            int[] capture = new int[BitBoard.SQUARES];
+            int count = MoveGenerator.generate(position, moves);
+            for (int j = 0; j < count; j++) {
+                int m = moves[j];
+                if (PackedMove.isCapture(m)) capture[PackedMove.from(m)] |= 1 << PackedMove.to(m);
+                else normal[PackedMove.from(m)] |= 1 << PackedMove.to(m);
+            }
+            for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+                assertEquals(position.normalMoveTargets(sq), normal[sq]);
+                assertEquals(position.captureTargets(sq), capture[sq]);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package test;
+
+import book.GameRecord;
+import book.OpeningBook;
+import book.OpeningBookBuilder;
+import engine.SearchResult;
+import logic.BitBoard;
+import logic.PackedMove;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pieces.PieceColor;
+import players.ComputerPlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A megnyitás könyv készítésének és lekérdezésének tesztjei.
+ */
+class OpeningBookTest {
+
+    private static final String[] GAMES = {
+            "1-0 (5,0)-(4,1) (2,1)-(3,2) (5,2)-(4,3)",
+            "1-0 (5,0)-(4,1) (2,1)-(3,0) (5,2)-(4,3)",
+            "1/2 (5,0)-(4,1) (2,1)-(3,2)",
+            "0-1 (5,2)-(4,3) (2,1)-(3,2)",
+            "* (5,6)-(4,7)",
+    };
+
+    /**
+     * A játszma szöveges alakja visszaolvasható, a szabálytalan lépés hibát okoz.
+     */
+    @Test
+    void testGameRecordRoundTrip() {
+        GameRecord game = GameRecord.parse(GAMES[0]);
+        assertEquals(3, game.length());
+        assertEquals(PieceColor.WHITE, game.getWinner());
+        assertEquals(game, GameRecord.parse(game.toString()));
+        assertThrows(IllegalArgumentException.class, () -> GameRecord.parse("1-0 (5,0)-(3,2)"));
+    }
+
+    /**
+     * A kezdőállás lépéseinek statisztikái a lépő fél szemszögéből összesülnek, a ritka lépések és a befejezetlen játszmák kimaradnak.
+     */
+    @Test
+    void testBookStatistics(@TempDir Path directory) throws IOException {
+        Path file = buildBook(directory, 2);
+        OpeningBook book = OpeningBook.open(file);
+        assertNotNull(book);
+        assertEquals(4, book.getMaxPly());
+
+        List<OpeningBook.BookMove> moves = book.probe(BitBoard.initial());
+        assertEquals(1, moves.size()); // A (5,2)-(4,3) csak egy játszmában szerepel.
+        OpeningBook.BookMove move = moves.get(0);
+        assertEquals("(5,0)-(4,1)", PackedMove.toString(move.getMove()));
+        assertEquals(2, move.getWins());
+        assertEquals(1, move.getDraws());
+        assertEquals(0, move.getLosses());
+        assertEquals(2 * 2 + 1 + 1, move.getWeight());
+
+        BitBoard position = BitBoard.initial();
+        position.makeMove(move.getMove(), move.getCapturedSet());
+        List<OpeningBook.BookMove> replies = book.probe(position);
+        assertEquals(1, replies.size());
+        assertEquals(1, replies.get(0).getDraws() + replies.get(0).getWins());
+        assertEquals(1, replies.get(0).getLosses());
+
+        assertTrue(book.probe(BitBoard.parse("wwww............................ w")).isEmpty());
+    }
+
+    /**
+     * A számítógépes játékos a könyvben szereplő állásban keresés nélkül a könyv lépését választja.
+     */
+    @Test
+    void testComputerPlayerUsesBook(@TempDir Path directory) throws IOException {
+        OpeningBook book = OpeningBook.open(buildBook(directory, 1));
+        ComputerPlayer player = new ComputerPlayer("Computer", PieceColor.WHITE, 6, 0, 1);
+        player.setOpeningBook(book);
+        SearchResult result = player.chooseMove(BitBoard.initial());
+        assertEquals(0, result.getDepth());
+        assertEquals(0, result.getNodes());
+        assertTrue(PackedMove.from(result.getMove()) == BitBoard.square(5, 0) || PackedMove.from(result.getMove()) == BitBoard.square(5, 2));
+        assertEquals(result.getMove(), player.chooseMove(BitBoard.initial()).getMove());
+        player.shutdown();
+    }
+
+    private static Path buildBook(Path directory, int minGames) throws IOException {
+        Path games = directory.resolve("games");
+        Files.createDirectories(games);
+        Files.write(games.resolve("games.txt"), List.of(GAMES));
+        OpeningBookBuilder builder = new OpeningBookBuilder(4, minGames);
+        builder.addGames(games);
+        Path file = directory.resolve(OpeningBook.DEFAULT_FILE);
+        builder.write(file);
+        assertEquals(4, builder.getGames());
+        assertEquals(1, builder.getSkipped());
+        return file;
+    }
+}
@@ -0,0 +1,41 @@
+package test;
+
+import logic.BitBoard;
+import logic.Perft;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A Perft osztály tesztjei. A kezdőállás levélszámai rögzítik a lépésgenerátor viselkedését,
+ * így egy generátor módosítás utáni eltérés azonnal kiderül.
+ */
+class PerftTest {
+
+    private static final long[] INITIAL_COUNTS = {1, 7, 49, 379, 2872, 23582, 189143};
+
+    /**
+     * A kezdőállás levélszámai tömeges számolással és anélkül.
+     */
+    @Test
+    void testInitialPosition() {
+        Perft bulk = new Perft(6, true, 0);
+        Perft plain = new Perft(6, false, 0);
+        for (int depth = 0; depth <= 6; depth++) {
+            assertEquals(INITIAL_COUNTS[depth], bulk.perft(BitBoard.initial(), depth));
+            assertEquals(INITIAL_COUNTS[depth], plain.perft(BitBoard.initial(), depth));
+        }
+    }
+
+    /**
+     * A hash tábla és a gyökér lépésenkénti bontás (divide) nem változtat a levelek számán.
+     */
+    @Test
+    void testHashAndDivideAgree() {
+        BitBoard position = BitBoard.parse("bbbbbbbb.bbb.b......wwww.wwwwwww b");
+        long expected = new Perft(6, false, 0).perft(position, 6);
+
+        assertEquals(expected, new Perft(6, true, 1).perft(position, 6));
+        assertEquals(expected, new Perft(6, true, 0).divide(position, 6));
+    }
+}
@@ -0,0 +1,119 @@
+package test;
+
+import logic.BitBoard;
+import main.SaveFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pieces.PieceColor;
+import players.ComputerPlayer;
+import players.Player;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A bináris mentési formátum (SaveFile) tesztjei.
+ */
+class SaveFileTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Az állás, az ütéskényszer és a játékosok adatai, a számítógép beállításaival együtt, változatlanul visszaolvashatók.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        BitBoard position = new BitBoard(1 << BitBoard.square(4, 3) | 1 << BitBoard.square(7, 6),
+                1 << BitBoard.square(3, 4) | 1 << BitBoard.square(0, 7), 1 << BitBoard.square(0, 7), PieceColor.WHITE);
+        Player white = new Player("Éva", PieceColor.WHITE);
+        white.setCurrentPlayer(true);
+        white.setMovecount(7);
+        ComputerPlayer black = new ComputerPlayer("Gép", PieceColor.BLACK, 6, 750, 2);
+        black.setPondering(true);
+        black.setMovecount(6);
+
+        Path file = directory.resolve("game.sav");
+        new SaveFile(position, true, BitBoard.square(4, 3), new Player[]{white, black}).write(file);
+        assertTrue(Files.size(file) < 100);
+        SaveFile save = SaveFile.read(file);
+
+        assertEquals(position, save.getPosition());
+        assertEquals(PieceColor.WHITE, save.getPosition().getSideToMove());
+        assertTrue(save.isCaptureLocked());
+        assertEquals(BitBoard.square(4, 3), save.getLockedSquare());
+        Player[] players = save.getPlayers();
+        assertEquals(2, players.length);
+        assertEquals("Éva", players[0].toString());
+        assertTrue(players[0].isCurrentPlayer());
+        assertEquals(7, players[0].getMovecount());
+        ComputerPlayer computer = assertInstanceOf(ComputerPlayer.class, players[1]);
+        assertEquals("Gép", computer.toString());
+        assertEquals(PieceColor.BLACK, computer.getColor());
+        assertFalse(computer.isCurrentPlayer());
+        assertEquals(6, computer.getMovecount());
+        assertEquals(6, computer.getMaxDepth());
+        assertEquals(750, computer.getTimeMillis());
+        assertEquals(2, computer.getThreads());
+        assertTrue(computer.isPondering());
+    }
+
+    /**
+     * Sérült, csonka vagy idegen fájl beolvasása IOException-t dob.
+     */
+    @Test
+    void testRejectsCorruptFiles() {
+        Player[] players = {new Player("A", PieceColor.WHITE), new Player("B", PieceColor.BLACK)};
+        byte[] data = new SaveFile(BitBoard.initial(), false, -1, players).toBytes();
+
+        byte[] flipped = data.clone();
+        flipped[10] ^= 1;
+        assertThrows(IOException.class, () -> SaveFile.fromBytes(flipped));
+        byte[] truncated = Arrays.copyOf(data, data.length - 6);
+        assertThrows(IOException.class, () -> SaveFile.fromBytes(truncated));
+        byte[] foreign = data.clone();
+        foreign[0] = 'X';
+        assertThrows(IOException.class, () -> SaveFile.fromBytes(foreign));
+    }
+
+    /**
+     * Az eredeti kóddal (a táblát és a GameLogic-ot is magukkal vivő bábukkal) írt game.txt és players.txt beolvasása:
+     * a kezdőállásból a fehér (5,2) bábuja a (4,3) mezőre lépett, és a fekete Bob következik.
+     */
+    @Test
+    void testImportLegacy() throws IOException, URISyntaxException {
+        SaveFile save = SaveFile.importLegacy(resource("legacy/game.txt"), resource("legacy/players.txt"));
+
+        BitBoard initial = BitBoard.initial();
+        int white = initial.getWhite() & ~(1 << BitBoard.square(5, 2)) | 1 << BitBoard.square(4, 3);
+        assertEquals(new BitBoard(white, initial.getBlack(), 0, PieceColor.BLACK), save.getPosition());
+        assertEquals(PieceColor.BLACK, save.getPosition().getSideToMove());
+        assertFalse(save.isCaptureLocked());
+
+        Player[] players = save.getPlayers();
+        assertEquals(2, players.length);
+        assertEquals("Anna", players[0].toString());
+        assertEquals(PieceColor.WHITE, players[0].getColor());
+        assertFalse(players[0].isCurrentPlayer());
+        assertEquals(2, players[0].getMovecount());
+        assertEquals("Bob", players[1].toString());
+        assertEquals(PieceColor.BLACK, players[1].getColor());
+        assertTrue(players[1].isCurrentPlayer());
+        assertEquals(1, players[1].getMovecount());
+
+        SaveFile single = SaveFile.importLegacy(resource("legacy/game.txt"), PieceColor.BLACK);
+        assertEquals(save.getPosition(), single.getPosition());
+    }
+
+    private static Path resource(String name) throws URISyntaxException {
+        URL url = SaveFileTest.class.getResource(name);
+        assertNotNull(url, name);
+        return Path.of(url.toURI());
+    }
+}
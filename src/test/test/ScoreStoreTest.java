@@ -0,0 +1,101 @@
+package test;
+
+import board.Board;
+import main.LeaderBoard;
+import main.ScoreStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pieces.PieceColor;
+import players.Player;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A ranglista fájl alapú tárolójának (ScoreStore) tesztjei.
+ */
+class ScoreStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Az eredmények a naplóból, tömörítés után a pillanatképből, majd a kettő együtt is visszaolvashatók,
+     * és mindig a legjobb pontszám marad meg.
+     */
+    @Test
+    void testRecordsSurviveReopenAndCompaction() throws IOException {
+        Path snapshot = directory.resolve("leaderboard.dat"), log = directory.resolve("leaderboard.log");
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertTrue(store.record("Anna", 30));
+            assertTrue(store.record("Bob", 25));
+            assertTrue(store.record("Anna", 20));
+            assertFalse(store.record("Bob", 40));
+            assertEquals(3, store.getLogRecords());
+        }
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertEquals(Map.of("Anna", 20, "Bob", 25), store.getScores());
+            store.compact();
+            assertEquals(0, store.getLogRecords());
+            assertTrue(store.record("Cili", 18));
+        }
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertEquals(Map.of("Anna", 20, "Bob", 25, "Cili", 18), store.getScores());
+            assertEquals(1, store.getLogRecords());
+        }
+    }
+
+    /**
+     * A napló félbeszakadt utolsó rekordját megnyitáskor levágja, az előző rekordok megmaradnak, és utána is lehet írni.
+     */
+    @Test
+    void testTornLogRecordIsDropped() throws IOException {
+        Path snapshot = directory.resolve("leaderboard.dat"), log = directory.resolve("leaderboard.log");
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            store.record("Anna", 30);
+            store.record("Bob", 25);
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertEquals(Map.of("Anna", 30), store.getScores());
+            store.record("Cili", 18);
+        }
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertEquals(Map.of("Anna", 30, "Cili", 18), store.getScores());
+        }
+    }
+
+    /**
+     * A régi, szerializált panelt tartalmazó ranglista pontszámait a betöltés átveszi, és pillanatképet ír belőlük.
+     */
+    @Test
+    void testImportsLegacyLeaderBoard() throws IOException {
+        Board board = new Board() {};
+        LeaderBoard old = new LeaderBoard(board);
+        old.addPlayer(new Player("Anna", PieceColor.WHITE), 30);
+        old.addPlayer(new Player("Bob", PieceColor.BLACK), 25);
+        Path legacy = directory.resolve("leaderboard.txt");
+        try (OutputStream out = Files.newOutputStream(legacy); ObjectOutputStream o = new ObjectOutputStream(out)) {
+            o.writeObject(old);
+        }
+
+        Path snapshot = directory.resolve("leaderboard.dat"), log = directory.resolve("leaderboard.log");
+        LeaderBoard loaded = LeaderBoard.load(board, snapshot, log, legacy);
+        assertEquals(Map.of("Anna", 30, "Bob", 25), loaded.getLB());
+        assertTrue(Files.exists(snapshot));
+        loaded.close();
+        try (ScoreStore store = ScoreStore.open(snapshot, log)) {
+            assertEquals(Map.of("Anna", 30, "Bob", 25), store.getScores());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package test;
+
+import engine.ParallelSearch;
+import engine.Search;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+import org.junit.jupiter.api.Test;
+import pieces.PieceColor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A Search osztály tesztjei.
+ */
+class SearchTest {
+
+    /**
+     * Ha a fehér le tudja ütni az utolsó fekete bábut, a keresés ezt az ütést választja, nyert értékkel.
+     */
+    @Test
+    void testFindsWinningCapture() {
+        int white = 1 << BitBoard.square(5, 2) | 1 << BitBoard.square(7, 0);
+        int black = 1 << BitBoard.square(4, 3);
+        BitBoard position = new BitBoard(white, black, 0, PieceColor.WHITE);
+
+        SearchResult result = new Search(new TranspositionTable(1)).search(position, 6, 0);
+
+        assertTrue(result.hasMove());
+        assertTrue(PackedMove.isCapture(result.getMove()));
+        assertEquals(BitBoard.square(3, 4), PackedMove.to(result.getMove()));
+        assertTrue(result.getScore() >= Search.WIN - Search.MAX_PLY);
+    }
+
+    /**
+     * A kezdőállásban a keresés szabályos lépést ad vissza, és nem módosítja a kapott állást.
+     */
+    @Test
+    void testReturnsLegalMoveAndKeepsRoot() {
+        BitBoard root = BitBoard.initial();
+        BitBoard copy = BitBoard.initial();
+
+        SearchResult result = new Search(new TranspositionTable(1)).search(root, 5, 0);
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(copy, moves, captured);
+        boolean found = false;
+        for (int i = 0; i < count; i++) {
+            found |= moves[i] == result.getMove();
+        }
+        assertTrue(found);
+        assertEquals(5, result.getDepth());
+        assertEquals(copy, root);
+        assertEquals(copy.getHash(), root.getHash());
+    }
+
+    /**
+     * Több szállal is a nyerő ütést találja meg, a csúcsszám a szálak csúcsszámainak összege.
+     */
+    @Test
+    void testParallelSearch() {
+        int white = 1 << BitBoard.square(5, 2) | 1 << BitBoard.square(7, 0);
+        int black = 1 << BitBoard.square(4, 3) | 1 << BitBoard.square(0, 7);
+        BitBoard position = new BitBoard(white, black, 0, PieceColor.WHITE);
+
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(1), 3);
+        SearchResult result = search.search(position, 8, 0);
+        search.shutdown();
+
+        assertEquals(3, search.getThreads());
+        assertTrue(PackedMove.isCapture(result.getMove()));
+        assertEquals(BitBoard.square(3, 4), PackedMove.to(result.getMove()));
+        assertEquals(search.getThreadNodes(0) + search.getThreadNodes(1) + search.getThreadNodes(2), result.getNodes());
+    }
+
+    /**
+     * A kezdőállás keresése után a vágások statisztikája kitöltött, és a vágások nagy része már az első lépésnél történik.
+     */
+    @Test
+    void testOrderingStatistics() {
+        Search search = new Search(new TranspositionTable(4));
+        search.search(BitBoard.initial(), 8, 0);
+        long cutoffs = 0, first = 0;
+        for (int depth = 1; depth < Search.MAX_PLY; depth++) {
+            assertTrue(search.getFirstMoveCutoffs(depth) <= search.getCutoffs(depth));
+            cutoffs += search.getCutoffs(depth);
+            first += search.getFirstMoveCutoffs(depth);
+        }
+        assertTrue(cutoffs > 0);
+        assertTrue(first * 10 >= cutoffs * 8, first + " / " + cutoffs);
+        assertTrue(search.orderingStatistics().contains("all"));
+    }
+
+    /**
+     * Időkorláttal a keresés a korláton belül befejeződik, és legalább az első iterációt befejezi.
+     */
+    @Test
+    void testTimeLimit() {
+        Search search = new Search(new TranspositionTable(4));
+        SearchResult result = search.search(BitBoard.initial(), Search.MAX_PLY - 1, 200);
+        assertTrue(result.hasMove());
+        assertTrue(result.getDepth() >= 1);
+        assertTrue(result.getTimeMillis() <= 200 + 100, "time " + result.getTimeMillis());
+    }
+
+    /**
+     * A várakozó keresés a találatig nem áll le, a találat után a kapott időkorláton belül eredményt ad.
+     * Az elindulás előtt visszavont kérés nem indul el, a befejezett keresésre érkező találat hatástalan.
+     */
+    @Test
+    void testPonder() throws Exception {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(4), 1);
+        long ticket = search.newPonderTicket();
+        CompletableFuture<SearchResult> future =
+                CompletableFuture.supplyAsync(() -> search.ponder(BitBoard.initial(), Search.MAX_PLY - 1, ticket));
+        Thread.sleep(300);
+        assertFalse(future.isDone());
+        assertTrue(search.ponderHit(ticket, 100));
+        SearchResult result = future.get(2, TimeUnit.SECONDS);
+        assertTrue(result.hasMove());
+        assertFalse(search.ponderHit(ticket, 100));
+
+        long cancelled = search.newPonderTicket();
+        search.cancelPonder(cancelled);
+        assertNull(search.ponder(BitBoard.initial(), Search.MAX_PLY - 1, cancelled));
+
+        long early = search.newPonderTicket();
+        assertTrue(search.ponderHit(early, 50));
+        assertTrue(search.ponder(BitBoard.initial(), Search.MAX_PLY - 1, early).hasMove());
+        search.shutdown();
+    }
+}
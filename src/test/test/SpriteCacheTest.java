@@ -0,0 +1,47 @@
+package test;
+
+import org.junit.jupiter.api.Test;
+import pieces.NormalPiece;
+import pieces.Piece;
+import pieces.PieceColor;
+import pieces.QueenPiece;
+import pieces.SpriteCache;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A bábu képek közös gyorsítótárának tesztjei.
+ */
+class SpriteCacheTest {
+
+    /**
+     * Ugyanarra a bábura és mezőméretre mindig ugyanaz a kép jön vissza, más méretre külön, a kért méretű kép.
+     */
+    @Test
+    void testSpritesAreShared() {
+        BufferedImage image = NormalPiece.WHITE.getImage(75);
+        assertNotNull(image);
+        assertEquals(75, image.getWidth());
+        assertEquals(75, image.getHeight());
+        assertSame(image, Piece.of(PieceColor.WHITE, false).getImage(75));
+        assertNotSame(image, NormalPiece.BLACK.getImage(75));
+        assertNotSame(image, QueenPiece.WHITE.getImage(75));
+
+        BufferedImage small = NormalPiece.WHITE.getImage(40);
+        assertEquals(40, small.getWidth());
+        assertNotSame(image, small);
+        assertSame(small, NormalPiece.WHITE.getImage(40));
+    }
+
+    /**
+     * Hiányzó erőforrás esetén null-t ad, és nem kerül a gyorsítótárba.
+     */
+    @Test
+    void testMissingImage() {
+        int size = SpriteCache.size();
+        assertNull(SpriteCache.get("missing.png", 75));
+        assertEquals(size, SpriteCache.size());
+    }
+}
@@ -0,0 +1,161 @@
+package test;
+
+import engine.Search;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import logic.BitBoard;
+import logic.MoveGenerator;
+import logic.PackedMove;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pieces.PieceColor;
+import tablebase.Tablebase;
+import tablebase.TablebaseGenerator;
+import tablebase.TablebaseIndex;
+import tablebase.TablebaseProbe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A végjáték táblák indexelésének és előállításának tesztjei.
+ */
+class TablebaseTest {
+
+    private final Map<Integer, ByteBuffer> buffers = new HashMap<>(); // A már leképezett szeletek.
+
+    /**
+     * Az index tökéletes hash: minden érvényes index visszafejtett állása ugyanarra az indexre képződik,
+     * és különböző indexekhez különböző állások tartoznak.
+     */
+    @Test
+    void testIndexRoundTrip() {
+        TablebaseIndex index = new TablebaseIndex(1, 1, 1, 1);
+        BitBoard position = new BitBoard();
+        Set<BitBoard> seen = new HashSet<>();
+        for (int i = 0; i < index.size(); i++) {
+            if (!index.decode(i, PieceColor.BLACK, position)) continue;
+            assertEquals(i, index.index(position));
+            assertEquals(index.materialCode(), TablebaseIndex.materialCode(position));
+            assertTrue(seen.add(new BitBoard(position.getWhite(), position.getBlack(), position.getKings(), PieceColor.BLACK)));
+        }
+        assertEquals(28 * 28 - 24, seen.size() / (30 * 29)); // A két normál bábu 24 mezőn ütközhet.
+    }
+
+    /**
+     * Háromig előállítja a táblákat, majd minden állásra ellenőrzi, hogy az értéke a lépései utáni állások értékéből adódik:
+     * nyer, ha van vesztes utód (a legrövidebbnél eggyel hosszabban), veszít, ha minden utód nyer (a leghosszabbnál eggyel hosszabban),
+     * egyébként döntetlen.
+     */
+    @Test
+    void testGeneratedValuesAreConsistent(@TempDir Path directory) throws IOException {
+        new TablebaseGenerator(directory, 3, 2).generate();
+
+        BitBoard position = new BitBoard();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        for (TablebaseIndex index : new TablebaseIndex[]{new TablebaseIndex(1, 1, 0, 1), new TablebaseIndex(0, 2, 1, 0),
+                new TablebaseIndex(1, 0, 1, 1), new TablebaseIndex(2, 0, 1, 0)}) {
+            ByteBuffer buffer = Tablebase.map(directory.resolve(index.fileName()), index);
+            for (int i = 0; i < 2 * index.size(); i++) {
+                PieceColor side = i < index.size() ? PieceColor.WHITE : PieceColor.BLACK;
+                if (!index.decode(i % index.size(), side, position)) continue;
+                int value = Tablebase.value(buffer, index, position);
+                assertEquals(expectedValue(directory, position, moves, captured), value, position + " " + Tablebase.toString(value));
+            }
+        }
+    }
+
+    /**
+     * Egy fehér normál bábu leütheti az utolsó fekete bábut, így a fehér egy féllépésben nyer.
+     */
+    @Test
+    void testCaptureWins(@TempDir Path directory) throws IOException {
+        new TablebaseGenerator(directory, 2, 1).generate();
+        TablebaseIndex index = new TablebaseIndex(1, 0, 1, 0);
+        ByteBuffer buffer = Tablebase.map(directory.resolve(index.fileName()), index);
+        BitBoard position = new BitBoard(1 << BitBoard.square(5, 2), 1 << BitBoard.square(4, 3), 0, PieceColor.WHITE);
+        assertEquals(Tablebase.win(1), Tablebase.value(buffer, index, position));
+    }
+
+    /**
+     * A tömörített fájlokból, gyorsítótáron keresztül kiolvasott értékek megegyeznek a tömörítetlen fájl értékeivel,
+     * és a számlálók a lekérdezéseket mutatják. A táblákénál több bábus állásra nincs érték.
+     */
+    @Test
+    void testProbeMatchesRawValues(@TempDir Path directory) throws IOException {
+        new TablebaseGenerator(directory, 3, 2).generate();
+        TablebaseProbe probe = TablebaseProbe.open(directory, 4);
+        assertNotNull(probe);
+        assertEquals(3, probe.getMaxPieces());
+
+        TablebaseIndex index = new TablebaseIndex(1, 1, 0, 1);
+        ByteBuffer buffer = Tablebase.map(directory.resolve(index.fileName()), index);
+        BitBoard position = new BitBoard();
+        int probes = 0;
+        for (int i = 0; i < 2 * index.size(); i++) {
+            PieceColor side = i < index.size() ? PieceColor.WHITE : PieceColor.BLACK;
+            if (!index.decode(i % index.size(), side, position)) continue;
+            assertEquals(Tablebase.value(buffer, index, position), probe.probe(position));
+            probes++;
+        }
+        assertEquals(probes, probe.getHits());
+        assertTrue(probe.getBlockHits() > probe.getBlockMisses());
+        assertEquals(Tablebase.INVALID, probe.probe(BitBoard.initial()));
+    }
+
+    /**
+     * A táblában szereplő gyökérállásban a keresés nem keres, hanem a tábla szerinti nyerő ütést választja.
+     */
+    @Test
+    void testSearchUsesTablebase(@TempDir Path directory) throws IOException {
+        new TablebaseGenerator(directory, 3, 1).generate();
+        Search search = new Search(new TranspositionTable(1));
+        search.setTablebase(TablebaseProbe.open(directory, 64));
+        int white = 1 << BitBoard.square(5, 2) | 1 << BitBoard.square(7, 0);
+        BitBoard position = new BitBoard(white, 1 << BitBoard.square(4, 3), 0, PieceColor.WHITE);
+
+        SearchResult result = search.search(position, 10, 0);
+        assertEquals(0, result.getDepth());
+        assertEquals(BitBoard.square(3, 4), PackedMove.to(result.getMove()));
+        assertEquals(Search.WIN - 1, result.getScore());
+    }
+
+    private int expectedValue(Path directory, BitBoard position, int[] moves, int[] captured) throws IOException {
+        PieceColor winner = position.winner();
+        if (winner != null) {
+            return winner == position.getSideToMove() ? Tablebase.win(0) : Tablebase.loss(0);
+        }
+        int count = MoveGenerator.generateLegal(position, moves, captured);
+        int[] childValues = new int[count];
+        for (int m = 0; m < count; m++) {
+            position.makeMove(moves[m], captured[m]);
+            TablebaseIndex childIndex = TablebaseIndex.of(position);
+            ByteBuffer buffer = buffers.get(childIndex.materialCode());
+            if (buffer == null) {
+                buffer = Tablebase.map(directory.resolve(childIndex.fileName()), childIndex);
+                buffers.put(childIndex.materialCode(), buffer);
+            }
+            childValues[m] = Tablebase.value(buffer, childIndex, position);
+            position.unmakeMove();
+        }
+        int shortestWin = Integer.MAX_VALUE;
+        int longestLoss = -1;
+        boolean allWins = true;
+        for (int value : childValues) {
+            if (Tablebase.isLoss(value)) shortestWin = Math.min(shortestWin, Tablebase.distance(value) + 1);
+            if (Tablebase.isWin(value)) longestLoss = Math.max(longestLoss, Tablebase.distance(value) + 1);
+            else allWins = false;
+        }
+        if (shortestWin != Integer.MAX_VALUE) return Tablebase.win(shortestWin);
+        if (allWins) return Tablebase.loss(longestLoss);
+        return Tablebase.DRAW;
+    }
+}
@@ -0,0 +1,73 @@
+package test;
+
+import book.GameRecord;
+import engine.Evaluation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tournament.Tournament;
+import tournament.TournamentResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A felület nélküli önjáték és az eredmény összesítésének tesztjei.
+ */
+class TournamentTest {
+
+    /**
+     * A véletlen nyitások különbözőek, a kért hosszúságúak, és a kezdőállásból szabályosak.
+     */
+    @Test
+    void testRandomOpenings() {
+        List<GameRecord> openings = Tournament.randomOpenings(20, 4, 3);
+        assertEquals(20, openings.size());
+        assertEquals(20, new HashSet<>(openings.stream().map(GameRecord::toString).toList()).size());
+        for (GameRecord opening : openings) {
+            assertEquals(4, opening.length());
+            assertEquals(opening, GameRecord.parse(opening.toString()));
+        }
+        assertEquals(openings, Tournament.randomOpenings(20, 4, 3));
+    }
+
+    /**
+     * Minden nyitás mindkét színelosztással lejátszódik, a kiírt játszmák befejezettek és visszaolvashatók.
+     */
+    @Test
+    void testRun(@TempDir Path directory) throws IOException, InterruptedException {
+        List<GameRecord> openings = Tournament.randomOpenings(3, 4, 5);
+        Path output = directory.resolve("games").resolve("selfplay.txt");
+        TournamentResult result = new Tournament(Evaluation.DEFAULT, Evaluation.DEFAULT, 2, 0, 2).run(openings, output);
+        assertEquals(6, result.getGames());
+
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(6, lines.size());
+        for (String line : lines) {
+            GameRecord game = GameRecord.parse(line);
+            assertTrue(game.isFinished());
+            assertTrue(game.length() > 4);
+        }
+    }
+
+    /**
+     * Az Élő különbség és a hibahatár a pontarányból.
+     */
+    @Test
+    void testElo() {
+        TournamentResult even = new TournamentResult(30, 40, 30, 1000);
+        assertEquals(0, even.getElo(), 1e-9);
+        assertTrue(even.getEloError() > 0);
+        assertEquals(100, even.getGamesPerSecond(), 1e-9);
+
+        TournamentResult better = new TournamentResult(75, 0, 25, 1000);
+        assertEquals(190.8, better.getElo(), 0.1);
+        TournamentResult more = new TournamentResult(750, 0, 250, 1000);
+        assertTrue(more.getEloError() < better.getEloError());
+        assertEquals(Double.POSITIVE_INFINITY, new TournamentResult(5, 0, 0, 1).getElo());
+    }
+}
@@ -0,0 +1,67 @@
+package test;
+
+import engine.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A TranspositionTable osztály tesztjei.
+ */
+class TranspositionTableTest {
+
+    /**
+     * Egy elmentett bejegyzés visszaolvasását, illetve a hiányzó kulcs kezelését teszteli.
+     */
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable tt = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        tt.store(key, 0x1ABCD, -1234, 7, TranspositionTable.LOWER);
+
+        long data = tt.probe(key);
+        assertNotEquals(0, data);
+        assertEquals(0x1ABCD, TranspositionTable.move(data));
+        assertEquals(-1234, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+
+        assertEquals(0, tt.probe(key + 1));
+        assertEquals(2, tt.getProbes());
+        assertEquals(1, tt.getHits());
+        assertEquals(1, tt.getMisses());
+    }
+
+    /**
+     * A mélység szerinti cserét teszteli: egy vödörbe eső harmadik kulcs a kisebb mélységű bejegyzést írja felül.
+     */
+    @Test
+    void testDepthPreferredReplacement() {
+        TranspositionTable tt = new TranspositionTable(1);
+        long stride = 1L << 40; // Az alsó bitek azonosak, így mindhárom kulcs ugyanabba a vödörbe esik.
+        long deep = 5 * stride + 3;
+        long shallow = 6 * stride + 3;
+        long newcomer = 7 * stride + 3;
+
+        tt.store(deep, 1, 10, 9, TranspositionTable.EXACT);
+        tt.store(shallow, 2, 20, 2, TranspositionTable.EXACT);
+        tt.store(newcomer, 3, 30, 4, TranspositionTable.EXACT);
+
+        assertNotEquals(0, tt.probe(deep));
+        assertEquals(0, tt.probe(shallow));
+        assertNotEquals(0, tt.probe(newcomer));
+        assertEquals(1, tt.getCollisions());
+    }
+
+    /**
+     * A túl nagy érték és mélység a tárolható tartományba szorul.
+     */
+    @Test
+    void testScoreClamping() {
+        TranspositionTable tt = new TranspositionTable(1);
+        tt.store(42, 0, 100000, 300, TranspositionTable.UPPER);
+        long data = tt.probe(42);
+        assertEquals(Short.MAX_VALUE, TranspositionTable.score(data));
+        assertEquals(255, TranspositionTable.depth(data));
+    }
+}
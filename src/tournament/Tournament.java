@@ -0,0 +1,271 @@
+package tournament;
+
+import book.GameRecord;
+import engine.Evaluation;
+import engine.ParallelSearch;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import logic.BitBoard;
+import logic.MoveGenerator;
+import pieces.PieceColor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Felület nélküli, párhuzamos önjáték két motor (A és B) között, hogy egy motor változtatásról mérhető legyen, valóban erősebb-e.
+ *
+ * A két motor a statikus értékelésben (súly fájl) különbözhet, a keresési mélység és az időkorlát közös.
+ * Minden nyitóállást kétszer játszanak le, felcserélt színekkel, így a nyitás előnye kiegyenlítődik. A nyitások
+ * a kezdőállásból véletlen lépésekkel készülnek, vagy egy játszma fájlból (GameRecord sorok) az első néhány lépésük.
+ * A játszmák a processzorok számának megfelelő munkaszálon futnak, szálanként két egy szálas kereséssel (ParallelSearch)
+ * és saját transzpozíciós táblával, amely minden játszma előtt törlődik; JFrame, Board és képek nélkül, csak a BitBoard-on.
+ * A játszma véget ér, ha valamelyik fél nyert (BitBoard.winner), döntetlen, ha ugyanaz az állás harmadszor fordul elő,
+ * vagy MAX_PLIES féllépés után sem dőlt el.
+ * A lejátszott játszmák GameRecord sorokként egy fájlba is írhatók, így a megnyitás könyv (OpeningBookBuilder) építhető belőlük.
+ *
+ * Használat:
+ *  java tournament.Tournament [játszmák] [mélység] [idő ms] [A súly fájl] [B súly fájl] [nyitás fájl] [szálak] [kimeneti fájl]
+ * A "-" fájlnév az alapértelmezést jelenti: alapértelmezett súlyok, véletlen nyitások, illetve nincs kimeneti fájl.
+ */
+public class Tournament {
+
+    public static final int DEFAULT_GAMES = 1000; // Alapértelmezett játszmaszám.
+    public static final int DEFAULT_DEPTH = 8; // Alapértelmezett keresési mélység.
+    public static final int OPENING_PLIES = 6; // A nyitások hossza félléptekben.
+    public static final int MAX_PLIES = 300; // Ennyi féllépés után a játszma döntetlen.
+    public static final int TT_MB = 16; // Motoronkénti transzpozíciós tábla méret.
+
+    private final Evaluation evaluationA, evaluationB;
+    private final int maxDepth; // A keresés maximális mélysége félléptekben.
+    private final long timeMillis; // Lépésenkénti időkorlát, 0 esetén csak a mélység korlátoz.
+    private final int workers; // A munkaszálak száma.
+
+    /**
+     * @param evaluationA Az A motor értékelése.
+     * @param evaluationB A B motor értékelése.
+     * @param maxDepth A keresés maximális mélysége félléptekben.
+     * @param timeMillis Lépésenkénti időkorlát ezredmásodpercben (0 esetén csak a mélység korlátoz, a játszmák megismételhetők).
+     * @param workers A munkaszálak száma.
+     */
+    public Tournament(Evaluation evaluationA, Evaluation evaluationB, int maxDepth, long timeMillis, int workers) {
+        this.evaluationA = evaluationA;
+        this.evaluationB = evaluationB;
+        this.maxDepth = maxDepth;
+        this.timeMillis = timeMillis;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Különböző véletlen nyitásokat készít a kezdőállásból. A befejezett állásba vezető nyitások kimaradnak.
+     *
+     * @param count A nyitások száma.
+     * @param plies A nyitások hossza félléptekben.
+     * @param seed A véletlenszám forrás kezdőértéke.
+     * @return A nyitások, legfeljebb count darab (kevesebb, ha nincs ennyi különböző).
+     */
+    public static List<GameRecord> randomOpenings(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        Set<Long> seen = new HashSet<>();
+        List<GameRecord> openings = new ArrayList<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] captured = new int[MoveGenerator.MAX_MOVES];
+        for (int attempt = 0; openings.size() < count && attempt < count * 100; attempt++) {
+            BitBoard position = BitBoard.initial();
+            int[] line = new int[plies];
+            int[] lineCaptured = new int[plies];
+            int ply = 0;
+            for (; ply < plies && position.winner() == null; ply++) {
+                int n = MoveGenerator.generateLegal(position, moves, captured);
+                int m = random.nextInt(n);
+                line[ply] = moves[m];
+                lineCaptured[ply] = captured[m];
+                position.makeMove(moves[m], captured[m]);
+            }
+            if (ply < plies || position.winner() != null || !seen.add(position.getHash())) continue;
+            openings.add(new GameRecord(GameRecord.UNFINISHED, line, lineCaptured));
+        }
+        return openings;
+    }
+
+    /**
+     * Beolvassa a nyitásokat egy játszma fájlból: soronként egy GameRecord, amelynek az első plies lépése a nyitás.
+     * Az üres és a '#' jellel kezdődő sorok kimaradnak.
+     *
+     * @param file A fájl.
+     * @param plies A nyitások legnagyobb hossza félléptekben.
+     * @return A nyitások a fájlbeli sorrendben.
+     * @throws IOException Ha a fájl nem olvasható.
+     * @throws IllegalArgumentException Ha egy sor nem szabályos játszma.
+     */
+    public static List<GameRecord> loadOpenings(Path file, int plies) throws IOException {
+        List<GameRecord> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            GameRecord game = GameRecord.parse(line);
+            int n = Math.min(plies, game.length());
+            int[] moves = new int[n];
+            int[] captured = new int[n];
+            for (int i = 0; i < n; i++) {
+                moves[i] = game.getMove(i);
+                captured[i] = game.getCapturedSet(i);
+            }
+            openings.add(new GameRecord(GameRecord.UNFINISHED, moves, captured));
+        }
+        return openings;
+    }
+
+    /**
+     * Lejátssza az összes nyitást mindkét színelosztással. Blokkol, amíg minden játszma véget nem ér.
+     *
+     * @param openings A nyitások.
+     * @param output A fájl, amelynek a végére a játszmák kerülnek, vagy null.
+     * @return Az eredmény az A motor szemszögéből.
+     * @throws IOException Ha a kimeneti fájl nem írható.
+     * @throws InterruptedException Ha a várakozást megszakították.
+     */
+    public TournamentResult run(List<GameRecord> openings, Path output) throws IOException, InterruptedException {
+        int games = openings.size() * 2;
+        AtomicInteger next = new AtomicInteger();
+        int[] counts = new int[3]; // Győzelem, döntetlen, vereség az A motor szemszögéből.
+        int progress = Math.max(1, games / 20);
+        long start = System.currentTimeMillis();
+
+        BufferedWriter out = null;
+        if (output != null) {
+            if (output.getParent() != null) Files.createDirectories(output.getParent());
+            out = Files.newBufferedWriter(output, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            BufferedWriter writer = out;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    ParallelSearch a = newEngine(evaluationA);
+                    ParallelSearch b = newEngine(evaluationB);
+                    for (int game = next.getAndIncrement(); game < games; game = next.getAndIncrement()) {
+                        boolean aIsWhite = game % 2 == 0;
+                        GameRecord record = play(openings.get(game / 2), aIsWhite ? a : b, aIsWhite ? b : a);
+                        PieceColor winner = record.getWinner();
+                        int outcome = winner == null ? 1 : (winner == PieceColor.WHITE) == aIsWhite ? 0 : 2;
+                        TournamentResult snapshot = null;
+                        synchronized (counts) {
+                            counts[outcome]++;
+                            int played = counts[0] + counts[1] + counts[2];
+                            if (played % progress == 0 && played < games) {
+                                snapshot = new TournamentResult(counts[0], counts[1], counts[2], System.currentTimeMillis() - start);
+                            }
+                        }
+                        if (snapshot != null) System.out.println(snapshot);
+                        if (writer != null) {
+                            synchronized (writer) {
+                                writer.write(record.toString());
+                                writer.newLine();
+                            }
+                        }
+                    }
+                    a.shutdown();
+                    b.shutdown();
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (out != null) out.close();
+        }
+        return new TournamentResult(counts[0], counts[1], counts[2], System.currentTimeMillis() - start);
+    }
+
+    private ParallelSearch newEngine(Evaluation evaluation) {
+        ParallelSearch search = new ParallelSearch(new TranspositionTable(TT_MB), 1);
+        search.setEvaluation(evaluation);
+        return search;
+    }
+
+    /**
+     * Lejátszik egy játszmát a nyitás utáni állásból.
+     *
+     * @param opening A nyitás.
+     * @param white A fehérrel játszó motor.
+     * @param black A feketével játszó motor.
+     * @return A játszma a nyitás lépéseivel együtt, az eredménnyel.
+     */
+    GameRecord play(GameRecord opening, ParallelSearch white, ParallelSearch black) {
+        white.getTranspositionTable().clear();
+        black.getTranspositionTable().clear();
+        int[] moves = new int[opening.length() + MAX_PLIES];
+        int[] captured = new int[moves.length];
+        BitBoard position = BitBoard.initial();
+        int ply = 0;
+        for (; ply < opening.length(); ply++) {
+            moves[ply] = opening.getMove(ply);
+            captured[ply] = opening.getCapturedSet(ply);
+            position.makeMove(moves[ply], captured[ply]);
+        }
+        Map<Long, Integer> seen = new HashMap<>();
+        seen.put(position.getHash(), 1);
+        String result = GameRecord.DRAW;
+        for (int played = 0; played < MAX_PLIES; played++) {
+            PieceColor winner = position.winner();
+            if (winner != null) {
+                result = winner == PieceColor.WHITE ? GameRecord.WHITE_WIN : GameRecord.BLACK_WIN;
+                break;
+            }
+            ParallelSearch engine = position.getSideToMove() == PieceColor.WHITE ? white : black;
+            SearchResult r = engine.search(position, maxDepth, timeMillis);
+            moves[ply] = r.getMove();
+            captured[ply] = r.getCapturedSet();
+            ply++;
+            position.makeMove(r.getMove(), r.getCapturedSet());
+            if (seen.merge(position.getHash(), 1, Integer::sum) >= 3) break;
+        }
+        if (result.equals(GameRecord.DRAW) && position.winner() != null) {
+            result = position.winner() == PieceColor.WHITE ? GameRecord.WHITE_WIN : GameRecord.BLACK_WIN;
+        }
+        return new GameRecord(result, Arrays.copyOf(moves, ply), Arrays.copyOf(captured, ply));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+        long time = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        Evaluation a = args.length > 3 && !args[3].equals("-") ? Evaluation.load(Paths.get(args[3])) : Evaluation.DEFAULT;
+        Evaluation b = args.length > 4 && !args[4].equals("-") ? Evaluation.load(Paths.get(args[4])) : Evaluation.DEFAULT;
+        int pairs = (games + 1) / 2;
+        List<GameRecord> openings = args.length > 5 && !args[5].equals("-")
+                ? loadOpenings(Paths.get(args[5]), OPENING_PLIES) : randomOpenings(pairs, OPENING_PLIES, 1);
+        if (openings.size() > pairs) openings = openings.subList(0, pairs);
+        int workers = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        Path output = args.length > 7 && !args[7].equals("-") ? Paths.get(args[7]) : null;
+
+        System.out.println(openings.size() * 2 + " games, depth " + depth + ", " + (time > 0 ? time + " ms/move, " : "")
+                + workers + " workers");
+        TournamentResult result = new Tournament(a, b, depth, time, workers).run(openings, output);
+        System.out.println(result);
+    }
+}
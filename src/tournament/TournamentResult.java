@@ -0,0 +1,101 @@
+package tournament;
+
+/**
+ * Egy párosítás összesített eredménye az első (A) motor szemszögéből: győzelmek, döntetlenek, vereségek,
+ * a belőlük becsült Élő különbség 95%-os hibahatárral, és a lejátszás sebessége.
+ *
+ * Az Élő különbség a pontarányból (s = (W + D/2) / N) számolt -400 * log10(1/s - 1). A hibahatár a játszmánkénti pontszám
+ * szórásából adódó s ± 1.96 * szórás / gyök(N) intervallum végpontjainak Élő különbségéből számolt félszélesség.
+ * Ha minden játszmát ugyanaz a fél nyert meg, a különbség végtelen.
+ * A példány nem módosítható.
+ */
+public final class TournamentResult {
+
+    private static final double Z95 = 1.959964; // A 95%-os kétoldali intervallum normális kvantilise.
+
+    private final int wins, draws, losses;
+    private final long elapsedMillis; // A lejátszás ideje.
+
+    /**
+     * @param wins Az A motor győzelmei.
+     * @param draws A döntetlenek.
+     * @param losses Az A motor vereségei.
+     * @param elapsedMillis A lejátszás ideje ezredmásodpercben.
+     */
+    public TournamentResult(int wins, int draws, int losses, long elapsedMillis) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return Az A motor pontaránya (0..1), játszma nélkül 0.5.
+     */
+    public double getScore() {
+        int n = getGames();
+        return n == 0 ? 0.5 : (wins + draws / 2.0) / n;
+    }
+
+    /**
+     * @return Az A motor becsült Élő előnye a B motorral szemben.
+     */
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    /**
+     * @return A becsült Élő különbség 95%-os hibahatára (az intervallum félszélessége).
+     */
+    public double getEloError() {
+        int n = getGames();
+        if (n == 0) return Double.POSITIVE_INFINITY;
+        double s = getScore();
+        double variance = (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / n;
+        double margin = Z95 * Math.sqrt(variance / n);
+        return (elo(Math.min(1, s + margin)) - elo(Math.max(0, s - margin))) / 2;
+    }
+
+    /**
+     * @return A másodpercenként lejátszott játszmák száma.
+     */
+    public double getGamesPerSecond() {
+        return getGames() * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    /**
+     * @param score A pontarány (0..1).
+     * @return A pontaránynak megfelelő Élő különbség.
+     */
+    public static double elo(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games %d: +%d =%d -%d score %.1f%% Elo %+.1f +/- %.1f, %.2f games/s",
+                getGames(), wins, draws, losses, getScore() * 100, getElo() + 0.0, getEloError(), getGamesPerSecond());
+    }
+}